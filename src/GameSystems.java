@@ -163,6 +163,7 @@ public final class GameSystems implements Disposable {
         if (blockRenderer != null) blockRenderer.dispose();
 
         if (world != null) world.dispose();
+        QuadIndexBuffer.dispose();
         if (atlas != null) atlas.dispose();
 
         if (playerIO != null && controller != null) {
@@ -14,6 +14,10 @@ public class GlobalVariables {
     public static long seed = 0L;
     public static String worldMode = "normal";
     public static int renderDistance = 8;
+    public static long shutdownSaveDeadlineMs = 5000L;
+
+    // Rendering
+    public static boolean lightTextures = true;
 
     // Player
     public static float reach = 5f;
@@ -139,12 +139,13 @@ public final class RenderPipeline {
             s.skyBodyRenderer.render(s.camera, s.dayNightCycle);
 
             // World blocks
-            s.blockRenderer.begin(s.camera, s.atlas.getTexture());
+            s.blockRenderer.begin(s.camera, s.atlas);
             s.blockRenderer.setDayNight(s.dayNightCycle);
             s.blockRenderer.setFogFromDayNightAdaptive(s.camera, s.dayNightCycle, fogK);
 
             for (Chunk c : s.world.getRenderableChunks()) {
                 s.tmp.set(c.cx * Chunk.SX, 0f, c.cz * Chunk.SZ);
+                if (!s.blockRenderer.bindChunkLight(c)) continue;
                 s.blockRenderer.setChunkTranslation(s.tmp);
                 c.renderOpaque(s.blockRenderer.program());
             }
@@ -155,12 +156,14 @@ public final class RenderPipeline {
 
             Gdx.gl.glDepthMask(false);
 
-            s.blockRenderer.begin(s.camera, s.atlas.getTexture());
+            s.blockRenderer.begin(s.camera, s.atlas);
+            s.blockRenderer.setAlphaPass(true);
             s.blockRenderer.setDayNight(s.dayNightCycle);
             s.blockRenderer.setFogFromDayNightAdaptive(s.camera, s.dayNightCycle, fogK);
 
             for (Chunk c : s.world.getRenderableChunks()) {
                 s.tmp.set(c.cx * Chunk.SX, 0f, c.cz * Chunk.SZ);
+                if (!s.blockRenderer.bindChunkLight(c)) continue;
                 s.blockRenderer.setChunkTranslation(s.tmp);
                 c.renderAlpha(s.blockRenderer.program());
             }
@@ -25,6 +25,12 @@ public final class GameIO {
     /** sync interval seconds */
     public float weatherAutoSyncSeconds = 900f;
 
+    /** max time the exit flush may spend writing dirty chunks */
+    public long shutdownSaveDeadlineMs = 5000L;
+
+    /** light in per-chunk 3D textures (GL30 only): light edits re-upload textures instead of remeshing */
+    public boolean lightTextures = true;
+
     public GameIO() {}
 
     public static GameIO loadOrCreate() {
@@ -66,6 +72,7 @@ public final class GameIO {
             if (loaded.reach <= 0f) loaded.reach = 5f;
             if (loaded.maxProportion <= 0f) loaded.maxProportion = 0.8f;
             if (loaded.weatherAutoSyncSeconds <= 0f) loaded.weatherAutoSyncSeconds = 900f;
+            if (loaded.shutdownSaveDeadlineMs <= 0L) loaded.shutdownSaveDeadlineMs = 5000L;
 
             return loaded;
         } catch (Throwable ex) {
@@ -93,5 +100,7 @@ public final class GameIO {
         GlobalVariables.reach = this.reach;
         GlobalVariables.maxProportion = this.maxProportion;
         GlobalVariables.weatherAutoSyncSeconds = this.weatherAutoSyncSeconds;
+        GlobalVariables.shutdownSaveDeadlineMs = this.shutdownSaveDeadlineMs;
+        GlobalVariables.lightTextures = this.lightTextures;
     }
 }
@@ -0,0 +1,69 @@
+package com.atom.life.data;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonWriter;
+
+/**
+ * pregen.json checkpoint (one pending pre-generation job per world).
+ * - done counts chunks of the job order that are fully generated + saved.
+ * - file is deleted when the job completes.
+ */
+public final class PregenState {
+
+    public static final String FILE_NAME = "pregen.json";
+
+    public int centerCx;
+    public int centerCz;
+    public int radius;
+
+    /** contiguous prefix of the ring order that is finished */
+    public int done;
+
+    public PregenState() {}
+
+    public PregenState(int centerCx, int centerCz, int radius) {
+        this.centerCx = centerCx;
+        this.centerCz = centerCz;
+        this.radius = radius;
+        this.done = 0;
+    }
+
+    public boolean sameJob(int centerCx, int centerCz, int radius) {
+        return this.centerCx == centerCx && this.centerCz == centerCz && this.radius == radius;
+    }
+
+    public static PregenState loadOrNull(FileHandle worldDir) {
+        FileHandle f = worldDir.child(FILE_NAME);
+        if (!f.exists()) return null;
+
+        try {
+            Json json = new Json();
+            json.setIgnoreUnknownFields(true);
+            PregenState s = json.fromJson(PregenState.class, f.readString("UTF-8"));
+            if (s == null || s.radius < 0 || s.done < 0) return null;
+            return s;
+        } catch (Throwable ex) {
+            ex.printStackTrace();
+            return null;
+        }
+    }
+
+    public static void save(FileHandle worldDir, PregenState state) {
+        if (state == null) return;
+        if (!worldDir.exists()) worldDir.mkdirs();
+
+        Json json = new Json();
+        json.setOutputType(JsonWriter.OutputType.json);
+
+        FileHandle f = worldDir.child(FILE_NAME);
+        FileHandle tmp = worldDir.child(FILE_NAME + ".tmp");
+        tmp.writeString(json.prettyPrint(state), false, "UTF-8");
+        tmp.moveTo(f);
+    }
+
+    public static void delete(FileHandle worldDir) {
+        FileHandle f = worldDir.child(FILE_NAME);
+        if (f.exists()) f.delete();
+    }
+}
@@ -1,6 +1,8 @@
 package com.atom.life.data;
 
 import com.atom.life.GlobalVariables;
+import com.atom.life.world.gen.TerrainConfig;
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonWriter;
@@ -8,16 +10,20 @@ import com.badlogic.gdx.utils.JsonWriter;
 import static com.atom.life.GlobalVariables.*;
 
 /**
- * world.json authoritative config (seed/mode/version/renderDistance).
+ * world.json authoritative config (seed/mode/version/renderDistance/biomes).
  * Rules:
  * - If world.json doesn't exist: create it using GlobalVariables.seed/worldMode/renderDistance/gameVersion.
  * - If it exists: GlobalVariables.seed/worldMode/renderDistance/gameVersion are ignored (locked by save).
  * - worldMode/renderDistance are locked by world.json (no switching inside same save).
+ * - biomeNoise/biomes: copied from the internal world.json template when a world is created;
+ *   a save without biomes keeps the original single-climate terrain.
+ * - structures: enabled for newly created worlds only.
+ * - caves: copied from the internal template like biomes; null = no caves.
  */
 public final class WorldIO {
 
     public static final String FILE_NAME = "world.json";
-    public static final int SCHEMA_VERSION = 2; // ✅ bump schema
+    public static final int SCHEMA_VERSION = 3; // v3: biomeNoise + biomes
 
     /** schema version for future migration */
     public int schema = SCHEMA_VERSION;
@@ -34,6 +40,67 @@ public final class WorldIO {
     /** world save version (usually equals gameVersion at creation time) */
     public String version;
 
+    /** 0 = full-resolution terrain noise; 2/4/8/16 = coarse lattice for low-frequency layers */
+    public int lowFreqLattice = 0;
+
+    /** climate noise scales (null = defaults) */
+    public BiomeNoise biomeNoise;
+
+    /** biome definitions (null/empty = no biome engine) */
+    public BiomeDef[] biomes;
+
+    /** 3D density caves (null = none) */
+    public CaveConfig caves;
+
+    /** place dist/structures during generation (new worlds only, so old saves get no cut-off structures) */
+    public boolean structures = false;
+
+    public static final class BiomeNoise {
+        public float temperatureScale = 0.0012f;
+        public float moistureScale = 0.0012f;
+        /** frequency of the border jitter between neighboring biomes */
+        public float blendScale = 0.0008f;
+    }
+
+    public static final class BiomeDef {
+        public String name = "";
+        public boolean enabled = true;
+        public float weight = 1f;
+
+        public float temperatureMin = 0f;
+        public float temperatureMax = 1f;
+        public float moistureMin = 0f;
+        public float moistureMax = 1f;
+
+        public float heightOffset = 0f;
+        public float heightAmpMul = 1f;
+        public float detailAmpMul = 1f;
+        public float roughnessMul = 1f;
+
+        public String surfaceTop;
+        public String surfaceFiller;
+        public String surfaceStone;
+        public String surfaceWater;
+    }
+
+    public static final class CaveConfig {
+        public boolean enabled = true;
+        /** horizontal / vertical frequency of the cave noise */
+        public float scaleXZ = 0.02f;
+        public float scaleY = 0.035f;
+        public int octaves = 2;
+        /** caverns where the noise exceeds this (higher = fewer) */
+        public float cavernThreshold = 0.45f;
+        /** tunnels where both noise fields are within +-tunnelWidth of zero (0 = no tunnels) */
+        public float tunnelWidth = 0.05f;
+        /** lowest carved y (bedrock stays) */
+        public int minY = 4;
+        /** solid blocks kept under dry ground (0 = caves may open at the surface) */
+        public int surfaceMargin = 0;
+        /** solid blocks kept under a sea floor */
+        public int seaFloorMargin = 4;
+    }
+
     public WorldIO() {}
 
     public WorldIO(long seed, String worldMode, int renderDistance, String version) {
@@ -59,6 +126,8 @@ public final class WorldIO {
                 GlobalVariables.renderDistance,
                 gameVersion
             );
+            copyGenerationFromTemplate(created);
+            created.structures = true;
             save(worldDir, created);
             return created;
         }
@@ -85,6 +154,7 @@ public final class WorldIO {
             loaded.schema = SCHEMA_VERSION;
             loaded.worldMode = normalizeMode(loaded.worldMode);
             if (loaded.version == null) loaded.version = "";
+            loaded.lowFreqLattice = TerrainConfig.normalizeLattice(loaded.lowFreqLattice);
 
             // schema v1 -> v2 migration: renderDistance didn't exist
             if (oldSchema < 2) {
@@ -115,6 +185,26 @@ public final class WorldIO {
         }
     }
 
+    /** New worlds inherit biomeNoise/biomes/caves from the internal world.json, if there is one. */
+    private static void copyGenerationFromTemplate(WorldIO target) {
+        if (Gdx.files == null) return;
+        try {
+            FileHandle t = Gdx.files.internal(FILE_NAME);
+            if (!t.exists()) return;
+
+            Json json = new Json();
+            json.setIgnoreUnknownFields(true);
+            WorldIO template = json.fromJson(WorldIO.class, t.readString("UTF-8"));
+            if (template == null) return;
+
+            target.biomeNoise = template.biomeNoise;
+            target.biomes = template.biomes;
+            target.caves = template.caves;
+        } catch (Throwable ex) {
+            ex.printStackTrace();
+        }
+    }
+
     public static void save(FileHandle worldDir, WorldIO info) {
         if (!worldDir.exists()) worldDir.mkdirs();
         FileHandle f = worldDir.child(FILE_NAME);
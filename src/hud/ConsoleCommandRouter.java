@@ -37,6 +37,14 @@ public final class ConsoleCommandRouter {
                 String arg = (parts.length >= 2) ? joinTail(parts, 1) : "status";
                 ConsoleCommands.weatherAuto(ctx, stripOuterQuotes(arg));
             }
+            case "pregen" -> {
+                String arg = (parts.length >= 2) ? parts[1] : "status";
+                ConsoleCommands.pregen(ctx, stripOuterQuotes(arg));
+            }
+            case "genstats" -> {
+                String arg = (parts.length >= 2) ? parts[1] : "status";
+                ConsoleCommands.genStats(ctx, stripOuterQuotes(arg));
+            }
             default -> ctx.println("Unknown command: " + cmd);
         }
     }
@@ -46,6 +54,8 @@ public final class ConsoleCommandRouter {
      *  setblock 0 64 0 lime_block_jitter
      *  setblock aim red_*_wire_on
      *  pickblock "lime_block_jitter"
+     *  pregen 32
+     *  genstats dump
      */
     static String[] splitTokens(String line) {
         if (line == null) return new String[0];
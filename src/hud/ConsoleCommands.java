@@ -1,9 +1,15 @@
 package com.atom.life.hud;
 
+import com.atom.life.data.PregenState;
 import com.atom.life.weather.WeatherType;
+import com.atom.life.world.WorldPregenerator;
+import com.atom.life.world.gen.GenMetrics;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
 
 import java.util.Collections;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Concrete commands implementation.
@@ -175,6 +181,99 @@ public final class ConsoleCommands {
         }
     }
 
+    /**
+     * Usage:
+     *  - pregen <radius>   generate + save every chunk within radius of the player chunk
+     *  - pregen resume     continue the job recorded in pregen.json
+     *  - pregen status|cancel
+     */
+    public static void pregen(ConsoleCommandContext ctx, String arg) {
+        if (ctx == null) return;
+        if (ctx.world == null) {
+            ctx.println("pregen: World is null.");
+            return;
+        }
+
+        WorldPregenerator pregen = ctx.world.getPregenerator();
+        String a = (arg == null) ? "" : arg.trim().toLowerCase();
+
+        switch (a) {
+            case "status", "" -> ctx.println(pregen.statusString());
+            case "cancel" -> {
+                if (!pregen.isRunning()) {
+                    ctx.println("pregen: Not running.");
+                    return;
+                }
+                pregen.cancel();
+                ctx.println("pregen: Cancelling after current batch...");
+            }
+            case "resume" -> {
+                PregenState st = pregen.pendingCheckpoint();
+                if (st == null) {
+                    ctx.println("pregen: Nothing to resume.");
+                    return;
+                }
+                if (!pregen.start(st.centerCx, st.centerCz, st.radius, asyncPrinter(ctx))) {
+                    ctx.println("pregen: Already running.");
+                }
+            }
+            default -> {
+                Integer r = parseIntSafe(a);
+                if (r == null || r < 0 || r > 1024) {
+                    ctx.println("Usage: pregen <radius 0..1024>|resume|status|cancel");
+                    return;
+                }
+                int cx = ctx.world.getPlayerChunkX();
+                int cz = ctx.world.getPlayerChunkZ();
+                if (!pregen.start(cx, cz, r, asyncPrinter(ctx))) {
+                    ctx.println("pregen: Already running.");
+                }
+            }
+        }
+    }
+
+    /**
+     * Usage:
+     *  - genstats          per-stage chunk generation latency (p50/p95/max)
+     *  - genstats dump     write all histograms to genstats.txt in the save folder
+     *  - genstats reset
+     */
+    public static void genStats(ConsoleCommandContext ctx, String arg) {
+        if (ctx == null) return;
+        if (ctx.world == null) {
+            ctx.println("genstats: World is null.");
+            return;
+        }
+
+        GenMetrics m = ctx.world.getGenMetrics();
+        String a = (arg == null) ? "" : arg.trim().toLowerCase();
+
+        switch (a) {
+            case "status", "" -> {
+                for (GenMetrics.Histogram h : m.all()) ctx.println("genstats: " + GenMetrics.line(h));
+            }
+            case "dump" -> {
+                FileHandle f = ctx.world.getSaveDir().child("genstats.txt");
+                try {
+                    f.writeString(m.dump(), false, "UTF-8");
+                    ctx.println("genstats: Wrote " + f.path());
+                } catch (Throwable ex) {
+                    ctx.println("genstats: Write failed: " + ex.getMessage());
+                }
+            }
+            case "reset" -> {
+                m.reset();
+                ctx.println("genstats: Reset.");
+            }
+            default -> ctx.println("Usage: genstats [dump|reset]");
+        }
+    }
+
+    /** pregen reports from worker threads; console log is render-thread only. */
+    private static Consumer<String> asyncPrinter(ConsoleCommandContext ctx) {
+        return line -> Gdx.app.postRunnable(() -> ctx.println(line));
+    }
+
     private static Integer parseIntSafe(String s) {
         try { return Integer.parseInt(s); } catch (Throwable t) { return null; }
     }
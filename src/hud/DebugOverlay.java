@@ -15,6 +15,9 @@ import com.atom.life.time.DayNightCycle;
 import com.atom.life.weather.WeatherSystem;
 import com.atom.life.world.Chunk;
 import com.atom.life.world.World;
+import com.atom.life.world.gen.GenMetrics;
+import com.atom.life.world.MeshSystem;
+import com.atom.life.world.light.BlockLightSystem;
 
 import static com.atom.life.GlobalVariables.seed;
 import static com.atom.life.GlobalVariables.gameName;
@@ -243,6 +246,34 @@ public class DebugOverlay {
             } else {
                 drawLine(x, y, "Weather: (null)"); y -= line;
             }
+
+            BlockLightSystem ls = world.getLightSystem();
+            drawLine(x, y,
+                "Light: ready=" + ls.getPendingReadyCount() +
+                    " | edits=" + ls.getPendingEditCount() +
+                    " | edit " + format(ls.getLastEditLatencyMs(), 2) +
+                    " ms (max " + format(ls.getMaxEditLatencyMs(), 2) + ")"
+            );
+            y -= line;
+
+            MeshSystem ms = world.getMeshSystem();
+            drawLine(x, y,
+                "Mesh: built=" + ms.getMeshesBuilt() +
+                    " | light uploads=" + ms.getLightUploads() +
+                    (ms.usesLightTextures() ? " (tex)" : " (vertex)") +
+                    " | edit->visible " + format(ms.getLastVisibleLatencyMs(), 2) +
+                    " ms (max " + format(ms.getMaxVisibleLatencyMs(), 2) + ")"
+            );
+            y -= line;
+
+            GenMetrics gm = world.getGenMetrics();
+            if (gm != null && gm.total.count() > 0) {
+                drawLine(x, y, "--- Chunk Gen ---"); y -= line;
+                for (GenMetrics.Histogram h : gm.all()) {
+                    if (h.count() == 0) continue;
+                    drawLine(x, y, GenMetrics.line(h)); y -= line;
+                }
+            }
         }
 
         Runtime rt = Runtime.getRuntime();
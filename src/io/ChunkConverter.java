@@ -0,0 +1,271 @@
+package com.atom.life.io;
+
+import com.atom.life.world.Chunk;
+import com.badlogic.gdx.files.FileHandle;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Offline bulk converter / verifier for a world's chunks/ directory.
+ * - snapshots the directory, then checks every file in parallel (strict read, CRC for v2)
+ * - legacy v1 (.bin.gz, or v1 payload in .bin.z) is rewritten as v2 .bin.z, then the legacy file is removed
+ * - a damaged .bin.z with a valid legacy twin is repaired from the legacy file
+ * - everything unreadable is reported (optionally moved to chunks/corrupt/)
+ * - a rewrite that fails to save is reported as unsaved and its source files are kept
+ *
+ * Run while the game is closed:
+ *   java -cp Atom.jar com.atom.life.io.ChunkConverter saves/World [--verify] [--quarantine] [--threads N]
+ */
+public final class ChunkConverter {
+
+    private static final int SX = Chunk.SX;
+    private static final int SY = Chunk.SY;
+    private static final int SZ = Chunk.SZ;
+
+    private final ChunkIO chunkIO;
+    private final boolean verifyOnly;
+    private final boolean quarantine;
+    private final int threads;
+
+    public static final class Report {
+        public final AtomicInteger files = new AtomicInteger();
+        public final AtomicInteger ok = new AtomicInteger();
+        public final AtomicInteger converted = new AtomicInteger();
+        public final AtomicInteger repaired = new AtomicInteger();
+        public final AtomicInteger staleLegacy = new AtomicInteger();
+        public final AtomicInteger staleTmp = new AtomicInteger();
+        public final AtomicLong bytesRead = new AtomicLong();
+        public final List<String> corrupt = Collections.synchronizedList(new ArrayList<>());
+        public final List<String> unsaved = Collections.synchronizedList(new ArrayList<>());
+        public long elapsedMs;
+
+        public String summary() {
+            float secs = Math.max(0.001f, elapsedMs / 1000f);
+            return String.format(Locale.ROOT,
+                "files=%d ok=%d converted=%d repaired=%d staleLegacy=%d staleTmp=%d corrupt=%d unsaved=%d | %.1f files/s, %.2f MB/s",
+                files.get(), ok.get(), converted.get(), repaired.get(), staleLegacy.get(), staleTmp.get(), corrupt.size(), unsaved.size(),
+                files.get() / secs, bytesRead.get() / (1024f * 1024f) / secs);
+        }
+    }
+
+    public ChunkConverter(FileHandle worldDir, boolean verifyOnly, boolean quarantine, int threads) {
+        this.chunkIO = new ChunkIO(worldDir);
+        this.verifyOnly = verifyOnly;
+        this.quarantine = quarantine;
+        this.threads = Math.max(1, threads);
+    }
+
+    public Report run() throws IOException, InterruptedException {
+        Report report = new Report();
+        Path dir = chunkIO.chunkDir().file().toPath();
+
+        long t0 = System.currentTimeMillis();
+
+        // snapshot first: tasks write into this directory (save tmp files, new .bin.z), so neither their
+        // in-flight tmp files nor the files they produce may show up as work; stale tmps go before any task starts
+        List<String> names = new ArrayList<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+            for (Path p : ds) {
+                String name = p.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    report.staleTmp.incrementAndGet();
+                    if (!verifyOnly) Files.deleteIfExists(p);
+                    continue;
+                }
+                names.add(name);
+            }
+        }
+        HashSet<String> present = new HashSet<>(names);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        // bound queued tasks (each holds a chunk's worth of work once it runs)
+        Semaphore inFlight = new Semaphore(threads * 64);
+
+        try {
+            for (String name : names) {
+                int[] c = ChunkIO.parseChunkFileName(name);
+                if (c == null) continue;
+
+                boolean legacy = name.endsWith(".bin.gz");
+                // a chunk with both files is handled once, by its legacy entry
+                if (!legacy && present.contains(legacyName(c[0], c[1]))) continue;
+
+                inFlight.acquire();
+                pool.execute(() -> {
+                    try {
+                        if (legacy) processLegacy(c[0], c[1], report);
+                        else processCurrent(c[0], c[1], report);
+                    } catch (Throwable ex) {
+                        report.corrupt.add(c[0] + "," + c[1] + ": " + ex);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+        report.elapsedMs = System.currentTimeMillis() - t0;
+
+        Collections.sort(report.corrupt);
+        Collections.sort(report.unsaved);
+        return report;
+    }
+
+    private void processCurrent(int cx, int cz, Report r) {
+        File f = currentFile(cx, cz);
+        ChunkIO.Inspection ins = new ChunkIO.Inspection();
+
+        r.files.incrementAndGet();
+        r.bytesRead.addAndGet(f.length());
+
+        byte[] blocks = ChunkIO.read(f, SX, SY, SZ, ins);
+        if (blocks == null) {
+            corrupt(cx, cz, f, ins.reason, r);
+            return;
+        }
+
+        if (ins.version == 2 && !ins.gzip) {
+            r.ok.incrementAndGet();
+            return;
+        }
+
+        // v1 payload under the new name: normalize to v2 (on failure the v1 file is still there)
+        if (!verifyOnly && !chunkIO.save(cx, cz, SX, SY, SZ, blocks)) {
+            r.unsaved.add(cx + "," + cz + ": v2 rewrite failed, v1 file kept");
+            return;
+        }
+        r.converted.incrementAndGet();
+    }
+
+    private void processLegacy(int cx, int cz, Report r) {
+        File gz = legacyFile(cx, cz);
+        File z = currentFile(cx, cz);
+        ChunkIO.Inspection ins = new ChunkIO.Inspection();
+
+        if (z.exists()) {
+            r.files.incrementAndGet();
+            r.bytesRead.addAndGet(z.length());
+
+            if (ChunkIO.read(z, SX, SY, SZ, ins) != null) {
+                // tryLoad always prefers .bin.z, the legacy twin is dead weight
+                r.staleLegacy.incrementAndGet();
+                if (!verifyOnly) chunkIO.deleteLegacy(cx, cz);
+                return;
+            }
+            String currentReason = ins.reason;
+
+            r.files.incrementAndGet();
+            r.bytesRead.addAndGet(gz.length());
+
+            byte[] blocks = ChunkIO.read(gz, SX, SY, SZ, ins);
+            if (blocks == null) {
+                corrupt(cx, cz, z, currentReason + " / legacy: " + ins.reason, r);
+                return;
+            }
+
+            if (!verifyOnly && !saveAndDropLegacy(cx, cz, blocks, r)) return;
+            r.repaired.incrementAndGet();
+            return;
+        }
+
+        r.files.incrementAndGet();
+        r.bytesRead.addAndGet(gz.length());
+
+        byte[] blocks = ChunkIO.read(gz, SX, SY, SZ, ins);
+        if (blocks == null) {
+            corrupt(cx, cz, gz, ins.reason, r);
+            return;
+        }
+
+        if (!verifyOnly && !saveAndDropLegacy(cx, cz, blocks, r)) return;
+        r.converted.incrementAndGet();
+    }
+
+    /** The legacy file is the only good copy until the v2 write succeeded: delete it only then. */
+    private boolean saveAndDropLegacy(int cx, int cz, byte[] blocks, Report r) {
+        if (!chunkIO.save(cx, cz, SX, SY, SZ, blocks)) {
+            r.unsaved.add(cx + "," + cz + ": save failed, legacy file kept");
+            return false;
+        }
+        chunkIO.deleteLegacy(cx, cz);
+        return true;
+    }
+
+    private void corrupt(int cx, int cz, File f, String reason, Report r) {
+        r.corrupt.add(cx + "," + cz + ": " + reason);
+        if (verifyOnly || !quarantine) return;
+
+        File qDir = new File(f.getParentFile(), "corrupt");
+        if (!qDir.exists()) qDir.mkdirs();
+        if (!f.renameTo(new File(qDir, f.getName()))) {
+            System.err.println("[ChunkConverter] could not quarantine " + f.getName());
+        }
+    }
+
+    private File currentFile(int cx, int cz) {
+        return chunkIO.chunkDir().child("c_" + cx + "_" + cz + ".bin.z").file();
+    }
+
+    private File legacyFile(int cx, int cz) {
+        return chunkIO.chunkDir().child(legacyName(cx, cz)).file();
+    }
+
+    private static String legacyName(int cx, int cz) {
+        return "c_" + cx + "_" + cz + ".bin.gz";
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: ChunkConverter <worldDir> [--verify] [--quarantine] [--threads N]");
+            return;
+        }
+
+        boolean verify = false;
+        boolean quarantine = false;
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--verify" -> verify = true;
+                case "--quarantine" -> quarantine = true;
+                case "--threads" -> {
+                    if (i + 1 < args.length) threads = Integer.parseInt(args[++i]);
+                }
+                default -> System.out.println("Ignoring unknown option: " + args[i]);
+            }
+        }
+
+        FileHandle worldDir = new FileHandle(new File(args[0]));
+        if (!worldDir.child("chunks").exists()) {
+            System.out.println("No chunks/ directory under " + worldDir.file().getAbsolutePath());
+            return;
+        }
+
+        Report r = new ChunkConverter(worldDir, verify, quarantine, threads).run();
+
+        System.out.println((verify ? "[verify] " : "[convert] ") + r.summary());
+        for (String line : r.corrupt) {
+            System.out.println("  corrupt " + line);
+        }
+        for (String line : r.unsaved) {
+            System.out.println("  unsaved " + line);
+        }
+    }
+}
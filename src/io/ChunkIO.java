@@ -3,6 +3,7 @@ package com.atom.life.io;
 import com.badlogic.gdx.files.FileHandle;
 
 import java.io.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.zip.*;
 
 /**
@@ -23,13 +24,29 @@ public class ChunkIO {
     // zlib compression level: BEST_SPEED is usually good for runtime saves
     private static final int ZLIB_LEVEL = Deflater.BEST_SPEED;
 
+    /** saveIfAbsent outcome */
+    public enum SaveResult { WRITTEN, EXISTS, FAILED }
+
+    // the final replace of a chunk file runs under its stripe, so saveIfAbsent's check + rename is atomic against save()
+    private static final int LOCK_STRIPES = 64;
+
     private final FileHandle root;
     private final FileHandle chunkDir;
+    private final Object[] fileLocks = new Object[LOCK_STRIPES];
+
+    // every write gets its own tmp file: writers of the same chunk (executor save, shutdown flush, pregen) never share one
+    private final AtomicLong tmpSeq = new AtomicLong();
 
     public ChunkIO(FileHandle root) {
         this.root = root;
         this.chunkDir = root.child("chunks");
         if (!chunkDir.exists()) chunkDir.mkdirs();
+        for (int i = 0; i < LOCK_STRIPES; i++) fileLocks[i] = new Object();
+    }
+
+    private Object lockFor(int cx, int cz) {
+        int h = cx * 31 + cz;
+        return fileLocks[(h ^ (h >>> 16)) & (LOCK_STRIPES - 1)];
     }
 
     private FileHandle chunkFileZ(int cx, int cz) {
@@ -40,6 +57,11 @@ public class ChunkIO {
         return chunkDir.child("c_" + cx + "_" + cz + ".bin.gz");
     }
 
+    /** True if either the new or the legacy file exists for this chunk. */
+    public boolean exists(int cx, int cz) {
+        return chunkFileZ(cx, cz).exists() || chunkFileGzLegacy(cx, cz).exists();
+    }
+
     public byte[] tryLoad(int cx, int cz, int sx, int sy, int sz) {
         // Prefer new file
         FileHandle f = chunkFileZ(cx, cz);
@@ -52,7 +74,36 @@ public class ChunkIO {
             if (!f.exists()) return null;
         }
 
-        File file = f.file();
+        Inspection ins = new Inspection();
+        byte[] blocks = read(f.file(), sx, sy, sz, ins);
+        if (blocks != null) return blocks;
+
+        System.err.println("[ChunkIO] " + f.name() + ": " + ins.reason);
+
+        // If new file fails, still try legacy once
+        if (isNew) {
+            FileHandle legacy = chunkFileGzLegacy(cx, cz);
+            if (legacy.exists()) return read(legacy.file(), sx, sy, sz, ins);
+        }
+        return null;
+    }
+
+    /** Result details of {@link #read}; reason is null when the file is valid. */
+    public static final class Inspection {
+        public int version;
+        public boolean gzip;
+        public String reason;
+    }
+
+    /**
+     * Strict reader for one chunk file (v2 zlib + CRC, or v1 gzip).
+     * Never throws; returns null and fills out.reason on any mismatch or IO error.
+     */
+    public static byte[] read(File file, int sx, int sy, int sz, Inspection out) {
+        out.version = 0;
+        out.gzip = false;
+        out.reason = null;
+
         try (InputStream fis = new FileInputStream(file);
              BufferedInputStream bis = new BufferedInputStream(fis)) {
 
@@ -65,24 +116,28 @@ public class ChunkIO {
             InputStream compressedIn;
             if (b0 == 0x1F && b1 == 0x8B) {
                 compressedIn = new GZIPInputStream(bis);
+                out.gzip = true;
             } else {
                 compressedIn = new InflaterInputStream(bis, new Inflater(false));
             }
 
             try (DataInputStream in = new DataInputStream(new BufferedInputStream(compressedIn))) {
                 int magic = in.readInt();
-                if (magic != MAGIC) return null;
+                if (magic != MAGIC) return fail(out, "bad magic");
 
                 int ver = in.readInt();
-                if (ver != VERSION_ZLIB_V2 && ver != VERSION_GZIP_V1) return null;
+                if (ver != VERSION_ZLIB_V2 && ver != VERSION_GZIP_V1) return fail(out, "unknown version " + ver);
+                out.version = ver;
 
                 int rsx = in.readInt();
                 int rsy = in.readInt();
                 int rsz = in.readInt();
-                if (rsx != sx || rsy != sy || rsz != sz) return null;
+                if (rsx != sx || rsy != sy || rsz != sz) {
+                    return fail(out, "size " + rsx + "x" + rsy + "x" + rsz);
+                }
 
                 int len = in.readInt();
-                if (len != sx * sy * sz) return null;
+                if (len != sx * sy * sz) return fail(out, "length " + len);
 
                 int crcStored = 0;
                 if (ver >= VERSION_ZLIB_V2) {
@@ -96,61 +151,69 @@ public class ChunkIO {
                     CRC32 crc = new CRC32();
                     crc.update(blocks, 0, blocks.length);
                     int crcNow = (int) crc.getValue();
-                    if (crcNow != crcStored) return null; // corrupted
+                    if (crcNow != crcStored) return fail(out, "crc mismatch"); // corrupted
                 }
 
                 return blocks;
             }
 
         } catch (Exception ex) {
-            ex.printStackTrace();
-            // If new file fails, you may still try legacy once (optional)
-            if (isNew) {
-                try {
-                    FileHandle legacy = chunkFileGzLegacy(cx, cz);
-                    if (legacy.exists()) return tryLoadLegacyGzip(cx, cz, sx, sy, sz);
-                } catch (Throwable ignored) {}
-            }
-            return null;
+            return fail(out, ex.getClass().getSimpleName() + (ex.getMessage() == null ? "" : ": " + ex.getMessage()));
         }
     }
 
-    // Explicit legacy reader (gzip + v1 header)
-    private byte[] tryLoadLegacyGzip(int cx, int cz, int sx, int sy, int sz) {
-        FileHandle f = chunkFileGzLegacy(cx, cz);
-        if (!f.exists()) return null;
-
-        try (InputStream is = new FileInputStream(f.file());
-             GZIPInputStream gis = new GZIPInputStream(new BufferedInputStream(is));
-             DataInputStream in = new DataInputStream(new BufferedInputStream(gis))) {
-
-            int magic = in.readInt();
-            if (magic != MAGIC) return null;
-            int ver = in.readInt();
-            if (ver != VERSION_GZIP_V1) return null;
-
-            int rsx = in.readInt();
-            int rsy = in.readInt();
-            int rsz = in.readInt();
-            if (rsx != sx || rsy != sy || rsz != sz) return null;
+    private static byte[] fail(Inspection out, String reason) {
+        out.reason = reason;
+        return null;
+    }
 
-            int len = in.readInt();
-            if (len != sx * sy * sz) return null;
+    public FileHandle chunkDir() {
+        return chunkDir;
+    }
 
-            byte[] blocks = new byte[len];
-            in.readFully(blocks);
-            return blocks;
+    /** Parses c_cx_cz.bin.z / c_cx_cz.bin.gz into {cx, cz}, or null. */
+    public static int[] parseChunkFileName(String name) {
+        String core;
+        if (name.endsWith(".bin.z")) core = name.substring(0, name.length() - 6);
+        else if (name.endsWith(".bin.gz")) core = name.substring(0, name.length() - 7);
+        else return null;
 
-        } catch (Exception ex) {
-            ex.printStackTrace();
+        if (!core.startsWith("c_")) return null;
+        int sep = core.indexOf('_', 2);
+        if (sep < 0) return null;
+        try {
+            int cx = Integer.parseInt(core.substring(2, sep));
+            int cz = Integer.parseInt(core.substring(sep + 1));
+            return new int[] { cx, cz };
+        } catch (NumberFormatException ex) {
             return null;
         }
     }
 
+    /** Deletes the legacy .bin.gz for this chunk if present. */
+    public boolean deleteLegacy(int cx, int cz) {
+        FileHandle f = chunkFileGzLegacy(cx, cz);
+        return f.exists() && f.delete();
+    }
+
     /**
      * Save using zlib (v2) + CRC32 + atomic write (tmp -> rename).
+     * Returns false if the chunk did not reach disk.
      */
-    public void save(int cx, int cz, int sx, int sy, int sz, byte[] blocks) {
+    public boolean save(int cx, int cz, int sx, int sy, int sz, byte[] blocks) {
+        return write(cx, cz, sx, sy, sz, blocks, false) == SaveResult.WRITTEN;
+    }
+
+    /**
+     * Like save, but never replaces an existing file (new or legacy) of the chunk: for writers that must not
+     * overwrite what the game saved meanwhile (pregen). EXISTS if a file was already there.
+     */
+    public SaveResult saveIfAbsent(int cx, int cz, int sx, int sy, int sz, byte[] blocks) {
+        if (exists(cx, cz)) return SaveResult.EXISTS;
+        return write(cx, cz, sx, sy, sz, blocks, true);
+    }
+
+    private SaveResult write(int cx, int cz, int sx, int sy, int sz, byte[] blocks, boolean onlyIfAbsent) {
         if (!chunkDir.exists()) chunkDir.mkdirs();
 
         FileHandle f = chunkFileZ(cx, cz);
@@ -158,7 +221,7 @@ public class ChunkIO {
         File parent = outFile.getParentFile();
         if (parent != null && !parent.exists()) parent.mkdirs();
 
-        File tmp = new File(outFile.getAbsolutePath() + ".tmp");
+        File tmp = new File(outFile.getAbsolutePath() + "." + tmpSeq.incrementAndGet() + ".tmp");
 
         CRC32 crc = new CRC32();
         crc.update(blocks, 0, blocks.length);
@@ -188,28 +251,37 @@ public class ChunkIO {
             ex.printStackTrace();
             // best-effort cleanup
             try { tmp.delete(); } catch (Throwable ignored) {}
-            return;
+            return SaveResult.FAILED;
         } finally {
             deflater.end();
         }
 
-        // Atomic-ish replace
-        try {
-            if (outFile.exists() && !outFile.delete()) {
-                // if cannot delete, try rename over (some OS allow), else fall back copy
+        synchronized (lockFor(cx, cz)) {
+            if (onlyIfAbsent && exists(cx, cz)) {
+                tmp.delete();
+                return SaveResult.EXISTS;
             }
-            if (!tmp.renameTo(outFile)) {
-                // fallback: stream copy then delete tmp
-                try (InputStream in = new FileInputStream(tmp);
-                     OutputStream out = new FileOutputStream(outFile)) {
-                    byte[] buf = new byte[1 << 16];
-                    int n;
-                    while ((n = in.read(buf)) >= 0) out.write(buf, 0, n);
+
+            // Atomic-ish replace
+            try {
+                if (outFile.exists() && !outFile.delete()) {
+                    // if cannot delete, try rename over (some OS allow), else fall back copy
                 }
-                tmp.delete();
+                if (!tmp.renameTo(outFile)) {
+                    // fallback: stream copy then delete tmp
+                    try (InputStream in = new FileInputStream(tmp);
+                         OutputStream out = new FileOutputStream(outFile)) {
+                        byte[] buf = new byte[1 << 16];
+                        int n;
+                        while ((n = in.read(buf)) >= 0) out.write(buf, 0, n);
+                    }
+                    tmp.delete();
+                }
+                return SaveResult.WRITTEN;
+            } catch (Exception ex) {
+                ex.printStackTrace();
+                return SaveResult.FAILED;
             }
-        } catch (Exception ex) {
-            ex.printStackTrace();
         }
     }
 }
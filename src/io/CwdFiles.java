@@ -0,0 +1,23 @@
+package com.atom.life.io;
+
+import com.badlogic.gdx.Files;
+import com.badlogic.gdx.files.FileHandle;
+
+import java.io.File;
+
+/**
+ * Minimal Gdx.files for the command line tools (no backend): every path resolves against the working directory.
+ * Set it only when no application is running: if (Gdx.files == null) Gdx.files = new CwdFiles();
+ */
+public final class CwdFiles implements Files {
+    @Override public FileHandle getFileHandle(String path, FileType type) { return new FileHandle(new File(path)); }
+    @Override public FileHandle classpath(String path) { return new FileHandle(new File(path)); }
+    @Override public FileHandle internal(String path) { return new FileHandle(new File(path)); }
+    @Override public FileHandle external(String path) { return new FileHandle(new File(path)); }
+    @Override public FileHandle absolute(String path) { return new FileHandle(new File(path)); }
+    @Override public FileHandle local(String path) { return new FileHandle(new File(path)); }
+    @Override public String getExternalStoragePath() { return ""; }
+    @Override public boolean isExternalStorageAvailable() { return false; }
+    @Override public String getLocalStoragePath() { return ""; }
+    @Override public boolean isLocalStorageAvailable() { return true; }
+}
@@ -1,7 +1,5 @@
 package com.atom.life.mesh;
 
-import com.badlogic.gdx.utils.FloatArray;
-import com.badlogic.gdx.utils.ShortArray;
 import com.atom.life.world.Chunk;
 
 /**
@@ -17,125 +15,120 @@ final class AlphaMesher {
         this.writer = writer;
     }
 
-    void emitAlphaCubes(MesherContext ctx, FloatArray vertsA, ShortArray indsA) {
-        final Chunk c = ctx.chunk;
+    void emitAlphaCubes(MesherContext ctx, VertexArena vertsA) {
         final int sx = Chunk.SX, sy = Chunk.SY, sz = Chunk.SZ;
-        final int baseX = ctx.baseX, baseZ = ctx.baseZ;
 
         for (int y = 0; y < sy; y++) {
             for (int z = 0; z < sz; z++) {
                 for (int x0 = 0; x0 < sx; x0++) {
 
-                    byte id = c.getLocal(x0, y, z);
+                    byte id = ctx.volume.block(x0, y, z);
                     if (id == 0) continue;
 
                     int ii = id & 0xFF;
                     if (!caches.isCube[ii]) continue;
                     if (!caches.isAlphaBlock[ii]) continue;
 
-                    emitCubeAlphaFaces(ctx, vertsA, indsA, baseX, baseZ, x0, y, z, id);
+                    emitCubeAlphaFaces(ctx, vertsA, x0, y, z, id);
                 }
             }
         }
     }
 
     private void emitCubeAlphaFaces(MesherContext ctx,
-                                    FloatArray verts, ShortArray inds,
-                                    int baseX, int baseZ,
+                                    VertexArena verts,
                                     int lx, int ly, int lz, byte id) {
 
-        final Chunk c = ctx.chunk;
-
         int ii = id & 0xFF;
 
-        // emission now means "block light" in [0..1]
-        float emission = ctx.light.sample01(c, ctx.mesherLightAccess, baseX, baseZ, lx, ly, lz);
+        // packed block + sky light of the cell itself
+        short light = ctx.volume.light(lx, ly, lz);
 
-        byte nxN = ctx.sampler.sample(c, ctx.access, baseX, baseZ, lx - 1, ly, lz);
-        byte nxP = ctx.sampler.sample(c, ctx.access, baseX, baseZ, lx + 1, ly, lz);
-        byte nyN = ctx.sampler.sample(c, ctx.access, baseX, baseZ, lx, ly - 1, lz);
-        byte nyP = ctx.sampler.sample(c, ctx.access, baseX, baseZ, lx, ly + 1, lz);
-        byte nzN = ctx.sampler.sample(c, ctx.access, baseX, baseZ, lx, ly, lz - 1);
-        byte nzP = ctx.sampler.sample(c, ctx.access, baseX, baseZ, lx, ly, lz + 1);
+        byte nxN = ctx.volume.block(lx - 1, ly, lz);
+        byte nxP = ctx.volume.block(lx + 1, ly, lz);
+        byte nyN = ctx.volume.block(lx, ly - 1, lz);
+        byte nyP = ctx.volume.block(lx, ly + 1, lz);
+        byte nzN = ctx.volume.block(lx, ly, lz - 1);
+        byte nzP = ctx.volume.block(lx, ly, lz + 1);
 
-        float minX = lx, minY = ly, minZ = lz;
-        float maxX = lx + 1f, maxY = ly + 1f, maxZ = lz + 1f;
+        int minX = lx, minY = ly, minZ = lz;
+        int maxX = lx + 1, maxY = ly + 1, maxZ = lz + 1;
 
         // +X
         if (shouldEmitAlphaFace(ctx, id, nxP, 0, false)) {
-            writer.addQuadAlpha(verts, inds,
+            writer.addQuadAlpha(verts,
                 maxX, minY, maxZ,
                 maxX, minY, minZ,
                 maxX, maxY, minZ,
                 maxX, maxY, maxZ,
-                1, 0, 0,
+                VertexWriter.N_PX,
                 caches.tileForFaceFast(ii, 0, true),
-                emission
+                light
             );
         }
 
         // -X
         if (shouldEmitAlphaFace(ctx, id, nxN, 0, true)) {
-            writer.addQuadAlpha(verts, inds,
+            writer.addQuadAlpha(verts,
                 minX, minY, minZ,
                 minX, minY, maxZ,
                 minX, maxY, maxZ,
                 minX, maxY, minZ,
-                -1, 0, 0,
+                VertexWriter.N_NX,
                 caches.tileForFaceFast(ii, 0, false),
-                emission
+                light
             );
         }
 
         // +Y
         if (shouldEmitAlphaFace(ctx, id, nyP, 1, false)) {
-            writer.addQuadAlpha(verts, inds,
+            writer.addQuadAlpha(verts,
                 minX, maxY, maxZ,
                 maxX, maxY, maxZ,
                 maxX, maxY, minZ,
                 minX, maxY, minZ,
-                0, 1, 0,
+                VertexWriter.N_PY,
                 caches.tileForFaceFast(ii, 1, true),
-                emission
+                light
             );
         }
 
         // -Y
         if (shouldEmitAlphaFace(ctx, id, nyN, 1, true)) {
-            writer.addQuadAlpha(verts, inds,
+            writer.addQuadAlpha(verts,
                 minX, minY, minZ,
                 maxX, minY, minZ,
                 maxX, minY, maxZ,
                 minX, minY, maxZ,
-                0, -1, 0,
+                VertexWriter.N_NY,
                 caches.tileForFaceFast(ii, 1, false),
-                emission
+                light
             );
         }
 
         // +Z
         if (shouldEmitAlphaFace(ctx, id, nzP, 2, false)) {
-            writer.addQuadAlpha(verts, inds,
+            writer.addQuadAlpha(verts,
                 minX, minY, maxZ,
                 maxX, minY, maxZ,
                 maxX, maxY, maxZ,
                 minX, maxY, maxZ,
-                0, 0, 1,
+                VertexWriter.N_PZ,
                 caches.tileForFaceFast(ii, 2, true),
-                emission
+                light
             );
         }
 
         // -Z
         if (shouldEmitAlphaFace(ctx, id, nzN, 2, true)) {
-            writer.addQuadAlpha(verts, inds,
+            writer.addQuadAlpha(verts,
                 maxX, minY, minZ,
                 minX, minY, minZ,
                 minX, maxY, minZ,
                 maxX, maxY, minZ,
-                0, 0, -1,
+                VertexWriter.N_NZ,
                 caches.tileForFaceFast(ii, 2, false),
-                emission
+                light
             );
         }
     }
@@ -1,11 +1,15 @@
 package com.atom.life.mesh;
 
+/**
+ * Opaque + alpha output of one build. Pooled by ChunkMesher: hand it back with ChunkMesher.recycle
+ * once uploaded (or dropped), and the next build reuses its buffers.
+ */
 public class ChunkMeshData {
     public final MeshData opaque;
     public final MeshData alpha;
 
-    public ChunkMeshData(MeshData opaque, MeshData alpha) {
-        this.opaque = opaque;
-        this.alpha = alpha;
+    ChunkMeshData(int opaqueFloats, int alphaFloats) {
+        this.opaque = new MeshData(opaqueFloats);
+        this.alpha = new MeshData(alphaFloats);
     }
 }
@@ -1,12 +1,12 @@
 package com.atom.life.mesh;
 
-import com.badlogic.gdx.utils.FloatArray;
-import com.badlogic.gdx.utils.ShortArray;
 import com.atom.life.world.blocks.BlockRegistry;
 import com.atom.life.render.BlockAtlas;
 import com.atom.life.world.BlockAccess;
 import com.atom.life.world.Chunk;
 
+import java.util.ArrayDeque;
+
 /**
  * ChunkMesher optimized (Plan A) - refactored into sub-meshers:
  * - Public API unchanged
@@ -14,76 +14,96 @@ import com.atom.life.world.Chunk;
  */
 public class ChunkMesher {
 
-    private static final int STRIDE = 13;
+    private static final int STRIDE = VertexWriter.STRIDE;
+
+    // initial arena sizes (floats); arenas grow to fit and keep their size
+    private static final int OPAQUE_FLOATS = 8192;
+    private static final int ALPHA_FLOATS = 4096;
+
+    // outputs kept for reuse: enough for the workers plus a frame of uploads; the rest is left to the GC
+    private static final int MAX_POOLED = 64;
 
     private final BlockRegistry registry;
     private final BlockAtlas atlas;
 
     private final MesherCaches caches;
-    private final BlockSampler sampler;
 
     private final VertexWriter writer;
     private final GreedyOpaqueMesher greedy;
-    private final SlopeMesher slope;
+    private final ShapeMesher shapes;
     private final AlphaMesher alpha;
 
     // ThreadLocal context (important: ChunkMesher is used by multiple mesh-worker threads)
     private final ThreadLocal<MesherContext> ctxTL;
 
-    public ChunkMesher(BlockRegistry registry, BlockAtlas atlas) {
+    // recycled outputs (workers take, the render thread gives back after upload)
+    private final ArrayDeque<ChunkMeshData> pool = new ArrayDeque<>();
+
+    /** lightInTextures: light is read from per-chunk light textures, not baked into vertices */
+    public ChunkMesher(BlockRegistry registry, BlockAtlas atlas, boolean lightInTextures) {
         this.registry = registry;
         this.atlas = atlas;
 
         this.caches = new MesherCaches(registry);
-        this.sampler = new BlockSampler();
 
-        this.writer = new VertexWriter(STRIDE, atlas);
-        this.greedy = new GreedyOpaqueMesher(STRIDE, caches, writer);
-        this.slope  = new SlopeMesher(caches, writer);
+        this.writer = new VertexWriter();
+        this.greedy = new GreedyOpaqueMesher(caches, writer);
+        this.shapes = new ShapeMesher(caches, writer);
         this.alpha  = new AlphaMesher(caches, writer);
 
-        this.ctxTL = ThreadLocal.withInitial(() -> new MesherContext(this.registry, this.atlas, this.caches, this.sampler));
+        this.ctxTL = ThreadLocal.withInitial(() -> new MesherContext(this.registry, this.atlas, this.caches, !lightInTextures));
     }
 
+    /**
+     * Builds into a pooled output (direct vertex arenas, no per-build arrays).
+     * Pass the result to recycle() once it has been uploaded or dropped.
+     */
     public ChunkMeshData buildMesh(Chunk c, BlockAccess access) {
+        ChunkMeshData out = obtain();
+
         if (c == null || !c.isReady()) {
-            MeshData empty = new MeshData(new float[0], 0, new short[0], 0, STRIDE);
-            return new ChunkMeshData(empty, empty);
+            return out;
         }
 
         MesherContext ctx = ctxTL.get();
         ctx.begin(c, access);
 
         try {
-            // outputs
-            FloatArray vertsO = new FloatArray(8192);
-            ShortArray indsO  = new ShortArray(8192);
-
-            FloatArray vertsA = new FloatArray(4096);
-            ShortArray indsA  = new ShortArray(4096);
-
             // 1) greedy opaque cubes
-            greedy.emitOpaqueGreedy(ctx, vertsO, indsO);
+            greedy.emitOpaqueGreedy(ctx, out.opaque.vertices);
 
-            // 2) slopes (opaque)
-            slope.emitSlopes(ctx, vertsO, indsO);
+            // 2) non-cube shapes (opaque)
+            shapes.emitShapes(ctx, out.opaque.vertices);
 
             // 3) alpha cubes
-            alpha.emitAlphaCubes(ctx, vertsA, indsA);
+            alpha.emitAlphaCubes(ctx, out.alpha.vertices);
 
-            MeshData opaque = new MeshData(vertsO.toArray(), vertsO.size, indsO.toArray(), indsO.size, STRIDE);
-            MeshData alphaM = new MeshData(vertsA.toArray(), vertsA.size, indsA.toArray(), indsA.size, STRIDE);
-            return new ChunkMeshData(opaque, alphaM);
+            out.opaque.finish(STRIDE);
+            out.alpha.finish(STRIDE);
+            return out;
 
         } finally {
             ctx.end();
         }
     }
 
-    /**
-     * Optional: call this to refresh caches.
-     */
-    public void rebuildCaches() {
-        caches.rebuild();
+    /** Returns a build's output for reuse; it must not be read afterwards. */
+    public void recycle(ChunkMeshData md) {
+        if (md == null) return;
+        synchronized (pool) {
+            if (pool.size() < MAX_POOLED) pool.push(md);
+        }
+    }
+
+    private ChunkMeshData obtain() {
+        ChunkMeshData md;
+        synchronized (pool) {
+            md = pool.poll();
+        }
+        if (md == null) md = new ChunkMeshData(OPAQUE_FLOATS, ALPHA_FLOATS);
+
+        md.opaque.begin();
+        md.alpha.begin();
+        return md;
     }
 }
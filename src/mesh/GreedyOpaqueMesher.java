@@ -1,220 +1,245 @@
 package com.atom.life.mesh;
 
-import com.badlogic.gdx.utils.FloatArray;
-import com.badlogic.gdx.utils.ShortArray;
 import com.atom.life.world.Chunk;
 
+import java.util.Arrays;
+
 /**
- * Greedy mesher for OPAQUE cubes only.
- * - ThreadLocal greedy mask
- * - No hot-path allocations in quad emit
+ * Binary greedy mesher for OPAQUE cubes only.
+ * - one int bitmask per row of cells (along x, or along z for the x faces), built once per chunk from the
+ *   padded volume: opaque cubes, and per face direction the cells whose full face hides a cube face
+ * - visible faces of a slice: opaque row AND NOT the covering row of the next layer, a whole row per op
+ * - merge walks the set bits (numberOfTrailingZeros): a run grows along the row while tile + light match,
+ *   then over the next rows while they hold the same run
+ * - ThreadLocal scratch, no hot-path allocations in quad emit
  */
 final class GreedyOpaqueMesher {
 
-    private final int stride;
+    private static final int SX = Chunk.SX;
+    private static final int SY = Chunk.SY;
+    private static final int SZ = Chunk.SZ;
+
+    // row strides: rows are indexed with a 1-cell border on y and on the row's other axis
+    private static final int RX = SZ + 2; // rows along x, [y][z]
+    private static final int RZ = SX + 2; // rows along z, [y][x]
+    private static final int ROWS_Y = SY + 2;
+
+    // face values of a slice, per plane row (W per row)
+    private static final int W = Math.max(SX, SZ);
+
+    /** Per-thread row masks and slice buffers. */
+    private static final class Scratch {
+        // rows along x: opaque cubes, cells covering their -Y / +Y / -Z / +Z face
+        final int[] opqX = new int[ROWS_Y * RX];
+        final int[] negY = new int[ROWS_Y * RX];
+        final int[] posY = new int[ROWS_Y * RX];
+        final int[] negZ = new int[ROWS_Y * RX];
+        final int[] posZ = new int[ROWS_Y * RX];
+
+        // rows along z: opaque cubes, cells covering their -X / +X face
+        final int[] opqZ = new int[ROWS_Y * RZ];
+        final int[] negX = new int[ROWS_Y * RZ];
+        final int[] posX = new int[ROWS_Y * RZ];
+
+        // current slice: face bits per row, packed face value per cell
+        final int[] plane = new int[Math.max(SY, SZ)];
+        final int[] vals = new int[Math.max(SY, SZ) * W];
+
+        void clear() {
+            Arrays.fill(opqX, 0);
+            Arrays.fill(negY, 0);
+            Arrays.fill(posY, 0);
+            Arrays.fill(negZ, 0);
+            Arrays.fill(posZ, 0);
+            Arrays.fill(opqZ, 0);
+            Arrays.fill(negX, 0);
+            Arrays.fill(posX, 0);
+        }
+    }
+
     private final MesherCaches caches;
     private final VertexWriter writer;
 
-    // mask cache: per-thread
-    private final int maskCapacity;
-    private final ThreadLocal<int[]> maskTL;
-
-    final LightSampler light = new LightSampler();
+    private final ThreadLocal<Scratch> scratchTL = ThreadLocal.withInitial(Scratch::new);
 
-    GreedyOpaqueMesher(int stride, MesherCaches caches, VertexWriter writer) {
-        this.stride = stride;
+    GreedyOpaqueMesher(MesherCaches caches, VertexWriter writer) {
         this.caches = caches;
         this.writer = writer;
-
-        int a = Chunk.SY * Chunk.SZ;
-        int b = Chunk.SZ * Chunk.SX;
-        int c = Chunk.SX * Chunk.SY;
-        this.maskCapacity = Math.max(a, Math.max(b, c));
-        this.maskTL = ThreadLocal.withInitial(() -> new int[maskCapacity]);
     }
 
-    void emitOpaqueGreedy(MesherContext ctx, FloatArray vertsO, ShortArray indsO) {
-        final Chunk c = ctx.chunk;
-        final int sx = Chunk.SX, sy = Chunk.SY, sz = Chunk.SZ;
-
-        final int baseX = ctx.baseX;
-        final int baseZ = ctx.baseZ;
-
-        final int[] mask = maskTL.get();
-
-        // Greedy across 3 axes
-        for (int d = 0; d < 3; d++) {
-            final int u = (d + 1) % 3;
-            final int v = (d + 2) % 3;
-
-            final int dimD = (d == 0) ? sx : (d == 1 ? sy : sz);
-            final int dimU = (u == 0) ? sx : (u == 1 ? sy : sz);
-            final int dimV = (v == 0) ? sx : (v == 1 ? sy : sz);
-
-            final int nu = dimU;
-            final int nv = dimV;
-
-            final int qx = (d == 0) ? 1 : 0;
-            final int qy = (d == 1) ? 1 : 0;
-            final int qz = (d == 2) ? 1 : 0;
-
-            for (int xd = -1; xd < dimD; xd++) {
-
-                // build mask
-                int n = 0;
-                for (int j = 0; j < nv; j++) {
-                    for (int i = 0; i < nu; i++) {
-
-                        int ax = 0, ay = 0, az = 0;
-                        int bx = 0, by = 0, bz = 0;
-
-                        if (d == 0) ax = xd;
-                        else if (d == 1) ay = xd;
-                        else az = xd;
-
-                        if (u == 0) ax = i;
-                        else if (u == 1) ay = i;
-                        else az = i;
-
-                        if (v == 0) ax = j;
-                        else if (v == 1) ay = j;
-                        else az = j;
-
-                        bx = ax + qx;
-                        by = ay + qy;
-                        bz = az + qz;
-
-                        byte aId = ctx.sampler.sample(c, ctx.access, baseX, baseZ, ax, ay, az);
-                        byte bId = ctx.sampler.sample(c, ctx.access, baseX, baseZ, bx, by, bz);
-
-                        int ai = aId & 0xFF;
-                        int bi = bId & 0xFF;
-
-                        boolean aOpaque = caches.isOpaqueCube[ai];
-                        boolean bOpaque = caches.isOpaqueCube[bi];
-
-                        if (aOpaque && bOpaque) {
-                            mask[n++] = 0;
-                            continue;
-                        }
-
-                        // a opaque, b not -> face towards +d, light comes from b-cell
-                        if (aOpaque && !bOpaque) {
-                            boolean bBlocks = blocksOccludeFaceFast(ctx, bId, d, false);
-                            if (!bBlocks) {
-                                int tile = caches.tileForFaceFast(ai, d, true);
-
-                                int l = ctx.light.sample(c, ctx.mesherLightAccess, baseX, baseZ, bx, by, bz) & 0xFF;
-                                int e8 = lightToE8(l);
+    private static int rowX(int y, int z) {
+        return (y + 1) * RX + (z + 1);
+    }
 
-                                int packed = packMask(tile, 0, e8) + 1;
-                                mask[n++] = packed;
-                            } else {
-                                mask[n++] = 0;
-                            }
-                            continue;
-                        }
+    private static int rowZ(int y, int x) {
+        return (y + 1) * RZ + (x + 1);
+    }
 
-                        // b opaque, a not -> face towards -d, light comes from a-cell
-                        if (!aOpaque && bOpaque) {
-                            boolean aBlocks = blocksOccludeFaceFast(ctx, aId, d, true);
-                            if (!aBlocks) {
-                                int tile = caches.tileForFaceFast(bi, d, false);
+    void emitOpaqueGreedy(MesherContext ctx, VertexArena vertsO) {
+        final Scratch sc = scratchTL.get();
+        buildRowMasks(ctx, sc);
+
+        final byte[] blocks = ctx.volume.blocks;
+        final short[] light = ctx.volume.light;
+        final int[] plane = sc.plane;
+        final int[] vals = sc.vals;
+
+        // X faces (between x = s and s + 1): plane rows y, bits z
+        for (int s = -1; s < SX; s++) {
+            boolean any = false;
+            for (int y = 0; y < SY; y++) {
+                int ra = rowZ(y, s), rb = ra + 1;
+                int pos = sc.opqZ[ra] & ~sc.negX[rb];
+                int neg = sc.opqZ[rb] & ~sc.posX[ra];
+                plane[y] = pos | neg;
+                if ((pos | neg) == 0) continue;
+                any = true;
+                fillValues(blocks, light, vals, y * W, 0, PaddedVolume.index(s, y, 0), 1, PaddedVolume.PX, pos, neg);
+            }
+            if (any) mergePlane(ctx, vertsO, 0, s, SY, plane, vals);
+        }
 
-                                int l = ctx.light.sample(c, ctx.mesherLightAccess, baseX, baseZ, ax, ay, az) & 0xFF;
-                                int e8 = lightToE8(l);
+        // Y faces (between y = s and s + 1): plane rows z, bits x
+        for (int s = -1; s < SY; s++) {
+            boolean any = false;
+            for (int z = 0; z < SZ; z++) {
+                int ra = rowX(s, z), rb = rowX(s + 1, z);
+                int pos = sc.opqX[ra] & ~sc.negY[rb];
+                int neg = sc.opqX[rb] & ~sc.posY[ra];
+                plane[z] = pos | neg;
+                if ((pos | neg) == 0) continue;
+                any = true;
+                fillValues(blocks, light, vals, z * W, 1, PaddedVolume.index(0, s, z), PaddedVolume.LAYER, 1, pos, neg);
+            }
+            if (any) mergePlane(ctx, vertsO, 1, s, SZ, plane, vals);
+        }
 
-                                int packed = packMask(tile, 1, e8) + 1;
-                                mask[n++] = packed;
-                            } else {
-                                mask[n++] = 0;
-                            }
-                            continue;
-                        }
+        // Z faces (between z = s and s + 1): plane rows y, bits x
+        for (int s = -1; s < SZ; s++) {
+            boolean any = false;
+            for (int y = 0; y < SY; y++) {
+                int ra = rowX(y, s), rb = ra + 1;
+                int pos = sc.opqX[ra] & ~sc.negZ[rb];
+                int neg = sc.opqX[rb] & ~sc.posZ[ra];
+                plane[y] = pos | neg;
+                if ((pos | neg) == 0) continue;
+                any = true;
+                fillValues(blocks, light, vals, y * W, 2, PaddedVolume.index(0, y, s), PaddedVolume.PX, 1, pos, neg);
+            }
+            if (any) mergePlane(ctx, vertsO, 2, s, SY, plane, vals);
+        }
+    }
 
-                        mask[n++] = 0;
+    /** Row bitmasks of the chunk's cells and of the neighbor cells its faces touch. */
+    private void buildRowMasks(MesherContext ctx, Scratch sc) {
+        sc.clear();
+
+        final byte[] blocks = ctx.volume.blocks;
+        final byte[] cover = caches.faceCover;
+
+        for (int y = 0; y < SY; y++) {
+            for (int z = -1; z <= SZ; z++) {
+                boolean inZ = z >= 0 && z < SZ;
+                int vi = PaddedVolume.index(-1, y, z);
+
+                for (int x = -1; x <= SX; x++, vi++) {
+                    int f = cover[blocks[vi] & 0xFF];
+                    if (f == 0) continue;
+
+                    boolean inX = x >= 0 && x < SX;
+                    if (inX) {
+                        int r = rowX(y, z), bit = 1 << x;
+                        if ((f & MesherCaches.COVER_OPAQUE_CUBE) != 0) sc.opqX[r] |= bit;
+                        if ((f & (1 << 2)) != 0) sc.negY[r] |= bit;
+                        if ((f & (1 << 3)) != 0) sc.posY[r] |= bit;
+                        if ((f & (1 << 4)) != 0) sc.negZ[r] |= bit;
+                        if ((f & (1 << 5)) != 0) sc.posZ[r] |= bit;
                     }
-                }
-
-                // merge mask
-                n = 0;
-                for (int j = 0; j < nv; j++) {
-                    for (int i = 0; i < nu; ) {
-                        int val = mask[n];
-                        if (val == 0) {
-                            i++; n++;
-                            continue;
-                        }
-
-                        int w = 1;
-                        while (i + w < nu && mask[n + w] == val) w++;
-
-                        int h = 1;
-                        outer:
-                        while (j + h < nv) {
-                            int row = n + h * nu;
-                            for (int k = 0; k < w; k++) {
-                                if (mask[row + k] != val) break outer;
-                            }
-                            h++;
-                        }
-
-                        int packed = (val - 1);
-                        int tile = unpackTile(packed);
-                        boolean positive = unpackPositive(packed);
-                        float emission = unpackEmission01(packed);
-
-                        emitQuadGreedyNoAlloc(
-                            ctx,
-                            vertsO, indsO,
-                            d, u, v,
-                            xd, i, j,
-                            w, h,
-                            positive,
-                            tile,
-                            emission
-                        );
-
-                        for (int yy = 0; yy < h; yy++) {
-                            int row = n + yy * nu;
-                            for (int xx = 0; xx < w; xx++) mask[row + xx] = 0;
-                        }
-
-                        i += w;
-                        n += w;
+                    if (inZ) {
+                        int r = rowZ(y, x), bit = 1 << z;
+                        if ((f & MesherCaches.COVER_OPAQUE_CUBE) != 0) sc.opqZ[r] |= bit;
+                        if ((f & 1) != 0) sc.negX[r] |= bit;
+                        if ((f & (1 << 1)) != 0) sc.posX[r] |= bit;
                     }
                 }
             }
         }
     }
 
-    // light 0..7 -> 0..255
-    private static int lightToE8(int l) {
-        if (l <= 0) return 0;
-        if (l >= 7) return 255;
-        return (l * 255 + 3) / 7;
+    /**
+     * Packed face values of one plane row.
+     * cell0: volume index of the row's first "a" cell (b = a + step); bitStep: volume step per bit.
+     * +d faces take the tile of a and the light of b, -d faces the tile of b and the light of a.
+     */
+    private void fillValues(byte[] blocks, short[] light, int[] vals, int base, int d,
+                            int cell0, int step, int bitStep, int pos, int neg) {
+        while (pos != 0) {
+            int k = Integer.numberOfTrailingZeros(pos);
+            pos &= pos - 1;
+            int a = cell0 + k * bitStep;
+            vals[base + k] = packMask(caches.tileForFaceFast(blocks[a] & 0xFF, d, true), 0, light[a + step]);
+        }
+        while (neg != 0) {
+            int k = Integer.numberOfTrailingZeros(neg);
+            neg &= neg - 1;
+            int a = cell0 + k * bitStep;
+            vals[base + k] = packMask(caches.tileForFaceFast(blocks[a + step] & 0xFF, d, false), 1, light[a]);
+        }
     }
 
-    private boolean blocksOccludeFaceFast(MesherContext ctx, byte neighborId, int axis, boolean positiveFace) {
-        if (neighborId == 0) return false;
-        int ni = neighborId & 0xFF;
-        if (!caches.isOccluderOpaqueLayer[ni]) return false;
-        return ctx.registry.blocksFullFace(neighborId, axis, positiveFace);
+    /** Greedy merge of one slice's faces (rows x W bits); consumes plane. */
+    private void mergePlane(MesherContext ctx, VertexArena verts,
+                            int d, int slice, int rows, int[] plane, int[] vals) {
+        for (int r = 0; r < rows; r++) {
+            int bits = plane[r];
+            int base = r * W;
+
+            while (bits != 0) {
+                int b0 = Integer.numberOfTrailingZeros(bits);
+                int val = vals[base + b0];
+
+                int w = 1;
+                while (b0 + w < W && (bits & (1 << (b0 + w))) != 0 && vals[base + b0 + w] == val) w++;
+                int run = ((1 << w) - 1) << b0;
+
+                int h = 1;
+                outer:
+                while (r + h < rows) {
+                    int next = plane[r + h];
+                    if ((next & run) != run) break;
+                    int nb = (r + h) * W;
+                    for (int k = b0; k < b0 + w; k++) {
+                        if (vals[nb + k] != val) break outer;
+                    }
+                    plane[r + h] = next & ~run;
+                    h++;
+                }
+                bits &= ~run;
+
+                // plane axes -> quad axes (u = d + 1, v = d + 2): rows are u for X / Y faces, v for Z faces
+                int u = (d + 1) % 3;
+                int v = (d + 2) % 3;
+                if (d == 2) {
+                    emitQuadGreedyNoAlloc(ctx, verts, d, u, v, slice, b0, r, w, h,
+                        unpackPositive(val), unpackTile(val), unpackLight(val));
+                } else {
+                    emitQuadGreedyNoAlloc(ctx, verts, d, u, v, slice, r, b0, h, w,
+                        unpackPositive(val), unpackTile(val), unpackLight(val));
+                }
+            }
+        }
     }
 
     // Greedy quad emit (NO ALLOC)
     private void emitQuadGreedyNoAlloc(MesherContext ctx,
-                                       FloatArray verts, ShortArray inds,
+                                       VertexArena verts,
                                        int d, int u, int v,
                                        int slice,
                                        int i, int j,
                                        int w, int h,
                                        boolean positiveNormal,
                                        int tile,
-                                       float emission) {
-
-        int vStart = verts.size / stride;
-        if (vStart + 4 >= VertexWriter.VERT_LIMIT) return;
+                                       short light) {
 
         int px = 0, py = 0, pz = 0;
         int dux = 0, duy = 0, duz = 0;
@@ -241,67 +266,57 @@ final class GreedyOpaqueMesher {
         else if (v == 1) dvy = h;
         else dvz = h;
 
-        float c0x = px,               c0y = py,               c0z = pz;
-        float c1x = px + dux,         c1y = py + duy,         c1z = pz + duz;
-        float c2x = px + dux + dvx,   c2y = py + duy + dvy,   c2z = pz + duz + dvz;
-        float c3x = px + dvx,         c3y = py + dvy,         c3z = pz + dvz;
+        int c0x = px,               c0y = py,               c0z = pz;
+        int c1x = px + dux,         c1y = py + duy,         c1z = pz + duz;
+        int c2x = px + dux + dvx,   c2y = py + duy + dvy,   c2z = pz + duz + dvz;
+        int c3x = px + dvx,         c3y = py + dvy,         c3z = pz + dvz;
 
-        float nx = 0, ny = 0, nz = 0;
-        float sgn = positiveNormal ? 1f : -1f;
-        if (d == 0) nx = sgn;
-        else if (d == 1) ny = sgn;
-        else nz = sgn;
+        int n = VertexWriter.axisNormal(d, positiveNormal);
 
-        float[] uv = ctx.atlas.uv(tile);
-        float u0 = uv[0], v0 = uv[1], u1 = uv[2], v1 = uv[3];
-
-        float lu0, lv0, lu1, lv1, lu2, lv2, lu3, lv3;
+        int lu0, lv0, lu1, lv1, lu2, lv2, lu3, lv3;
         if (d == 0) {
-            lu0 = 0f;        lv0 = 0f;
-            lu1 = 0f;        lv1 = (float) w;
-            lu2 = (float) h; lv2 = (float) w;
-            lu3 = (float) h; lv3 = 0f;
+            lu0 = 0; lv0 = 0;
+            lu1 = 0; lv1 = w;
+            lu2 = h; lv2 = w;
+            lu3 = h; lv3 = 0;
         } else {
-            lu0 = 0f;        lv0 = 0f;
-            lu1 = (float) w; lv1 = 0f;
-            lu2 = (float) w; lv2 = (float) h;
-            lu3 = 0f;        lv3 = (float) h;
+            lu0 = 0; lv0 = 0;
+            lu1 = w; lv1 = 0;
+            lu2 = w; lv2 = h;
+            lu3 = 0; lv3 = h;
         }
 
         if (positiveNormal) {
-            writer.addVertex(verts, c0x, c0y, c0z, nx, ny, nz, lu0, lv0, u0, v0, u1, v1, emission);
-            writer.addVertex(verts, c1x, c1y, c1z, nx, ny, nz, lu1, lv1, u0, v0, u1, v1, emission);
-            writer.addVertex(verts, c2x, c2y, c2z, nx, ny, nz, lu2, lv2, u0, v0, u1, v1, emission);
-            writer.addVertex(verts, c3x, c3y, c3z, nx, ny, nz, lu3, lv3, u0, v0, u1, v1, emission);
+            writer.addVertex(verts, c0x, c0y, c0z, n, lu0, lv0, tile, light);
+            writer.addVertex(verts, c1x, c1y, c1z, n, lu1, lv1, tile, light);
+            writer.addVertex(verts, c2x, c2y, c2z, n, lu2, lv2, tile, light);
+            writer.addVertex(verts, c3x, c3y, c3z, n, lu3, lv3, tile, light);
         } else {
-            writer.addVertex(verts, c0x, c0y, c0z, nx, ny, nz, lu0, lv0, u0, v0, u1, v1, emission);
-            writer.addVertex(verts, c3x, c3y, c3z, nx, ny, nz, lu3, lv3, u0, v0, u1, v1, emission);
-            writer.addVertex(verts, c2x, c2y, c2z, nx, ny, nz, lu2, lv2, u0, v0, u1, v1, emission);
-            writer.addVertex(verts, c1x, c1y, c1z, nx, ny, nz, lu1, lv1, u0, v0, u1, v1, emission);
+            writer.addVertex(verts, c0x, c0y, c0z, n, lu0, lv0, tile, light);
+            writer.addVertex(verts, c3x, c3y, c3z, n, lu3, lv3, tile, light);
+            writer.addVertex(verts, c2x, c2y, c2z, n, lu2, lv2, tile, light);
+            writer.addVertex(verts, c1x, c1y, c1z, n, lu1, lv1, tile, light);
         }
-
-        writer.quadIndices(inds, vStart);
     }
 
     // packed layout:
-    // bits  0..15 : tile
-    // bit      16 : sign (0=positive, 1=negative)
-    // bits 17..24 : emission (0..255)
-    private static int packMask(int tile, int signBit, int emission8) {
-        return (tile & 0xFFFF) | ((signBit & 1) << 16) | ((emission8 & 0xFF) << 17);
+    // bits  0..13 : tile
+    // bit      14 : sign (0=positive, 1=negative)
+    // bits 15..30 : packed light of the cell in front of the face (block RGB + sky, see Chunk.light)
+    private static int packMask(int tile, int signBit, short light) {
+        return (tile & 0x3FFF) | ((signBit & 1) << 14) | ((light & 0xFFFF) << 15);
     }
 
     private static int unpackTile(int packed) {
-        return packed & 0xFFFF;
+        return packed & 0x3FFF;
     }
 
     private static boolean unpackPositive(int packed) {
-        int signBit = (packed >> 16) & 1;
+        int signBit = (packed >> 14) & 1;
         return signBit == 0;
     }
 
-    private static float unpackEmission01(int packed) {
-        int e8 = (packed >> 17) & 0xFF;
-        return e8 / 255f;
+    private static short unpackLight(int packed) {
+        return (short) (packed >>> 15);
     }
 }
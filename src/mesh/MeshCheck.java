@@ -0,0 +1,223 @@
+package com.atom.life.mesh;
+
+import com.atom.life.data.WorldIO;
+import com.atom.life.io.CwdFiles;
+import com.atom.life.world.BlockAccess;
+import com.atom.life.world.Chunk;
+import com.atom.life.world.ChunkGenerator;
+import com.atom.life.world.ChunkStore;
+import com.atom.life.world.MesherChunkAccess;
+import com.atom.life.world.MesherLightAccess;
+import com.atom.life.world.blocks.BlockRegistry;
+import com.atom.life.world.light.BlockLightSystem;
+import com.badlogic.gdx.Gdx;
+
+import java.nio.FloatBuffer;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Consistency and throughput check for the chunk mesher on a fixed seeded world.
+ * Meshes the center 3x3 of a generated 5x5 patch (every meshed chunk has all four neighbors), in both light modes:
+ * - chunk path: the access hands out neighbor chunks (MesherChunkAccess), borders are copied from their arrays
+ * - cell path: the same world behind a plain BlockAccess, borders are read per cell (readBorderCells)
+ * Both must produce identical vertex data; then the build time per chunk is reported for each path.
+ * Exits with status 1 when the paths disagree.
+ *
+ * Run from the assets directory (blocks.json, structures/):
+ *   java -cp Atom.jar com.atom.life.mesh.MeshCheck [--reps N]
+ */
+public final class MeshCheck {
+
+    private static final long SEED = 1234L;
+    private static final int PATCH = 5;
+
+    // props dropped on the surface so the shape and alpha meshers get work too (missing names are skipped)
+    private static final String[] PROPS = {
+        "red_light", "blue_light", "white_light", "glass", "water",
+        "white_slope_xp", "white_slope_xn", "gray_slope_zp", "gray_slope_zn"
+    };
+
+    public static void main(String[] args) {
+        int reps = 20;
+        for (int i = 0; i < args.length; i++) {
+            if ("--reps".equals(args[i]) && i + 1 < args.length) {
+                reps = Math.max(1, Integer.parseInt(args[++i]));
+            } else {
+                System.out.println("Ignoring unknown option: " + args[i]);
+            }
+        }
+
+        if (Gdx.files == null) Gdx.files = new CwdFiles();
+
+        BlockRegistry registry = new BlockRegistry();
+        ChunkStore store = buildPatch(registry);
+
+        StoreAccess chunks = new StoreAccess(store);
+        CellAccess cells = new CellAccess(chunks);
+
+        boolean ok = true;
+        for (int mode = 0; mode < 2; mode++) {
+            boolean lightInTextures = mode == 1;
+            // the mesher stores tile indices only; the atlas is not read while building
+            ChunkMesher mesher = new ChunkMesher(registry, null, lightInTextures);
+
+            int mismatches = 0, verts = 0;
+            for (int cz = 1; cz < PATCH - 1; cz++) {
+                for (int cx = 1; cx < PATCH - 1; cx++) {
+                    Chunk c = store.getOrNull(cx, cz);
+                    ChunkMeshData a = mesher.buildMesh(c, chunks);
+                    ChunkMeshData b = mesher.buildMesh(c, cells);
+                    if (hash(a) != hash(b)) {
+                        mismatches++;
+                        System.out.println("MeshCheck: chunk " + cx + "," + cz + " differs between paths ("
+                            + (lightInTextures ? "texture" : "vertex") + " light)");
+                    }
+                    verts += a.opaque.vertexCount + a.alpha.vertexCount;
+                    mesher.recycle(a);
+                    mesher.recycle(b);
+                }
+            }
+            ok &= mismatches == 0;
+
+            // warm up both paths, then measure
+            time(mesher, store, chunks, reps);
+            time(mesher, store, cells, reps);
+            double chunkMs = time(mesher, store, chunks, reps);
+            double cellMs = time(mesher, store, cells, reps);
+
+            System.out.println(String.format(Locale.ROOT,
+                "MeshCheck: %s light | %d verts / 9 chunks | chunk path %.3f ms/chunk | cell path %.3f ms/chunk -> %s",
+                lightInTextures ? "texture" : "vertex", verts, chunkMs, cellMs, mismatches == 0 ? "SAME" : "DIFFERENT"));
+        }
+
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static ChunkStore buildPatch(BlockRegistry registry) {
+        ChunkGenerator gen = new ChunkGenerator(new WorldIO(SEED, "normal", 8, "mesh-check"), registry);
+        ChunkStore store = new ChunkStore();
+
+        for (int cz = 0; cz < PATCH; cz++) {
+            for (int cx = 0; cx < PATCH; cx++) {
+                Chunk c = store.putIfAbsentNew(cx, cz);
+                byte[] blocks = gen.generateChunkBlocks(cx, cz, Chunk.SX, Chunk.SY, Chunk.SZ);
+                System.arraycopy(blocks, 0, c.blocks, 0, c.blocks.length);
+            }
+        }
+
+        Random rnd = new Random(SEED);
+        int span = PATCH * Chunk.SX;
+        for (int k = 0; k < 300; k++) {
+            byte id = registry.idByName(PROPS[rnd.nextInt(PROPS.length)], (byte) 0);
+            int wx = rnd.nextInt(span), wz = rnd.nextInt(span);
+            if (id == 0) continue;
+
+            Chunk c = store.getOrNull(wx / Chunk.SX, wz / Chunk.SZ);
+            int lx = wx % Chunk.SX, lz = wz % Chunk.SZ;
+            int top = Chunk.SY - 2;
+            while (top > 0 && c.getLocal(lx, top, lz) == 0) top--;
+            c.blocks[c.idx(lx, top + 1, lz)] = id;
+        }
+
+        for (Chunk c : store.chunksMap().values()) {
+            fillLight(c);
+            c.status = Chunk.Status.READY;
+        }
+        return store;
+    }
+
+    /**
+     * Deterministic light field: sky light down to the first solid cell of each column, block light from a
+     * position hash. Not a real propagation; any fixed field exercises the light reads across borders.
+     */
+    private static void fillLight(Chunk c) {
+        for (int z = 0; z < Chunk.SZ; z++) {
+            for (int x = 0; x < Chunk.SX; x++) {
+                int sky = BlockLightSystem.MAX_SKY_LIGHT;
+                for (int y = Chunk.SY - 1; y >= 0; y--) {
+                    if (c.getLocal(x, y, z) != 0) sky = 0;
+                    int wx = c.cx * Chunk.SX + x, wz = c.cz * Chunk.SZ + z;
+                    int block = ((wx * 73856093) ^ (y * 19349663) ^ (wz * 83492791)) >>> 7 & 0x777;
+                    c.light[c.idx(x, y, z)] = (short) ((sky << Chunk.SKY_LIGHT_SHIFT) | block);
+                }
+            }
+        }
+    }
+
+    private static double time(ChunkMesher mesher, ChunkStore store, BlockAccess access, int reps) {
+        long t0 = System.nanoTime();
+        for (int r = 0; r < reps; r++) {
+            for (int cz = 1; cz < PATCH - 1; cz++) {
+                for (int cx = 1; cx < PATCH - 1; cx++) mesher.recycle(mesher.buildMesh(store.getOrNull(cx, cz), access));
+            }
+        }
+        int builds = reps * (PATCH - 2) * (PATCH - 2);
+        return (System.nanoTime() - t0) / 1e6 / builds;
+    }
+
+    private static long hash(ChunkMeshData md) {
+        return hash(hash(1, md.opaque), md.alpha);
+    }
+
+    private static long hash(long h, MeshData m) {
+        h = h * 31 + m.vertexCount;
+        h = h * 31 + m.indexCount;
+
+        FloatBuffer fb = FloatBuffer.allocate(m.verticesLength);
+        m.vertices.copyTo(fb);
+        while (fb.hasRemaining()) h = h * 1000003 + Float.floatToIntBits(fb.get());
+        return h;
+    }
+
+    /** Block, light and chunk access over the store, as World: unloaded or not READY reads as air / no light. */
+    private static final class StoreAccess implements BlockAccess, MesherLightAccess, MesherChunkAccess {
+        private final ChunkStore store;
+
+        StoreAccess(ChunkStore store) {
+            this.store = store;
+        }
+
+        @Override
+        public Chunk getReadyChunk(int cx, int cz) {
+            Chunk c = store.getOrNull(cx, cz);
+            return (c != null && c.isReady()) ? c : null;
+        }
+
+        @Override
+        public byte getBlock(int wx, int wy, int wz) {
+            if (wy < 0 || wy >= Chunk.SY) return 0;
+            Chunk c = getReadyChunk(Math.floorDiv(wx, Chunk.SX), Math.floorDiv(wz, Chunk.SZ));
+            return c == null ? 0 : c.getLocal(Math.floorMod(wx, Chunk.SX), wy, Math.floorMod(wz, Chunk.SZ));
+        }
+
+        @Override
+        public short getLight(int wx, int wy, int wz) {
+            if (wy >= Chunk.SY) return (short) (BlockLightSystem.MAX_SKY_LIGHT << Chunk.SKY_LIGHT_SHIFT);
+            if (wy < 0) return 0;
+            Chunk c = getReadyChunk(Math.floorDiv(wx, Chunk.SX), Math.floorDiv(wz, Chunk.SZ));
+            return c == null ? 0 : c.getLightLocal(Math.floorMod(wx, Chunk.SX), wy, Math.floorMod(wz, Chunk.SZ));
+        }
+    }
+
+    /** The same world without chunk handles: forces the per-cell border reads. */
+    private static final class CellAccess implements BlockAccess, MesherLightAccess {
+        private final StoreAccess world;
+
+        CellAccess(StoreAccess world) {
+            this.world = world;
+        }
+
+        @Override
+        public byte getBlock(int wx, int wy, int wz) {
+            return world.getBlock(wx, wy, wz);
+        }
+
+        @Override
+        public short getLight(int wx, int wy, int wz) {
+            return world.getLight(wx, wy, wz);
+        }
+    }
+
+    private MeshCheck() {}
+}
@@ -1,18 +1,25 @@
 package com.atom.life.mesh;
 
+/** Quads only (4 vertices each): indices come from the shared QuadIndexBuffer, none are stored per mesh. */
 public class MeshData {
-    public float[] vertices;
-    public short[] indices;
+    public final VertexArena vertices;
 
     public int verticesLength; // number of floats used
     public int vertexCount;    // number of vertices (verticesLength / strideFloats)
-    public int indexCount;
+    public int indexCount;     // 6 per quad
 
-    public MeshData(float[] vertices, int verticesLength, short[] indices, int indexCount, int strideFloats) {
-        this.vertices = vertices;
-        this.verticesLength = verticesLength;
-        this.indices = indices;
-        this.indexCount = indexCount;
-        this.vertexCount = verticesLength / strideFloats;
+    MeshData(int initialFloats) {
+        this.vertices = new VertexArena(initialFloats);
+    }
+
+    void begin() {
+        vertices.clear();
+        verticesLength = vertexCount = indexCount = 0;
+    }
+
+    void finish(int strideFloats) {
+        verticesLength = vertices.size();
+        vertexCount = verticesLength / strideFloats;
+        indexCount = vertexCount / 4 * 6;
     }
 }
@@ -2,6 +2,7 @@ package com.atom.life.mesh;
 
 import com.atom.life.world.blocks.BlockDef;
 import com.atom.life.world.blocks.BlockRegistry;
+import com.atom.life.world.blocks.ShapeTemplate;
 
 /**
  * Cached per-block properties (0..255).
@@ -18,7 +19,6 @@ final class MesherCaches {
 
     // registry predicates
     final boolean[] isCube = new boolean[256];
-    final boolean[] isSlope = new boolean[256];
     final boolean[] isOpaque = new boolean[256];
 
     // layer and tiles
@@ -27,14 +27,19 @@ final class MesherCaches {
     final int[] tileSide = new int[256];
     final int[] tileBottom = new int[256];
 
-    // emission packed to 0..255
-    final int[] emission8 = new int[256];
-
     // derived fast predicates
     final boolean[] isOpaqueCube = new boolean[256];
     final boolean[] isAlphaBlock = new boolean[256];
     final boolean[] isOccluderOpaqueLayer = new boolean[256];
 
+    // full faces that hide an opaque cube's face touching them (bit axis * 2 = negative side, axis * 2 + 1 = positive),
+    // plus COVER_OPAQUE_CUBE
+    static final int COVER_OPAQUE_CUBE = 1 << 6;
+    final byte[] faceCover = new byte[256];
+
+    // geometry of non-cube shapes (null: air / cube), emitted by ShapeMesher
+    final ShapeTemplate[] shapes = new ShapeTemplate[256];
+
     MesherCaches(BlockRegistry registry) {
         this.registry = registry;
         rebuild();
@@ -48,7 +53,6 @@ final class MesherCaches {
             if (d == null) {
                 layer[i] = LAYER_NONE;
                 tileTop[i] = tileSide[i] = tileBottom[i] = 0;
-                emission8[i] = 0;
             } else {
                 if (d.renderLayer == BlockDef.RenderLayer.OPAQUE) layer[i] = LAYER_OPAQUE;
                 else if (d.renderLayer == BlockDef.RenderLayer.ALPHA) layer[i] = LAYER_ALPHA;
@@ -57,20 +61,27 @@ final class MesherCaches {
                 tileTop[i] = d.tileTop;
                 tileSide[i] = d.tileSide;
                 tileBottom[i] = d.tileBottom;
-
-                float e = d.emission;
-                if (e <= 0f) emission8[i] = 0;
-                else if (e >= 1f) emission8[i] = 255;
-                else emission8[i] = Math.round(e * 255f);
             }
 
             isCube[i] = registry.isCube(id);
-            isSlope[i] = registry.isSlope(id);
             isOpaque[i] = registry.isOpaque(id);
 
             isAlphaBlock[i] = (layer[i] == LAYER_ALPHA);
             isOpaqueCube[i] = isCube[i] && isOpaque[i] && (layer[i] == LAYER_OPAQUE);
             isOccluderOpaqueLayer[i] = (layer[i] == LAYER_OPAQUE) && isOpaque[i];
+
+            int cover = 0;
+            if (isOpaqueCube[i]) {
+                cover = 0x3F | COVER_OPAQUE_CUBE;
+            } else if (isOccluderOpaqueLayer[i]) {
+                for (int axis = 0; axis < 3; axis++) {
+                    if (registry.blocksFullFace(id, axis, false)) cover |= 1 << (axis * 2);
+                    if (registry.blocksFullFace(id, axis, true)) cover |= 1 << (axis * 2 + 1);
+                }
+            }
+            faceCover[i] = (byte) cover;
+
+            shapes[i] = registry.shapeTemplate(id);
         }
     }
 
@@ -78,8 +89,4 @@ final class MesherCaches {
         if (axisD == 1) return positiveNormal ? tileTop[idIndex] : tileBottom[idIndex];
         return tileSide[idIndex];
     }
-
-    float emission01(int idIndex) {
-        return emission8[idIndex] / 255f;
-    }
 }
@@ -4,7 +4,6 @@ import com.atom.life.world.blocks.BlockRegistry;
 import com.atom.life.render.BlockAtlas;
 import com.atom.life.world.BlockAccess;
 import com.atom.life.world.Chunk;
-import com.atom.life.world.MesherLightAccess;
 
 /**
  * Per-thread meshing context (ThreadLocal owned).
@@ -15,43 +14,33 @@ final class MesherContext {
     final BlockRegistry registry;
     final BlockAtlas atlas;
     final MesherCaches caches;
-    final BlockSampler sampler;
 
-    final LightSampler light = new LightSampler();
-    MesherLightAccess mesherLightAccess;
+    /** blocks + light of the chunk being built and its border, captured in begin() */
+    final PaddedVolume volume;
 
     // per-build
     Chunk chunk;
-    BlockAccess access;
     int baseX;
     int baseZ;
 
-    MesherContext(BlockRegistry registry, BlockAtlas atlas, MesherCaches caches, BlockSampler sampler) {
+    MesherContext(BlockRegistry registry, BlockAtlas atlas, MesherCaches caches, boolean lightInVertices) {
         this.registry = registry;
         this.atlas = atlas;
         this.caches = caches;
-        this.sampler = sampler;
+        this.volume = new PaddedVolume(lightInVertices);
     }
 
     void begin(Chunk c, BlockAccess access) {
         this.chunk = c;
-        this.access = access;
         this.baseX = c.cx * Chunk.SX;
         this.baseZ = c.cz * Chunk.SZ;
 
-        // light access is optional
-        if (access instanceof MesherLightAccess) {
-            this.mesherLightAccess = (MesherLightAccess) access;
-        } else {
-            this.mesherLightAccess = null;
-        }
+        volume.capture(c, access);
     }
 
     void end() {
         // avoid accidental retention (optional)
         this.chunk = null;
-        this.access = null;
-        this.mesherLightAccess = null;
         this.baseX = 0;
         this.baseZ = 0;
     }
@@ -0,0 +1,155 @@
+package com.atom.life.mesh;
+
+import com.atom.life.world.BlockAccess;
+import com.atom.life.world.Chunk;
+import com.atom.life.world.MesherChunkAccess;
+import com.atom.life.world.MesherLightAccess;
+import com.atom.life.world.light.BlockLightSystem;
+
+import java.util.Arrays;
+
+/**
+ * Blocks + packed light of a chunk and a 1-cell border, copied once per build (per mesh thread).
+ * - x/z border: the facing edge cells of the 4 neighbors (bulk row copies); y border: below the world
+ *   (air, dark) and above it (air, open sky)
+ * - sub-meshers index these arrays directly: no hashing / floorDiv per neighbor cell, and every cell
+ *   is read from the chunks once, so a build sees one copy even if edits land while it runs
+ * - diagonal border cells are never sampled (faces only look along one axis) and stay 0
+ * - in light texture mode light is not copied (vertices carry none): every light sample is 0,
+ *   which also lets greedy quads merge across light changes
+ * Layout: x fastest, then z, then y (same as Chunk.idx, and as ChunkLightTexture).
+ */
+final class PaddedVolume {
+
+    static final int PX = Chunk.SX + 2;
+    static final int PZ = Chunk.SZ + 2;
+    static final int PY = Chunk.SY + 2;
+    static final int LAYER = PX * PZ;
+
+    // above the world: open sky, no block light
+    private static final short OPEN_SKY = (short) (BlockLightSystem.MAX_SKY_LIGHT << Chunk.SKY_LIGHT_SHIFT);
+
+    private static final int SX = Chunk.SX;
+    private static final int SY = Chunk.SY;
+    private static final int SZ = Chunk.SZ;
+    private static final int CHUNK_LAYER = SX * SZ;
+
+    final byte[] blocks = new byte[PX * PY * PZ];
+    final short[] light = new short[PX * PY * PZ];
+
+    private final boolean lightInVertices;
+
+    PaddedVolume(boolean lightInVertices) {
+        this.lightInVertices = lightInVertices;
+
+        // y = SY border never changes: air, open sky
+        if (lightInVertices) {
+            int top = index(-1, SY, -1);
+            Arrays.fill(light, top, top + LAYER, OPEN_SKY);
+        }
+    }
+
+    /** Index of chunk-local cell (x, y, z), each in [-1, size]. */
+    static int index(int x, int y, int z) {
+        return ((y + 1) * PZ + (z + 1)) * PX + (x + 1);
+    }
+
+    byte block(int x, int y, int z) {
+        return blocks[index(x, y, z)];
+    }
+
+    short light(int x, int y, int z) {
+        return light[index(x, y, z)];
+    }
+
+    /**
+     * Copies c and its neighbors' edge cells. Neighbors come from chunks when access can hand them out
+     * (MesherChunkAccess), otherwise border cells are read one by one through access.
+     */
+    void capture(Chunk c, BlockAccess access) {
+        Chunk px = null, nx = null, pz = null, nz = null;
+        boolean chunks = access instanceof MesherChunkAccess;
+        if (chunks) {
+            MesherChunkAccess ca = (MesherChunkAccess) access;
+            px = ca.getReadyChunk(c.cx + 1, c.cz);
+            nx = ca.getReadyChunk(c.cx - 1, c.cz);
+            pz = ca.getReadyChunk(c.cx, c.cz + 1);
+            nz = ca.getReadyChunk(c.cx, c.cz - 1);
+        }
+
+        copyBlocks(c, px, nx, pz, nz);
+        if (lightInVertices) copyLight(c, px, nx, pz, nz);
+
+        if (!chunks && access != null) readBorderCells(c, access);
+    }
+
+    // one chunk row (SX cells) per arraycopy; a missing neighbor (not loaded) reads as air / dark
+
+    private void copyBlocks(Chunk c, Chunk px, Chunk nx, Chunk pz, Chunk nz) {
+        byte[] dst = blocks;
+        for (int y = 0; y < SY; y++) {
+            int row = y * CHUNK_LAYER;
+
+            // z = -1 / z = SZ: last row of -Z, first row of +Z
+            int d = index(0, y, -1);
+            if (nz != null) System.arraycopy(nz.blocks, row + (SZ - 1) * SX, dst, d, SX);
+            else Arrays.fill(dst, d, d + SX, (byte) 0);
+            d = index(0, y, SZ);
+            if (pz != null) System.arraycopy(pz.blocks, row, dst, d, SX);
+            else Arrays.fill(dst, d, d + SX, (byte) 0);
+
+            for (int z = 0; z < SZ; z++) {
+                int i = row + z * SX;
+                d = index(0, y, z);
+                System.arraycopy(c.blocks, i, dst, d, SX);
+                dst[d - 1] = nx != null ? nx.blocks[i + SX - 1] : 0;
+                dst[d + SX] = px != null ? px.blocks[i] : 0;
+            }
+        }
+    }
+
+    private void copyLight(Chunk c, Chunk px, Chunk nx, Chunk pz, Chunk nz) {
+        short[] dst = light;
+        for (int y = 0; y < SY; y++) {
+            int row = y * CHUNK_LAYER;
+
+            int d = index(0, y, -1);
+            if (nz != null) System.arraycopy(nz.light, row + (SZ - 1) * SX, dst, d, SX);
+            else Arrays.fill(dst, d, d + SX, (short) 0);
+            d = index(0, y, SZ);
+            if (pz != null) System.arraycopy(pz.light, row, dst, d, SX);
+            else Arrays.fill(dst, d, d + SX, (short) 0);
+
+            for (int z = 0; z < SZ; z++) {
+                int i = row + z * SX;
+                d = index(0, y, z);
+                System.arraycopy(c.light, i, dst, d, SX);
+                dst[d - 1] = nx != null ? nx.light[i + SX - 1] : 0;
+                dst[d + SX] = px != null ? px.light[i] : 0;
+            }
+        }
+    }
+
+    /** Fallback for accesses without chunk handles: border cells one by one. */
+    private void readBorderCells(Chunk c, BlockAccess access) {
+        MesherLightAccess la = (lightInVertices && access instanceof MesherLightAccess) ? (MesherLightAccess) access : null;
+        int baseX = c.cx * SX, baseZ = c.cz * SZ;
+
+        for (int y = 0; y < SY; y++) {
+            for (int k = 0; k < SX; k++) {
+                readCell(access, la, baseX, baseZ, k, y, -1);
+                readCell(access, la, baseX, baseZ, k, y, SZ);
+            }
+            for (int k = 0; k < SZ; k++) {
+                readCell(access, la, baseX, baseZ, -1, y, k);
+                readCell(access, la, baseX, baseZ, SX, y, k);
+            }
+        }
+    }
+
+    private void readCell(BlockAccess access, MesherLightAccess la, int baseX, int baseZ, int x, int y, int z) {
+        int i = index(x, y, z);
+        blocks[i] = access.getBlock(baseX + x, y, baseZ + z);
+        if (la != null) light[i] = la.getLight(baseX + x, y, baseZ + z);
+    }
+}
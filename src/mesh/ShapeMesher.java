@@ -0,0 +1,64 @@
+package com.atom.life.mesh;
+
+import com.atom.life.world.Chunk;
+import com.atom.life.world.blocks.ShapeTemplate;
+
+/**
+ * Non-cube shape mesher (slopes, and any shape with a ShapeTemplate).
+ * Table driven: per cell one id-indexed template lookup, then per face
+ * - cull against the neighbor's faceCover bits (the face of it that touches this one)
+ * - light from the neighbor the face looks at
+ * - emit the template corners at the cell
+ */
+final class ShapeMesher {
+
+    // volume index step per direction (0:+X 1:-X 2:+Y 3:-Y 4:+Z 5:-Z)
+    private static final int[] STEP = {
+        1, -1, PaddedVolume.LAYER, -PaddedVolume.LAYER, PaddedVolume.PX, -PaddedVolume.PX
+    };
+
+    private final MesherCaches caches;
+    private final VertexWriter writer;
+
+    ShapeMesher(MesherCaches caches, VertexWriter writer) {
+        this.caches = caches;
+        this.writer = writer;
+    }
+
+    void emitShapes(MesherContext ctx, VertexArena verts) {
+        final int sx = Chunk.SX, sy = Chunk.SY, sz = Chunk.SZ;
+        final byte[] blocks = ctx.volume.blocks;
+        final ShapeTemplate[] shapes = caches.shapes;
+
+        for (int y = 0; y < sy; y++) {
+            for (int z = 0; z < sz; z++) {
+                int row = PaddedVolume.index(0, y, z);
+                for (int x = 0; x < sx; x++) {
+                    int ii = blocks[row + x] & 0xFF;
+                    ShapeTemplate t = shapes[ii];
+                    if (t == null) continue;
+                    emitShape(ctx, verts, t, ii, row + x, x, y, z);
+                }
+            }
+        }
+    }
+
+    private void emitShape(MesherContext ctx, VertexArena verts, ShapeTemplate t, int ii, int vi,
+                           int lx, int ly, int lz) {
+        final byte[] blocks = ctx.volume.blocks;
+        final short[] light = ctx.volume.light;
+        final byte[] cover = caches.faceCover;
+
+        for (ShapeTemplate.Face f : t.faces) {
+            if (f.cullDir >= 0 && (cover[blocks[vi + STEP[f.cullDir]] & 0xFF] & f.cullMask) != 0) continue;
+
+            int tile = switch (f.tile) {
+                case ShapeTemplate.TILE_BOTTOM -> caches.tileBottom[ii];
+                case ShapeTemplate.TILE_TOP -> caches.tileTop[ii];
+                default -> caches.tileSide[ii];
+            };
+
+            writer.addFace(verts, f, lx, ly, lz, tile, light[vi + STEP[f.lightDir]]);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.atom.life.mesh;
+
+import com.badlogic.gdx.utils.BufferUtils;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Direct (off-heap) float buffer a mesh is written into: packed vertices go straight from the mesher
+ * to the render thread's upload, with no float[] in between.
+ * - grows by doubling and keeps its size, so a recycled arena (see ChunkMesher.recycle) stops allocating
+ * - one writer at a time: a mesh worker while building, then the render thread while uploading
+ */
+public final class VertexArena {
+
+    private FloatBuffer buf;
+
+    VertexArena(int initialFloats) {
+        buf = BufferUtils.newFloatBuffer(initialFloats);
+    }
+
+    void clear() {
+        buf.clear();
+    }
+
+    /** Floats written so far. */
+    public int size() {
+        return buf.position();
+    }
+
+    void put(float a, float b, float c) {
+        if (buf.remaining() < 3) grow();
+        buf.put(a).put(b).put(c);
+    }
+
+    private void grow() {
+        FloatBuffer bigger = BufferUtils.newFloatBuffer(buf.capacity() * 2);
+        buf.flip();
+        bigger.put(buf);
+        buf = bigger;
+    }
+
+    /** Copies the written floats to the start of dst and leaves dst flipped (limit = floats copied). */
+    public void copyTo(FloatBuffer dst) {
+        int n = buf.position();
+        buf.flip();
+        dst.clear();
+        dst.put(buf);
+        dst.flip();
+        buf.limit(buf.capacity());
+        buf.position(n);
+    }
+}
@@ -1,124 +1,66 @@
 package com.atom.life.mesh;
 
-import com.badlogic.gdx.utils.FloatArray;
-import com.badlogic.gdx.utils.ShortArray;
-import com.atom.life.render.BlockAtlas;
+import com.atom.life.world.blocks.ShapeTemplate;
 
 /**
  * Low-level vertex/index writing helper.
  * Keeps vertex layout consistent across all sub-meshers.
+ *
+ * Packed vertex: 3 floats (12 bytes), each an exact integer below 2^24; BlockRenderer unpacks them.
+ * - f0: x (bits 0..4) | z (5..9) | y (10..18) | normal index (19..22)       chunk-local corner
+ * - f1: local u (0..8) | local v (9..17) | tile >> 8 (18..23)               quad-local UV, up to a full column
+ * - f2: light (0..15) | tile & 255 (16..23)                                  packed Chunk.light short
+ * The atlas rect is not stored: the atlas is a grid, the shader derives it from the tile index.
+ *
+ * Everything is written as quads (4 vertices, drawn with the shared QuadIndexBuffer); a triangle is a
+ * quad with its last corner repeated, so no per-mesh index data and no vertex count limit.
  */
 final class VertexWriter {
 
-    static final int VERT_LIMIT = 32760; // avoid short overflow
+    /** floats per vertex */
+    static final int STRIDE = 3;
 
-    private final int stride;
-    private final BlockAtlas atlas;
+    // normal indices (defined with the shape tables): axis faces 0:+X 1:-X 2:+Y 3:-Y 4:+Z 5:-Z, then slope tops
+    static final int N_PX = ShapeTemplate.N_PX, N_NX = ShapeTemplate.N_NX, N_PY = ShapeTemplate.N_PY;
+    static final int N_NY = ShapeTemplate.N_NY, N_PZ = ShapeTemplate.N_PZ, N_NZ = ShapeTemplate.N_NZ;
 
-    VertexWriter(int stride, BlockAtlas atlas) {
-        this.stride = stride;
-        this.atlas = atlas;
+    /** Normal index of an axis face (axis 0/1/2 = x/y/z). */
+    static int axisNormal(int axis, boolean positive) {
+        return axis * 2 + (positive ? 0 : 1);
     }
 
-    void quadIndices(ShortArray inds, int vStart) {
-        inds.add((short) (vStart));
-        inds.add((short) (vStart + 1));
-        inds.add((short) (vStart + 2));
-        inds.add((short) (vStart));
-        inds.add((short) (vStart + 2));
-        inds.add((short) (vStart + 3));
+    void addVertex(VertexArena verts,
+                   int x, int y, int z,
+                   int normal,
+                   int lu, int lv,
+                   int tile,
+                   short light) {
+        verts.put(x | (z << 5) | (y << 10) | (normal << 19),
+            lu | (lv << 9) | ((tile >> 8) << 18),
+            (light & 0xFFFF) | ((tile & 0xFF) << 16));
     }
 
-    void triIndices(ShortArray inds, int vStart) {
-        inds.add((short) (vStart));
-        inds.add((short) (vStart + 1));
-        inds.add((short) (vStart + 2));
-    }
-
-    void addVertex(FloatArray verts,
-                   float x, float y, float z,
-                   float nx, float ny, float nz,
-                   float lu, float lv,
-                   float u0, float v0, float u1, float v1,
-                   float emission) {
-        verts.add(x);  verts.add(y);  verts.add(z);
-        verts.add(nx); verts.add(ny); verts.add(nz);
-        verts.add(lu); verts.add(lv);
-        verts.add(u0); verts.add(v0); verts.add(u1); verts.add(v1);
-        verts.add(emission);
-    }
-
-    void addQuadAlpha(FloatArray verts, ShortArray inds,
-                      float ax, float ay, float az,
-                      float bx, float by, float bz,
-                      float cx, float cy, float cz,
-                      float dx, float dy, float dz,
-                      float nx, float ny, float nz,
+    void addQuadAlpha(VertexArena verts,
+                      int ax, int ay, int az,
+                      int bx, int by, int bz,
+                      int cx, int cy, int cz,
+                      int dx, int dy, int dz,
+                      int normal,
                       int tile,
-                      float emission) {
-
-        int vStart = verts.size / stride;
-        if (vStart + 4 >= VERT_LIMIT) return;
-
-        float[] uv = atlas.uv(tile);
-        float u0 = uv[0], v0 = uv[1], u1 = uv[2], v1 = uv[3];
-
-        addVertex(verts, ax, ay, az, nx, ny, nz, 0f, 0f, u0, v0, u1, v1, emission);
-        addVertex(verts, bx, by, bz, nx, ny, nz, 1f, 0f, u0, v0, u1, v1, emission);
-        addVertex(verts, cx, cy, cz, nx, ny, nz, 1f, 1f, u0, v0, u1, v1, emission);
-        addVertex(verts, dx, dy, dz, nx, ny, nz, 0f, 1f, u0, v0, u1, v1, emission);
-
-        quadIndices(inds, vStart);
-    }
-
-    void addQuad(FloatArray verts, ShortArray inds,
-                 float ax, float ay, float az,
-                 float bx, float by, float bz,
-                 float cx, float cy, float cz,
-                 float dx, float dy, float dz,
-                 float nx, float ny, float nz,
-                 float lu0, float lv0,
-                 float lu1, float lv1,
-                 float lu2, float lv2,
-                 float lu3, float lv3,
-                 int tile,
-                 float emission) {
-
-        int vStart = verts.size / stride;
-        if (vStart + 4 >= VERT_LIMIT) return;
-
-        float[] uv = atlas.uv(tile);
-        float u0 = uv[0], v0 = uv[1], u1 = uv[2], v1 = uv[3];
-
-        addVertex(verts, ax, ay, az, nx, ny, nz, lu0, lv0, u0, v0, u1, v1, emission);
-        addVertex(verts, bx, by, bz, nx, ny, nz, lu1, lv1, u0, v0, u1, v1, emission);
-        addVertex(verts, cx, cy, cz, nx, ny, nz, lu2, lv2, u0, v0, u1, v1, emission);
-        addVertex(verts, dx, dy, dz, nx, ny, nz, lu3, lv3, u0, v0, u1, v1, emission);
-
-        quadIndices(inds, vStart);
+                      short light) {
+        addVertex(verts, ax, ay, az, normal, 0, 0, tile, light);
+        addVertex(verts, bx, by, bz, normal, 1, 0, tile, light);
+        addVertex(verts, cx, cy, cz, normal, 1, 1, tile, light);
+        addVertex(verts, dx, dy, dz, normal, 0, 1, tile, light);
     }
 
-    void addTri(FloatArray verts, ShortArray inds,
-                float ax, float ay, float az,
-                float bx, float by, float bz,
-                float cx, float cy, float cz,
-                float nx, float ny, float nz,
-                float lu0, float lv0,
-                float lu1, float lv1,
-                float lu2, float lv2,
-                int tile,
-                float emission) {
-
-        int vStart = verts.size / stride;
-        if (vStart + 3 >= VERT_LIMIT) return;
-
-        float[] uv = atlas.uv(tile);
-        float u0 = uv[0], v0 = uv[1], u1 = uv[2], v1 = uv[3];
-
-        addVertex(verts, ax, ay, az, nx, ny, nz, lu0, lv0, u0, v0, u1, v1, emission);
-        addVertex(verts, bx, by, bz, nx, ny, nz, lu1, lv1, u0, v0, u1, v1, emission);
-        addVertex(verts, cx, cy, cz, nx, ny, nz, lu2, lv2, u0, v0, u1, v1, emission);
-
-        triIndices(inds, vStart);
+    /** One shape template face at cell (x, y, z); a triangle repeats its last corner (degenerate second half). */
+    void addFace(VertexArena verts, ShapeTemplate.Face f, int x, int y, int z, int tile, short light) {
+        int[] c = f.corners;
+        int[] uv = f.uvs;
+        for (int i = 0; i < 4; i++) {
+            int k = Math.min(i, f.vertexCount - 1);
+            addVertex(verts, x + c[k * 3], y + c[k * 3 + 1], z + c[k * 3 + 2], f.normal, uv[k * 2], uv[k * 2 + 1], tile, light);
+        }
     }
 }
@@ -148,6 +148,11 @@ public class BlockAtlas {
         return texture;
     }
 
+    /** Tiles per atlas row (and column): tile t sits at (t % tilesPerRow, t / tilesPerRow). */
+    public int getTilesPerRow() {
+        return tilesPerRow;
+    }
+
     public float[] uv(int tileIndex) {
         if (tileIndex < 0 || tileIndex >= uvs.length) return uvs[0];
         return uvs[tileIndex];
@@ -2,13 +2,13 @@ package com.atom.life.render;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.PerspectiveCamera;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.math.Vector3;
 import com.atom.life.time.DayNightCycle;
 import com.atom.life.world.Chunk;
+import com.atom.life.world.light.BlockLightSystem;
 
 import static com.atom.life.GlobalVariables.renderDistance;
 
@@ -17,30 +17,66 @@ public class BlockRenderer {
     private final ShaderProgram shader;
     private final Matrix4 world = new Matrix4();
 
+    // packed light short (Chunk.light) as an exact float; block R, G, B nibbles, sky in the top nibble
+    private static final String DECODE_LIGHT =
+        "  vec4 l = mod(floor(packedLight / vec4(1.0, 16.0, 256.0, 4096.0)), 16.0);\n" +
+            "  v_blockLight = l.rgb / " + BlockLightSystem.MAX_LIGHT + ".0;\n" +
+            "  v_sky = l.a / " + BlockLightSystem.MAX_SKY_LIGHT + ".0;\n";
+
+    // normal index (ShapeTemplate.N_*): 0..5 axis faces +X -X +Y -Y +Z -Z, 6..9 slope tops leaning +X -X +Z -Z
+    private static final String NORMALS =
+        "vec3 axisNormal(float i){\n" +
+            "  float a = floor(i * 0.5);\n" +
+            "  return (1.0 - 2.0 * mod(i, 2.0)) * vec3(equal(vec3(a), vec3(0.0, 1.0, 2.0)));\n" +
+            "}\n" +
+            "vec3 decodeNormal(float i){\n" +
+            "  if (i < 5.5) return axisNormal(i);\n" +
+            "  float k = i - 6.0;\n" +
+            "  return (axisNormal(k < 1.5 ? k : k + 2.0) + vec3(0.0, 1.0, 0.0)) * 0.70710677;\n" +
+            "}\n";
+
+    // a_packed (see VertexWriter): exact integers split with floor / mod, so the same code runs on GLSL 100;
+    // the atlas is a grid, so the tile's rect comes from its index and u_atlasTiles (tiles per row)
+    private static final String DECODE_VERTEX =
+        "  vec3 p = floor(a_packed + 0.5);\n" +
+            "  vec3 pos = vec3(mod(p.x, 32.0), mod(floor(p.x / 1024.0), 512.0), mod(floor(p.x / 32.0), 32.0));\n" +
+            "  vec3 normal = decodeNormal(floor(p.x / 524288.0));\n" +
+            "  v_localUV = vec2(mod(p.y, 512.0), mod(floor(p.y / 512.0), 512.0));\n" +
+            "  float tile = floor(p.y / 262144.0) * 256.0 + floor(p.z / 65536.0);\n" +
+            "  float ty = floor((tile + 0.5) / u_atlasTiles);\n" +
+            "  float tx = tile - ty * u_atlasTiles;\n" +
+            "  v_atlasRect = vec4(tx, ty, tx + 1.0, ty + 1.0) / u_atlasTiles;\n" +
+            "  float packedLight = mod(p.z, 65536.0);\n" +
+            DECODE_LIGHT;
+
     private static final String VERT_150 =
         "#version 150\n" +
-            "in vec3 a_position;\n" +
-            "in vec3 a_normal;\n" +
-            "in vec2 a_localUV;\n" +
-            "in vec4 a_atlasRect;\n" +
-            "in float a_emission;\n" +                 // ✅ NEW
+            "in vec3 a_packed;\n" +
             "\n" +
             "uniform mat4 u_projView;\n" +
             "uniform mat4 u_world;\n" +
+            "uniform float u_atlasTiles;\n" +
             "\n" +
             "out vec3 v_n;\n" +
             "out vec2 v_localUV;\n" +
             "out vec4 v_atlasRect;\n" +
             "out vec3 v_worldPos;\n" +
-            "out float v_emission;\n" +               // ✅ NEW
+            "out vec3 v_blockLight;\n" +
+            "out float v_sky;\n" +
+            "#ifdef LIGHT_TEX\n" +
+            "out vec3 v_localPos;\n" +
+            "#endif\n" +
+            "\n" +
+            NORMALS +
             "\n" +
             "void main(){\n" +
-            "  vec4 wpos = u_world * vec4(a_position, 1.0);\n" +
+            DECODE_VERTEX +
+            "  vec4 wpos = u_world * vec4(pos, 1.0);\n" +
             "  v_worldPos = wpos.xyz;\n" +
-            "  v_n = mat3(u_world) * a_normal;\n" +
-            "  v_localUV = a_localUV;\n" +
-            "  v_atlasRect = a_atlasRect;\n" +
-            "  v_emission = a_emission;\n" +          // ✅ NEW
+            "  v_n = mat3(u_world) * normal;\n" +
+            "#ifdef LIGHT_TEX\n" +
+            "  v_localPos = pos;\n" +
+            "#endif\n" +
             "  gl_Position = u_projView * wpos;\n" +
             "}\n";
 
@@ -50,6 +86,7 @@ public class BlockRenderer {
             "uniform vec3 u_lightDir;\n" +
             "uniform float u_ambient;\n" +
             "uniform float u_dirI;\n" +
+            "uniform float u_minLight;\n" +
             "\n" +
             "uniform vec3 u_camPos;\n" +
             "uniform vec3 u_fogColor;\n" +
@@ -60,7 +97,24 @@ public class BlockRenderer {
             "in vec2 v_localUV;\n" +
             "in vec4 v_atlasRect;\n" +
             "in vec3 v_worldPos;\n" +
-            "in float v_emission;\n" +
+            "in vec3 v_blockLight;\n" +
+            "in float v_sky;\n" +
+            "\n" +
+            "#ifdef LIGHT_TEX\n" +
+            "uniform usampler3D u_light;\n" +
+            "uniform float u_lightOut;\n" +
+            "in vec3 v_localPos;\n" +
+            "\n" +
+            "// packed light of the cell the mesher would sample: in front of the face (slopes: above),\n" +
+            "// or the cell itself for alpha faces (u_lightOut = 0)\n" +
+            "uint packedLight(vec3 n){\n" +
+            "  vec3 o = abs(n.y) > 0.5 ? vec3(0.0, sign(n.y), 0.0) : floor(n + 0.5);\n" +
+            "  ivec3 c = ivec3(floor(v_localPos - n * 0.01 + o * u_lightOut));\n" +
+            "  if (c.y >= CHUNK_SY) return OPEN_SKY;\n" +
+            "  if (c.y < 0) return 0u;\n" +
+            "  return texelFetch(u_light, ivec3(c.x + 1, c.z + 1, c.y), 0).r;\n" +
+            "}\n" +
+            "#endif\n" +
             "\n" +
             "out vec4 fragColor;\n" +
             "\n" +
@@ -73,14 +127,24 @@ public class BlockRenderer {
             "void main(){\n" +
             "  vec3 n = normalize(v_n);\n" +
             "  float ndl = max(dot(n, normalize(u_lightDir)), 0.0);\n" +
-            "  float light = u_ambient + (1.0 - u_ambient) * ndl * u_dirI;\n" +
+            "#ifdef LIGHT_TEX\n" +
+            "  uint packed = packedLight(n);\n" +
+            "  vec3 blockL = vec3(uvec3(packed, packed >> 4u, packed >> 8u) & 15u) / MAX_BLOCK_LIGHT;\n" +
+            "  float skyL = float(packed >> 12u) / MAX_SKY_LIGHT;\n" +
+            "#else\n" +
+            "  vec3 blockL = v_blockLight;\n" +
+            "  float skyL = v_sky;\n" +
+            "#endif\n" +
+            "  // daylight only reaches as far as sky light does (caves / overhangs stay dark)\n" +
+            "  float sky = clamp(skyL, 0.0, 1.0);\n" +
+            "  float light = max((u_ambient + (1.0 - u_ambient) * ndl * u_dirI) * sky, u_minLight);\n" +
             "\n" +
             "  vec2 fuv = fract(v_localUV);\n" +
             "  vec2 uv = mix(v_atlasRect.xy, v_atlasRect.zw, fuv);\n" +
             "  vec4 albedo = texture(u_tex, uv);\n" +
             "\n" +
-            "  // emissive\n" +
-            "  float e = clamp(v_emission, 0.0, 1.0);\n" +
+            "  // emissive (colored block light)\n" +
+            "  vec3 e = clamp(blockL, 0.0, 1.0);\n" +
             "  vec3 lit = albedo.rgb * light;\n" +
             "  vec3 emissive = albedo.rgb * e;\n" +
             "  vec3 shaded = lit + emissive;\n" +
@@ -95,28 +159,26 @@ public class BlockRenderer {
 
     // ===== GLSL 100 (GL20 / ES2 style) =====
     private static final String VERT_100 =
-        "attribute vec3 a_position;\n" +
-            "attribute vec3 a_normal;\n" +
-            "attribute vec2 a_localUV;\n" +
-            "attribute vec4 a_atlasRect;\n" +
-            "attribute float a_emission;\n" +
+        "attribute vec3 a_packed;\n" +
             "\n" +
             "uniform mat4 u_projView;\n" +
             "uniform mat4 u_world;\n" +
+            "uniform float u_atlasTiles;\n" +
             "\n" +
             "varying vec3 v_n;\n" +
             "varying vec2 v_localUV;\n" +
             "varying vec4 v_atlasRect;\n" +
             "varying vec3 v_worldPos;\n" +
-            "varying float v_emission;\n" +
+            "varying vec3 v_blockLight;\n" +
+            "varying float v_sky;\n" +
+            "\n" +
+            NORMALS +
             "\n" +
             "void main(){\n" +
-            "  vec4 wpos = u_world * vec4(a_position, 1.0);\n" +
+            DECODE_VERTEX +
+            "  vec4 wpos = u_world * vec4(pos, 1.0);\n" +
             "  v_worldPos = wpos.xyz;\n" +
-            "  v_n = mat3(u_world) * a_normal;\n" +
-            "  v_localUV = a_localUV;\n" +
-            "  v_atlasRect = a_atlasRect;\n" +
-            "  v_emission = a_emission;\n" +
+            "  v_n = mat3(u_world) * normal;\n" +
             "  gl_Position = u_projView * wpos;\n" +
             "}\n";
 
@@ -129,6 +191,7 @@ public class BlockRenderer {
             "uniform vec3 u_lightDir;\n" +
             "uniform float u_ambient;\n" +
             "uniform float u_dirI;\n" +
+            "uniform float u_minLight;\n" +
             "\n" +
             "uniform vec3 u_camPos;\n" +
             "uniform vec3 u_fogColor;\n" +
@@ -139,7 +202,8 @@ public class BlockRenderer {
             "varying vec2 v_localUV;\n" +
             "varying vec4 v_atlasRect;\n" +
             "varying vec3 v_worldPos;\n" +
-            "varying float v_emission;\n" +
+            "varying vec3 v_blockLight;\n" +
+            "varying float v_sky;\n" +
             "\n" +
             "float fogFactorLinear(float dist, float nearD, float farD){\n" +
             "  float denom = max(farD - nearD, 0.0001);\n" +
@@ -150,13 +214,15 @@ public class BlockRenderer {
             "void main(){\n" +
             "  vec3 n = normalize(v_n);\n" +
             "  float ndl = max(dot(n, normalize(u_lightDir)), 0.0);\n" +
-            "  float light = u_ambient + (1.0 - u_ambient) * ndl * u_dirI;\n" +
+            "  // daylight only reaches as far as sky light does (caves / overhangs stay dark)\n" +
+            "  float sky = clamp(v_sky, 0.0, 1.0);\n" +
+            "  float light = max((u_ambient + (1.0 - u_ambient) * ndl * u_dirI) * sky, u_minLight);\n" +
             "\n" +
             "  vec2 fuv = fract(v_localUV);\n" +
             "  vec2 uv = mix(v_atlasRect.xy, v_atlasRect.zw, fuv);\n" +
             "  vec4 albedo = texture2D(u_tex, uv);\n" +
             "\n" +
-            "  float e = clamp(v_emission, 0.0, 1.0);\n" +
+            "  vec3 e = clamp(v_blockLight, 0.0, 1.0);\n" +
             "  vec3 lit = albedo.rgb * light;\n" +
             "  vec3 emissive = albedo.rgb * e;\n" +
             "  vec3 shaded = clamp(lit + emissive, 0.0, 1.0);\n" +
@@ -168,8 +234,24 @@ public class BlockRenderer {
             "  gl_FragColor = vec4(col, albedo.a);\n" +
             "}\n";
 
+    // light texture variant of the GLSL 150 shaders (see ChunkLightTexture)
+    private static String withLightTextures(String src) {
+        return src.replace("#version 150\n",
+            "#version 150\n" +
+                "#define LIGHT_TEX\n" +
+                "#define CHUNK_SY " + Chunk.SY + "\n" +
+                "#define OPEN_SKY " + (BlockLightSystem.MAX_SKY_LIGHT << Chunk.SKY_LIGHT_SHIFT) + "u\n" +
+                "#define MAX_BLOCK_LIGHT " + BlockLightSystem.MAX_LIGHT + ".0\n" +
+                "#define MAX_SKY_LIGHT " + BlockLightSystem.MAX_SKY_LIGHT + ".0\n");
+    }
+
+    private static final int LIGHT_UNIT = 1;
+
+    private final boolean lightTextures;
+
     // cached uniforms
-    private int u_projView, u_world, u_tex, u_lightDir, u_ambient, u_dirI;
+    private int u_projView, u_world, u_tex, u_atlasTiles, u_lightDir, u_ambient, u_dirI, u_minLight;
+    private int u_light, u_lightOut;
     private int u_camPos, u_fogColor, u_fogNear, u_fogFar;
 
     // defaults
@@ -177,6 +259,9 @@ public class BlockRenderer {
     private float tmpAmbient = 0.35f;
     private float tmpDirI = 1.0f;
 
+    // floor for cells without sky light (deep caves are dim, not black)
+    private static final float MIN_LIGHT = 0.03f;
+
     // fog defaults
     private final Vector3 tmpFogColor = new Vector3(0.65f, 0.75f, 0.90f);
     private float tmpFogNear = 80f;
@@ -193,8 +278,13 @@ public class BlockRenderer {
         ShaderProgram.pedantic = false;
 
         boolean gl30 = Gdx.graphics.isGL30Available();
+        lightTextures = ChunkLightTexture.enabled();
         String vert = gl30 ? VERT_150 : VERT_100;
         String frag = gl30 ? FRAG_150 : FRAG_100;
+        if (lightTextures) {
+            vert = withLightTextures(vert);
+            frag = withLightTextures(frag);
+        }
 
         shader = new ShaderProgram(vert, frag);
         if (!shader.isCompiled()) {
@@ -204,9 +294,13 @@ public class BlockRenderer {
         u_projView = shader.getUniformLocation("u_projView");
         u_world    = shader.getUniformLocation("u_world");
         u_tex      = shader.getUniformLocation("u_tex");
+        u_atlasTiles = shader.getUniformLocation("u_atlasTiles");
         u_lightDir = shader.getUniformLocation("u_lightDir");
         u_ambient  = shader.getUniformLocation("u_ambient");
         u_dirI     = shader.getUniformLocation("u_dirI");
+        u_minLight = shader.getUniformLocation("u_minLight");
+        u_light    = shader.getUniformLocation("u_light");
+        u_lightOut = shader.getUniformLocation("u_lightOut");
 
         u_camPos   = shader.getUniformLocation("u_camPos");
         u_fogColor = shader.getUniformLocation("u_fogColor");
@@ -214,7 +308,7 @@ public class BlockRenderer {
         u_fogFar   = shader.getUniformLocation("u_fogFar");
     }
 
-    public void begin(PerspectiveCamera cam, Texture atlasTexture) {
+    public void begin(PerspectiveCamera cam, BlockAtlas atlas) {
         shader.bind();
         shader.setUniformMatrix(u_projView, cam.combined);
 
@@ -222,6 +316,7 @@ public class BlockRenderer {
         shader.setUniformf(u_lightDir, tmpLightDir);
         shader.setUniformf(u_ambient, tmpAmbient);
         shader.setUniformf(u_dirI, tmpDirI);
+        shader.setUniformf(u_minLight, MIN_LIGHT);
 
         // fog defaults
         tmpCamPos.set(cam.position);
@@ -230,13 +325,36 @@ public class BlockRenderer {
         shader.setUniformf(u_fogNear, tmpFogNear);
         shader.setUniformf(u_fogFar, tmpFogFar);
 
-        atlasTexture.bind(0);
+        atlas.getTexture().bind(0);
         shader.setUniformi(u_tex, 0);
+        shader.setUniformf(u_atlasTiles, atlas.getTilesPerRow());
+
+        if (lightTextures) {
+            shader.setUniformi(u_light, LIGHT_UNIT);
+            shader.setUniformf(u_lightOut, 1f);
+        }
+    }
+
+    /** Alpha faces are lit from their own cell, opaque faces from the cell in front (light texture mode). */
+    public void setAlphaPass(boolean alpha) {
+        if (lightTextures) shader.setUniformf(u_lightOut, alpha ? 0f : 1f);
+    }
+
+    /**
+     * Call per chunk before rendering it: binds its light texture (light texture mode).
+     * Returns false if the chunk has no light uploaded yet (skip it rather than draw it dark).
+     */
+    public boolean bindChunkLight(Chunk c) {
+        if (!lightTextures) return true;
+        if (c.lightTexture == null) return false;
+        c.lightTexture.bind(LIGHT_UNIT);
+        return true;
     }
 
     /**
      * Call once per frame after begin().
      * Uses sun by day, moon by night; scales directional light intensity.
+     * Sky light comes from mesh vertices or light textures, so day/night is uniforms only (no remeshing).
      */
     public void setDayNight(DayNightCycle cycle) {
         if (cycle == null) return;
@@ -0,0 +1,115 @@
+package com.atom.life.render;
+
+import com.atom.life.GlobalVariables;
+import com.atom.life.world.Chunk;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.GL30;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.Disposable;
+
+import java.nio.Buffer;
+import java.nio.ShortBuffer;
+
+/**
+ * Per-chunk light as a 3D texture (GL30), sampled by the BlockRenderer fragment shader.
+ * - one R16UI texel per cell holding the packed light short (Chunk.light: block R, G, B + sky), read with texelFetch
+ * - a 1-cell border on x/z holds the neighbors' edge cells, so faces on the chunk border find their light
+ * - axes are (x, z, y) so a texture row is a chunk row: packing is plain row copies
+ * - light edits only re-upload this texture; geometry is rebuilt on block changes only
+ * Render thread only.
+ */
+public final class ChunkLightTexture implements Disposable {
+
+    public static final int WIDTH = Chunk.SX + 2;
+    public static final int HEIGHT = Chunk.SZ + 2;
+    public static final int DEPTH = Chunk.SY;
+    public static final int TEXELS = WIDTH * HEIGHT * DEPTH;
+
+    private int handle;
+
+    /** Light textures are on (config) and the context can do 3D textures. */
+    public static boolean enabled() {
+        return GlobalVariables.lightTextures && Gdx.graphics != null && Gdx.graphics.isGL30Available();
+    }
+
+    /** Upload buffer sized for one chunk (reuse it: uploads happen on the render thread only). */
+    public static ShortBuffer newUploadBuffer() {
+        return BufferUtils.newShortBuffer(TEXELS);
+    }
+
+    public ChunkLightTexture() {
+        handle = Gdx.gl.glGenTexture();
+        Gdx.gl.glBindTexture(GL30.GL_TEXTURE_3D, handle);
+        Gdx.gl.glTexParameteri(GL30.GL_TEXTURE_3D, GL20.GL_TEXTURE_MIN_FILTER, GL20.GL_NEAREST);
+        Gdx.gl.glTexParameteri(GL30.GL_TEXTURE_3D, GL20.GL_TEXTURE_MAG_FILTER, GL20.GL_NEAREST);
+        Gdx.gl.glTexParameteri(GL30.GL_TEXTURE_3D, GL20.GL_TEXTURE_WRAP_S, GL20.GL_CLAMP_TO_EDGE);
+        Gdx.gl.glTexParameteri(GL30.GL_TEXTURE_3D, GL20.GL_TEXTURE_WRAP_T, GL20.GL_CLAMP_TO_EDGE);
+        Gdx.gl.glTexParameteri(GL30.GL_TEXTURE_3D, GL30.GL_TEXTURE_WRAP_R, GL20.GL_CLAMP_TO_EDGE);
+        Gdx.gl30.glTexImage3D(GL30.GL_TEXTURE_3D, 0, GL30.GL_R16UI, WIDTH, HEIGHT, DEPTH, 0,
+            GL30.GL_RED_INTEGER, GL20.GL_UNSIGNED_SHORT, (Buffer) null);
+        Gdx.gl.glBindTexture(GL30.GL_TEXTURE_3D, 0);
+    }
+
+    /**
+     * Packs c's light plus the facing edge cells of its 4 neighbors (null = not loaded, dark) into out.
+     * Diagonal corners are never sampled and stay 0.
+     */
+    public static void pack(Chunk c, Chunk px, Chunk nx, Chunk pz, Chunk nz, ShortBuffer out) {
+        out.clear();
+        short[] l = c.light;
+
+        for (int y = 0; y < DEPTH; y++) {
+            int row = y * Chunk.SX * Chunk.SZ;
+
+            // z = -1: last row of the -Z neighbor
+            out.put((short) 0);
+            if (nz != null) out.put(nz.light, row + (Chunk.SZ - 1) * Chunk.SX, Chunk.SX);
+            else putZeros(out, Chunk.SX);
+            out.put((short) 0);
+
+            for (int z = 0; z < Chunk.SZ; z++) {
+                int i = row + z * Chunk.SX;
+                out.put(nx != null ? nx.light[i + Chunk.SX - 1] : 0);
+                out.put(l, i, Chunk.SX);
+                out.put(px != null ? px.light[i] : 0);
+            }
+
+            // z = SZ: first row of the +Z neighbor
+            out.put((short) 0);
+            if (pz != null) out.put(pz.light, row, Chunk.SX);
+            else putZeros(out, Chunk.SX);
+            out.put((short) 0);
+        }
+        out.flip();
+    }
+
+    private static void putZeros(ShortBuffer out, int n) {
+        for (int k = 0; k < n; k++) out.put((short) 0);
+    }
+
+    /** Replaces the whole texture with a buffer filled by pack(). */
+    public void upload(ShortBuffer packed) {
+        Gdx.gl.glBindTexture(GL30.GL_TEXTURE_3D, handle);
+        // rows are WIDTH (18) shorts, not 4-byte aligned
+        Gdx.gl.glPixelStorei(GL20.GL_UNPACK_ALIGNMENT, 2);
+        Gdx.gl30.glTexSubImage3D(GL30.GL_TEXTURE_3D, 0, 0, 0, 0, WIDTH, HEIGHT, DEPTH,
+            GL30.GL_RED_INTEGER, GL20.GL_UNSIGNED_SHORT, packed);
+        Gdx.gl.glPixelStorei(GL20.GL_UNPACK_ALIGNMENT, 4);
+        Gdx.gl.glBindTexture(GL30.GL_TEXTURE_3D, 0);
+    }
+
+    public void bind(int unit) {
+        Gdx.gl.glActiveTexture(GL20.GL_TEXTURE0 + unit);
+        Gdx.gl.glBindTexture(GL30.GL_TEXTURE_3D, handle);
+        Gdx.gl.glActiveTexture(GL20.GL_TEXTURE0);
+    }
+
+    @Override
+    public void dispose() {
+        if (handle != 0) {
+            Gdx.gl.glDeleteTexture(handle);
+            handle = 0;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.atom.life.render;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.utils.BufferUtils;
+
+import java.nio.IntBuffer;
+
+/**
+ * One index buffer shared by every chunk mesh: chunk meshes are quads only (see VertexWriter),
+ * so their indices are always 0,1,2, 0,2,3 per quad and never need to be built or uploaded per mesh.
+ * - 32-bit indices: a mesh may hold any number of vertices (no short index limit)
+ * - grows (doubling) the first time a bigger mesh is drawn
+ * Render thread only.
+ */
+public final class QuadIndexBuffer {
+
+    private static final int INITIAL_QUADS = 16384;
+
+    private static int handle;
+    private static int capacityQuads;
+
+    private QuadIndexBuffer() {
+    }
+
+    /**
+     * Binds the shared buffer as GL_ELEMENT_ARRAY_BUFFER, large enough for quads quads.
+     * Call after binding the mesh (with VAOs the binding is stored in the mesh's VAO).
+     */
+    public static void bind(int quads) {
+        if (handle == 0) handle = Gdx.gl.glGenBuffer();
+        Gdx.gl.glBindBuffer(GL20.GL_ELEMENT_ARRAY_BUFFER, handle);
+
+        if (quads > capacityQuads) {
+            int cap = Math.max(INITIAL_QUADS, capacityQuads);
+            while (cap < quads) cap <<= 1;
+            upload(cap);
+        }
+    }
+
+    public static void unbind() {
+        Gdx.gl.glBindBuffer(GL20.GL_ELEMENT_ARRAY_BUFFER, 0);
+    }
+
+    /** Draws the first indexCount indices (6 per quad) of the bound mesh. */
+    public static void draw(int indexCount) {
+        bind(indexCount / 6);
+        Gdx.gl.glDrawElements(GL20.GL_TRIANGLES, indexCount, GL20.GL_UNSIGNED_INT, 0);
+    }
+
+    private static void upload(int quads) {
+        IntBuffer buf = BufferUtils.newIntBuffer(quads * 6);
+        for (int q = 0, v = 0; q < quads; q++, v += 4) {
+            buf.put(v).put(v + 1).put(v + 2);
+            buf.put(v).put(v + 2).put(v + 3);
+        }
+        buf.flip();
+        Gdx.gl.glBufferData(GL20.GL_ELEMENT_ARRAY_BUFFER, quads * 6 * 4, buf, GL20.GL_STATIC_DRAW);
+        capacityQuads = quads;
+    }
+
+    public static void dispose() {
+        if (handle != 0) {
+            Gdx.gl.glDeleteBuffer(handle);
+            handle = 0;
+        }
+        capacityQuads = 0;
+    }
+}
@@ -4,6 +4,9 @@ import com.badlogic.gdx.graphics.Mesh;
 import com.badlogic.gdx.graphics.VertexAttributes;
 import com.badlogic.gdx.graphics.glutils.ShaderProgram;
 import com.atom.life.mesh.MeshData;
+import com.atom.life.render.ChunkLightTexture;
+import com.atom.life.render.QuadIndexBuffer;
+import com.atom.life.world.light.ChunkEmitters;
 
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -13,6 +16,11 @@ public class Chunk {
     public static final int SY = 256;
     public static final int SZ = 16;
 
+    // light short: block light as R, G, B nibbles (bits 0..11), sky light in the top nibble
+    public static final int BLOCK_LIGHT_MASK = 0x0FFF;
+    public static final int SKY_LIGHT_SHIFT = 12;
+    public static final int RED_SHIFT = 0, GREEN_SHIFT = 4, BLUE_SHIFT = 8;
+
     public enum Status { LOADING, READY, UNLOADED }
 
     public final int cx, cz;
@@ -34,13 +42,30 @@ public class Chunk {
     public volatile int meshRevision = 0;
     public final AtomicBoolean remeshQueued = new AtomicBoolean(false);
 
+    /** light texture (light texture mode only; render thread) */
+    public ChunkLightTexture lightTexture;
+    public final AtomicBoolean lightUploadQueued = new AtomicBoolean(false);
+
+    /** oldest block edit whose result is not on screen yet (0 = none), for edit-to-visible latency */
+    public volatile long editPendingNs = 0;
+
     public volatile int saveRevision = 0;
     public volatile int savedRevision = 0;
     public final AtomicBoolean saveQueued = new AtomicBoolean(false);
 
     public volatile long lastDirtyTimeMs = 0;
 
-    public final byte[] blockLight = new byte[Chunk.SX * Chunk.SY * Chunk.SZ];
+    /** packed light per cell (see BLOCK_LIGHT_MASK / SKY_LIGHT_SHIFT); written by the light worker only */
+    public final short[] light = new short[Chunk.SX * Chunk.SY * Chunk.SZ];
+
+    /** light emitters, indexed off-thread by the generation pipeline; kept current by the light worker */
+    public volatile ChunkEmitters emitters;
+
+    /** bit per ChunkEmitters section that may hold block light (set on write, cleared with the chunk's light) */
+    public int litSections;
+
+    /** sky light columns filled by the light worker (a neighbor's sky is only compared against once set) */
+    public boolean skyFilled;
 
     public Chunk(int cx, int cz) {
         this.cx = cx;
@@ -109,29 +134,37 @@ public class Chunk {
             return null;
         }
 
+        // vertices only: indices come from the shared QuadIndexBuffer
         if (mesh == null) {
-            mesh = new Mesh(true, md.vertexCount, md.indexCount, attrs);
+            mesh = new Mesh(true, md.vertexCount, 0, attrs);
         } else {
-            if (mesh.getMaxVertices() < md.vertexCount || mesh.getMaxIndices() < md.indexCount) {
+            if (mesh.getMaxVertices() < md.vertexCount) {
                 mesh.dispose();
-                mesh = new Mesh(true, md.vertexCount, md.indexCount, attrs);
+                mesh = new Mesh(true, md.vertexCount, 0, attrs);
             }
         }
 
-        mesh.setVertices(md.vertices, 0, md.verticesLength);
-        mesh.setIndices(md.indices, 0, md.indexCount);
+        // straight from the mesher's direct arena into the mesh's buffer (uploaded on its next bind)
+        md.vertices.copyTo(mesh.getVerticesBuffer(true));
         return mesh;
     }
 
     //Render
     public void renderOpaque(ShaderProgram shader) {
         if (meshOpaque == null || indexCountOpaque == 0) return;
-        meshOpaque.render(shader, com.badlogic.gdx.graphics.GL20.GL_TRIANGLES, 0, indexCountOpaque);
+        render(meshOpaque, shader, indexCountOpaque);
     }
 
     public void renderAlpha(ShaderProgram shader) {
         if (meshAlpha == null || indexCountAlpha == 0) return;
-        meshAlpha.render(shader, com.badlogic.gdx.graphics.GL20.GL_TRIANGLES, 0, indexCountAlpha);
+        render(meshAlpha, shader, indexCountAlpha);
+    }
+
+    private static void render(Mesh mesh, ShaderProgram shader, int indexCount) {
+        mesh.bind(shader);
+        QuadIndexBuffer.draw(indexCount);
+        mesh.unbind(shader);
+        QuadIndexBuffer.unbind();
     }
 
     // Render thread
@@ -144,24 +177,25 @@ public class Chunk {
             meshAlpha.dispose();
             meshAlpha = null;
         }
+        if (lightTexture != null) {
+            lightTexture.dispose();
+            lightTexture = null;
+        }
         indexCountOpaque = 0;
         indexCountAlpha = 0;
     }
 
-    public byte getLightLocal(int x, int y, int z) {
-        return blockLight[idx(x, y, z)];
+    /** Packed light (block RGB + sky). */
+    public short getLightLocal(int x, int y, int z) {
+        return light[idx(x, y, z)];
     }
 
-    public boolean setLightLocal(int x, int y, int z, byte level) {
-        int i = idx(x, y, z);
-        byte prev = blockLight[i];
-        if (prev == level) return false;
-
-        blockLight[i] = level;
+    /** Block light, packed RGB nibbles. */
+    public int getBlockLightLocal(int x, int y, int z) {
+        return light[idx(x, y, z)] & BLOCK_LIGHT_MASK;
+    }
 
-        // lighting affects rendering but should NOT affect saving blocks
-        dirtyMesh = true;
-        meshRevision++;
-        return true;
+    public int getSkyLightLocal(int x, int y, int z) {
+        return (light[idx(x, y, z)] & 0xFFFF) >>> SKY_LIGHT_SHIFT;
     }
 }
@@ -1,21 +1,37 @@
 package com.atom.life.world;
 
+import com.atom.life.data.WorldIO;
 import com.atom.life.world.blocks.BlockRegistry;
+import com.atom.life.world.gen.BiomeEngine;
 import com.atom.life.world.gen.BlockIdResolver;
+import com.atom.life.world.gen.CaveCarver;
 import com.atom.life.world.gen.ChunkFiller;
+import com.atom.life.world.gen.ColumnCache;
+import com.atom.life.world.gen.GenJob;
+import com.atom.life.world.gen.GenMetrics;
+import com.atom.life.world.gen.GenScratch;
+import com.atom.life.world.gen.GenStage;
 import com.atom.life.world.gen.HeightMap;
 import com.atom.life.world.gen.HeightSampler;
 import com.atom.life.world.gen.NoiseField;
+import com.atom.life.world.gen.StructurePlanner;
 import com.atom.life.world.gen.TerrainConfig;
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
 import static com.atom.life.world.gen.TerrainConfig.seaLevel;
 import static com.atom.life.world.gen.TerrainMath.clampInt;
 
 /**
  * Chunk generator with worldMode:
- * - normal: original 5-terrain generation (seamless) + sea fill using blue_water
+ * - normal: original 5-terrain generation (seamless) + sea fill using blue_water,
+ *   with world.json biomes (if any) blending heights and choosing surface blocks,
+ *   then optional 3D caves (world.json caves),
+ *   then dist/structures stamped across chunk borders (worlds with structures enabled)
  * - flat: superflat (no water)
  * - single: only one lime_block_jitter, else air (no water)
+ * Work is split into GenStage NOISE / FILL / FEATURES (runStage), each timed into metrics().
  */
 public class ChunkGenerator {
 
@@ -29,58 +45,219 @@ public class ChunkGenerator {
     private final BlockIdResolver ids = new BlockIdResolver();
     private final HeightSampler sampler;
     private final ChunkFiller filler = new ChunkFiller();
+    private final ColumnCache columns;
+
+    private final BiomeEngine biomes; // null = no biomes in world.json
+    private final CaveCarver caves; // null = no caves in world.json
+    private final StructurePlanner structures; // null = structures off / none defined
+
+    // flat mode: every chunk is the same
+    private volatile byte[] flatTemplate;
+
+    // per-thread kernel outputs (generator is shared by IO + pregen threads)
+    private final ThreadLocal<GenScratch> scratchTL = ThreadLocal.withInitial(GenScratch::new);
+
+    // job heightmaps, taken in NOISE and given back when the job leaves FEATURES (the last stage reading them)
+    private static final int MAX_POOLED_HEIGHTMAPS = 64;
+    private final ArrayDeque<HeightMap> heightMaps = new ArrayDeque<>();
+
+    private final GenMetrics metrics = new GenMetrics();
+
+    /** Generator for a save: seed, mode and generation options from its world.json. */
+    public ChunkGenerator(WorldIO info, BlockRegistry registry) {
+        this(info.seed, info.worldMode, registry,
+            TerrainConfig.normalizeLattice(info.lowFreqLattice), BiomeEngine.createOrNull(info),
+            CaveCarver.createOrNull(info.seed, info.caves), info.structures);
+    }
 
     public ChunkGenerator(long seed, String worldMode, BlockRegistry registry) {
+        this(seed, worldMode, registry, 0, null, null, false);
+    }
+
+    private ChunkGenerator(long seed, String worldMode, BlockRegistry registry,
+                           int lowFreqLattice, BiomeEngine biomes, CaveCarver caves, boolean withStructures) {
         this.worldMode = (worldMode == null) ? "normal" : worldMode.trim().toLowerCase();
         this.perlin = new PerlinNoise(seed);
         this.registry = registry;
+        this.biomes = biomes;
+        this.caves = caves;
+
+        cfg.lowFreqLattice = lowFreqLattice;
 
         NoiseField noise = new NoiseField(perlin);
-        this.sampler = new HeightSampler(cfg, noise);
+        this.sampler = new HeightSampler(cfg, noise, biomes);
+        this.columns = new ColumnCache(sampler, Chunk.SY);
+
+        this.structures = (withStructures && "normal".equals(this.worldMode))
+            ? StructurePlanner.loadOrNull(seed, biomes, columns, Chunk.SX, clampInt(seaLevel, 1, Chunk.SY - 2))
+            : null;
+    }
+
+    /** Shared per-column height/type/biome cache (normal mode). */
+    public ColumnCache columns() {
+        return columns;
+    }
+
+    /** Biome engine of this world, or null. */
+    public BiomeEngine biomes() {
+        return biomes;
+    }
+
+    /** Structure planner of this world, or null. */
+    public StructurePlanner structures() {
+        return structures;
+    }
+
+    /** Per-stage latency histograms (shared with the callers that run the other stages). */
+    public GenMetrics metrics() {
+        return metrics;
     }
 
+    /** All generator stages in place (blocking on dependencies); used by pregen. */
     public byte[] generateChunkBlocks(int cx, int cz, int sx, int sy, int sz) {
-        ids.resolveOnce(registry);
+        GenJob job = new GenJob(cx, cz, sx, sy, sz, GenStage.NOISE);
+        while (job.stage.generator) runStage(job, null);
+        return job.blocks;
+    }
+
+    /**
+     * Runs job.stage (NOISE, FILL or FEATURES) and advances the job to the next stage.
+     * Returns false if the stage is waiting for a neighbor dependency: resume is then called (from another
+     * thread) once it is available, and runStage must be called again for the same stage.
+     * With resume == null dependencies are waited for in place.
+     */
+    public boolean runStage(GenJob job, Runnable resume) {
+        long t0 = System.nanoTime();
+        boolean done;
+
+        switch (job.stage) {
+            case NOISE:
+                ids.resolveOnce(registry);
+                if (biomes != null) biomes.resolveOnce(registry, ids);
+                if (structures != null) structures.resolveOnce(registry, ids);
+                if ("normal".equals(worldMode)) sampleColumns(job);
+                done = true;
+                break;
+            case FILL:
+                fill(job);
+                done = true;
+                break;
+            case FEATURES:
+                done = !"normal".equals(worldMode) || features(job, resume);
+                break;
+            default:
+                throw new IllegalStateException("not a generator stage: " + job.stage);
+        }
+
+        job.stageNs += System.nanoTime() - t0;
+        if (!done) return false;
 
+        metrics.record(job.stage, job.stageNs);
+        job.stageNs = 0;
+        if (job.stage == GenStage.FEATURES) recycleHeightMap(job);
+        job.stage = job.stage.next();
+        return true;
+    }
+
+    private HeightMap obtainHeightMap(int w, int h) {
+        HeightMap hm;
+        synchronized (heightMaps) {
+            hm = heightMaps.poll();
+        }
+        // every caller of one generator uses the same chunk size; a mismatch just falls back to a new map
+        if (hm == null || hm.w != w || hm.h != h) hm = new HeightMap(w, h);
+        return hm;
+    }
+
+    private void recycleHeightMap(GenJob job) {
+        HeightMap hm = job.hm;
+        if (hm == null) return;
+        job.hm = null;
+        synchronized (heightMaps) {
+            if (heightMaps.size() < MAX_POOLED_HEIGHTMAPS) heightMaps.push(hm);
+        }
+    }
+
+    /** NOISE: the chunk's heightmap (+1 border) from the shared column cache. */
+    private void sampleColumns(GenJob job) {
+        int sx = job.sx, sy = job.sy, sz = job.sz;
+        int worldX0 = job.cx * sx;
+        int worldZ0 = job.cz * sz;
+
+        // owned by the job until FEATURES is done: FEATURES may resume on another thread
+        HeightMap hm = obtainHeightMap(sx + 1, sz + 1);
+        job.hm = hm;
+
+        if (sy == columns.sy()) {
+            columns.fill(hm, worldX0, worldZ0);
+        } else {
+            int seaY = clampInt(seaLevel, 1, sy - 2);
+            HeightSampler.HeightResult hr = scratchTL.get().height;
+            for (int z = 0; z <= sz; z++) {
+                for (int x = 0; x <= sx; x++) {
+                    sampler.sample(worldX0 + x, worldZ0 + z, seaY, sy, hr);
+                    hm.set(x, z, hr.h, hr.type);
+                }
+            }
+        }
+    }
+
+    private void fill(GenJob job) {
         switch (worldMode) {
             case "flat":
-                return generateFlat(cx, cz, sx, sy, sz);
+                job.blocks = generateFlat(job.cx, job.cz, job.sx, job.sy, job.sz);
+                break;
             case "single":
-                return generateSingle(cx, cz, sx, sy, sz);
+                job.blocks = generateSingle(job.cx, job.cz, job.sx, job.sy, job.sz);
+                break;
             case "normal":
             default:
-                return generateNormal(cx, cz, sx, sy, sz);
+                int sx = job.sx, sy = job.sy, sz = job.sz;
+                byte[] blocks = new byte[sx * sy * sz];
+                int seaY = clampInt(seaLevel, 1, sy - 2);
+                filler.fill(blocks, sx, sy, sz, seaY, cfg, job.hm, ids, biomes, scratchTL.get());
+                job.blocks = blocks;
         }
     }
 
-    private byte[] generateNormal(int cx, int cz, int sx, int sy, int sz) {
-        byte[] blocks = new byte[sx * sy * sz];
-
-        int worldX0 = cx * sx;
-        int worldZ0 = cz * sz;
+    /** FEATURES: caves, then structures (which need the plans of the surrounding regions). */
+    private boolean features(GenJob job, Runnable resume) {
+        int sx = job.sx, sy = job.sy, sz = job.sz;
 
-        int seaY = clampInt(seaLevel, 1, sy - 2);
+        // plans come from the shared column cache, so only chunks of the cache's shape can use them
+        boolean stamp = structures != null && sy == columns.sy() && sx == Chunk.SX && sz == Chunk.SZ;
 
-        int hmW = sx + 1;
-        int hmH = sz + 1;
-        HeightMap hm = new HeightMap(hmW, hmH);
-
-        for (int z = 0; z <= sz; z++) {
-            for (int x = 0; x <= sx; x++) {
-                int wx = worldX0 + x;
-                int wz = worldZ0 + z;
+        // park before any work, so a resumed stage starts from scratch
+        if (stamp && resume != null) {
+            job.parkedNs = System.nanoTime();
+            if (!structures.plansReady(job.cx, job.cz, sx, sz, resume)) return false;
+            job.parkedNs = 0;
+        }
 
-                HeightSampler.HeightResult hr = sampler.sample(wx, wz, seaY, sy);
-                hm.set(x, z, hr.h, hr.type);
-            }
+        if (caves != null) {
+            int seaY = clampInt(seaLevel, 1, sy - 2);
+            caves.carve(job.blocks, job.cx, job.cz, sx, sy, sz, seaY, job.hm, ids, scratchTL.get().cave);
         }
 
-        filler.fill(blocks, sx, sy, sz, seaY, cfg, hm, ids);
-        return blocks;
+        if (stamp) {
+            structures.stamp(job.blocks, job.cx, job.cz, sx, sy, sz);
+        }
+        return true;
     }
 
     private byte[] generateFlat(int cx, int cz, int sx, int sy, int sz) {
+        byte[] template = flatTemplate;
+        if (template == null || template.length != sx * sy * sz) {
+            template = buildFlatTemplate(sx, sy, sz);
+            flatTemplate = template;
+        }
+        return template.clone();
+    }
+
+    /** Superflat chunks are all identical: built once (layer by layer), then copied. */
+    private byte[] buildFlatTemplate(int sx, int sy, int sz) {
         byte[] blocks = new byte[sx * sy * sz];
+        int area = sx * sz;
 
         // Superflat layers (tunable):
         // y=0: bedrock
@@ -92,24 +269,20 @@ public class ChunkGenerator {
         final int yDirtTop  = 6;
         final int yGrass    = 7;
 
-        for (int z = 0; z < sz; z++) {
-            for (int x = 0; x < sx; x++) {
-                for (int y = 0; y < sy; y++) {
-                    int idx = (y * sz + z) * sx + x;
-
-                    if (y == 0) {
-                        blocks[idx] = ids.bedrock();
-                    } else if (y <= yStoneTop) {
-                        blocks[idx] = ids.stone();
-                    } else if (y <= yDirtTop) {
-                        blocks[idx] = ids.dirt();
-                    } else if (y == yGrass) {
-                        blocks[idx] = ids.grass();
-                    } else {
-                        blocks[idx] = ids.air();
-                    }
-                }
+        for (int y = 0; y < sy; y++) {
+            byte b;
+            if (y == 0) {
+                b = ids.bedrock();
+            } else if (y <= yStoneTop) {
+                b = ids.stone();
+            } else if (y <= yDirtTop) {
+                b = ids.dirt();
+            } else if (y == yGrass) {
+                b = ids.grass();
+            } else {
+                b = ids.air();
             }
+            Arrays.fill(blocks, y * area, (y + 1) * area, b);
         }
 
         return blocks;
@@ -119,7 +292,7 @@ public class ChunkGenerator {
         byte[] blocks = new byte[sx * sy * sz];
 
         // default all air
-        for (int i = 0; i < blocks.length; i++) blocks[i] = ids.air();
+        Arrays.fill(blocks, ids.air());
 
         // place ONE lime_block_jitter at world
         final int targetWx = 0;
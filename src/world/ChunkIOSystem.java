@@ -3,11 +3,23 @@ package com.atom.life.world;
 import com.atom.life.io.ChunkIO;
 import com.atom.life.data.WorldIO;
 import com.atom.life.world.blocks.BlockRegistry;
+import com.atom.life.world.gen.GenJob;
+import com.atom.life.world.gen.GenMetrics;
+import com.atom.life.world.gen.GenStage;
+import com.atom.life.world.light.BlockLightSystem;
+import com.atom.life.world.light.ChunkEmitters;
+import com.atom.life.world.light.LightCaches;
 import com.badlogic.gdx.files.FileHandle;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ChunkIOSystem {
 
@@ -15,6 +27,7 @@ public class ChunkIOSystem {
     private final ChunkStore store;
     private final ChunkGenerator generator;
     private final ChunkIO chunkIO;
+    private final LightCaches lightCaches; // LIGHT stage (read-only tables, safe on workers)
 
     private final ThreadPoolExecutor executor;
 
@@ -26,12 +39,34 @@ public class ChunkIOSystem {
 
     private final AtomicBoolean closing = new AtomicBoolean(false);
 
+    /**
+     * Snapshots handed to the executor but not yet on disk.
+     * - entry removed only after the write finished
+     * - shutdown flush picks up whatever is left (queued tasks are dropped, not lost)
+     */
+    private static final class PendingSave {
+        final int cx, cz;
+        final byte[] snapshot;
+
+        PendingSave(int cx, int cz, byte[] snapshot) {
+            this.cx = cx;
+            this.cz = cz;
+            this.snapshot = snapshot;
+        }
+    }
+
+    private final ConcurrentHashMap<Long, PendingSave> pendingSaves = new ConcurrentHashMap<>();
+
+    // chunks with an executor write still running (counted: a coalesced and a forced save may overlap)
+    private final ConcurrentHashMap<Long, Integer> writing = new ConcurrentHashMap<>();
+
     public ChunkIOSystem(WorldIO info, FileHandle saveDir, ChunkStore store, BlockRegistry registry) {
         this.info = info;
         this.store = store;
 
-        this.generator = new ChunkGenerator(info.seed, info.worldMode, registry);
+        this.generator = new ChunkGenerator(info, registry);
         this.chunkIO = new ChunkIO(saveDir);
+        this.lightCaches = new LightCaches(registry, BlockLightSystem.MAX_LIGHT);
 
         int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
 
@@ -50,6 +85,14 @@ public class ChunkIOSystem {
         return chunkIO;
     }
 
+    public ChunkGenerator generator() {
+        return generator;
+    }
+
+    public GenMetrics genMetrics() {
+        return generator.metrics();
+    }
+
     public boolean isClosing() {
         return closing.get();
     }
@@ -75,33 +118,95 @@ public class ChunkIOSystem {
         if (c.cx != cx || c.cz != cz) return;
         if (store.getByKey(key) != c) return;
 
-        safeSubmitIO(() -> {
-            try {
-                if (closing.get()) return;
+        safeSubmitIO(new GenTask(c, onChunkReady));
+    }
+
+    /**
+     * One chunk through the GenStage pipeline on the IO executor.
+     * - stages run back to back on one worker while nothing blocks
+     * - a stage waiting on a neighbor dependency parks the task (the worker moves on);
+     *   the dependency re-submits it, and it continues from the same stage
+     */
+    private final class GenTask implements Runnable {
+        private final Chunk c;
+        private final java.util.function.Consumer<Chunk> onChunkReady;
+        private final GenJob job;
+        private final GenMetrics metrics = generator.metrics();
+
+        GenTask(Chunk c, java.util.function.Consumer<Chunk> onChunkReady) {
+            this.c = c;
+            this.onChunkReady = onChunkReady;
+            this.job = new GenJob(c.cx, c.cz, Chunk.SX, Chunk.SY, Chunk.SZ, GenStage.LOAD);
+        }
 
-                byte[] loaded = chunkIO.tryLoad(cx, cz, Chunk.SX, Chunk.SY, Chunk.SZ);
-                if (loaded == null) {
-                    loaded = generator.generateChunkBlocks(cx, cz, Chunk.SX, Chunk.SY, Chunk.SZ);
+        @Override
+        public void run() {
+            try {
+                long now = System.nanoTime();
+                if (job.startNs == 0) {
+                    job.startNs = now;
+                    metrics.queueWait.record(now - job.submitNs);
+                } else if (job.parkedNs != 0) {
+                    metrics.depWait.record(now - job.parkedNs);
+                    job.parkedNs = 0;
                 }
 
-                if (closing.get()) return;
+                while (true) {
+                    if (closing.get()) return;
+
+                    GenStage stage = job.stage;
+                    if (stage.generator) {
+                        if (!generator.runStage(job, this::resume)) return; // parked
+                        continue;
+                    }
+
+                    long t0 = System.nanoTime();
+                    switch (stage) {
+                        case LOAD:
+                            job.blocks = chunkIO.tryLoad(c.cx, c.cz, Chunk.SX, Chunk.SY, Chunk.SZ);
+                            job.loaded = job.blocks != null;
+                            break;
+                        case LIGHT:
+                            job.emitters = ChunkEmitters.scan(job.blocks, lightCaches);
+                            break;
+                        case READY:
+                            publish();
+                            break;
+                        default:
+                            throw new IllegalStateException("unhandled stage: " + stage);
+                    }
+                    long t1 = System.nanoTime();
+                    metrics.record(stage, t1 - t0);
+
+                    if (stage == GenStage.READY) {
+                        metrics.total.record(t1 - job.submitNs);
+                        return;
+                    }
+                    job.stage = (stage == GenStage.LOAD && job.loaded) ? GenStage.LIGHT : stage.next();
+                }
+            } catch (Throwable ex) {
+                ex.printStackTrace();
+            }
+        }
 
-                System.arraycopy(loaded, 0, c.blocks, 0, c.blocks.length);
+        private void resume() {
+            safeSubmitIO(this);
+        }
 
-                c.dirtyBlocks = false;
-                c.savedRevision = c.saveRevision;
-                c.status = Chunk.Status.READY;
+        private void publish() {
+            System.arraycopy(job.blocks, 0, c.blocks, 0, c.blocks.length);
+            c.emitters = job.emitters;
 
-                c.dirtyMesh = true;
+            c.dirtyBlocks = false;
+            c.savedRevision = c.saveRevision;
+            c.status = Chunk.Status.READY;
 
-                if (onChunkReady != null) onChunkReady.accept(c);
+            c.dirtyMesh = true;
 
-            } catch (Throwable ex) {
-                ex.printStackTrace();
-            }
-        });
+            if (onChunkReady != null) onChunkReady.accept(c);
+        }
     }
-    
+
     public void pumpChunkSavesDelayed() {
         if (closing.get()) return;
 
@@ -135,13 +240,14 @@ public class ChunkIOSystem {
         if (!c.saveQueued.compareAndSet(false, true)) return;
 
         final int rev = c.saveRevision;
-        final int cx = c.cx, cz = c.cz;
-        final byte[] snapshot = Arrays.copyOf(c.blocks, c.blocks.length);
+        final PendingSave p = enqueuePending(c);
 
         safeSubmitIO(() -> {
             try {
-                chunkIO.save(cx, cz, Chunk.SX, Chunk.SY, Chunk.SZ, snapshot);
-                c.savedRevision = rev;
+                if (writeTracked(p)) {
+                    c.savedRevision = rev;
+                    pendingSaves.remove(ChunkKey.pack(p.cx, p.cz), p);
+                }
             } catch (Throwable ex) {
                 ex.printStackTrace();
             } finally {
@@ -154,54 +260,138 @@ public class ChunkIOSystem {
         if (c == null) return;
         if (!c.dirtyBlocks) return;
 
-        final int cx = c.cx, cz = c.cz;
-        final byte[] snapshot = Arrays.copyOf(c.blocks, c.blocks.length);
+        final PendingSave p = enqueuePending(c);
 
         if (closing.get() || executor.isShutdown()) {
-            try {
-                chunkIO.save(cx, cz, Chunk.SX, Chunk.SY, Chunk.SZ, snapshot);
-            } catch (Throwable ex) {
-                ex.printStackTrace();
-            }
+            // shutdown flush owns pending snapshots from here on
             return;
         }
 
         safeSubmitIO(() -> {
             try {
-                chunkIO.save(cx, cz, Chunk.SX, Chunk.SY, Chunk.SZ, snapshot);
+                if (writeTracked(p)) {
+                    pendingSaves.remove(ChunkKey.pack(p.cx, p.cz), p);
+                }
             } catch (Throwable ex) {
                 ex.printStackTrace();
             }
         });
     }
 
-    public void forceSaveSync(Chunk c) {
-        if (c == null) return;
-        if (!c.dirtyBlocks) return;
+    private boolean writeTracked(PendingSave p) {
+        long key = ChunkKey.pack(p.cx, p.cz);
+        writing.merge(key, 1, Integer::sum);
         try {
-            chunkIO.save(c.cx, c.cz, Chunk.SX, Chunk.SY, Chunk.SZ, c.blocks);
-            c.dirtyBlocks = false;
-            c.savedRevision = c.saveRevision;
-        } catch (Throwable ex) {
-            ex.printStackTrace();
+            return chunkIO.save(p.cx, p.cz, Chunk.SX, Chunk.SY, Chunk.SZ, p.snapshot);
+        } finally {
+            writing.computeIfPresent(key, (k, n) -> n > 1 ? n - 1 : null);
         }
     }
 
+    private PendingSave enqueuePending(Chunk c) {
+        PendingSave p = new PendingSave(c.cx, c.cz, Arrays.copyOf(c.blocks, c.blocks.length));
+        // newer snapshot of the same chunk supersedes an older queued one
+        pendingSaves.put(ChunkKey.pack(c.cx, c.cz), p);
+        return p;
+    }
+
     public void beginShutdown() {
         closing.set(true);
     }
 
-    public void shutdownExecutorsGracefully() {
+    /**
+     * Shutdown flush (render thread, after mesh workers stopped):
+     * - queued IO tasks are dropped; in-flight writes get to finish
+     * - every pending snapshot + every dirty READY chunk is compressed and written in parallel
+     * - stops waiting at deadlineMs; returns "cx,cz" of chunks that were not persisted
+     */
+    public List<String> flushAllOnShutdown(long deadlineMs) {
         beginShutdown();
 
-        if (executor != null) {
-            executor.shutdown();
-            try {
-                executor.awaitTermination(800, TimeUnit.MILLISECONDS);
-            } catch (InterruptedException ignored) {
-            } finally {
-                executor.shutdownNow();
-            }
+        long t0 = System.currentTimeMillis();
+        long deadline = t0 + Math.max(1L, deadlineMs);
+
+        // queued tasks never start: their snapshots are still in pendingSaves
+        executor.getQueue().clear();
+        executor.shutdown();
+        awaitUntil(executor, deadline);
+
+        // pending first, then live chunks override with the newest contents
+        HashMap<Long, PendingSave> jobs = new HashMap<>(pendingSaves);
+        HashMap<Long, Chunk> owners = new HashMap<>();
+        for (Chunk c : store.chunksMap().values()) {
+            if (c == null || !c.isReady() || !c.dirtyBlocks) continue;
+            if (c.savedRevision == c.saveRevision) continue; // already written by the executor
+            long key = ChunkKey.pack(c.cx, c.cz);
+            jobs.put(key, new PendingSave(c.cx, c.cz, Arrays.copyOf(c.blocks, c.blocks.length)));
+            owners.put(key, c);
+        }
+
+        List<String> failed = Collections.synchronizedList(new ArrayList<>());
+
+        // an executor write that outlived the wait still owns its chunk: a second writer could land first and
+        // then be replaced by the older snapshot, so these are reported as not persisted instead of re-flushed
+        for (Long key : writing.keySet()) {
+            PendingSave p = jobs.remove(key);
+            owners.remove(key);
+            if (p != null) failed.add(p.cx + "," + p.cz + " (write still running)");
+        }
+        final int running = failed.size();
+
+        if (jobs.isEmpty()) {
+            executor.shutdownNow();
+            return failed;
+        }
+
+        int threads = Math.max(1, Math.min(jobs.size(), Runtime.getRuntime().availableProcessors()));
+        AtomicInteger threadId = new AtomicInteger();
+        ExecutorService flush = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "save-flush-" + threadId.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        ConcurrentHashMap<Long, Boolean> written = new ConcurrentHashMap<>();
+        for (Map.Entry<Long, PendingSave> e : jobs.entrySet()) {
+            final long key = e.getKey();
+            final PendingSave p = e.getValue();
+            final Chunk owner = owners.get(key);
+            final int rev = owner != null ? owner.saveRevision : 0;
+
+            flush.execute(() -> {
+                if (chunkIO.save(p.cx, p.cz, Chunk.SX, Chunk.SY, Chunk.SZ, p.snapshot)) {
+                    pendingSaves.remove(key);
+                    if (owner != null) {
+                        owner.savedRevision = rev;
+                        owner.dirtyBlocks = false;
+                    }
+                    written.put(key, Boolean.TRUE);
+                }
+            });
+        }
+
+        flush.shutdown();
+        awaitUntil(flush, deadline);
+        flush.shutdownNow();
+        executor.shutdownNow();
+
+        for (PendingSave p : jobs.values()) {
+            if (!written.containsKey(ChunkKey.pack(p.cx, p.cz))) failed.add(p.cx + "," + p.cz);
+        }
+
+        // a write still running past the deadline is reported as lost (its tmp file never replaces the old one)
+        System.out.println("[ChunkIO] shutdown flush: " + (jobs.size() - (failed.size() - running)) + "/" + jobs.size()
+            + " chunks (" + running + " skipped, write still running) in " + (System.currentTimeMillis() - t0) + " ms on " + threads + " threads");
+        return failed;
+    }
+
+    private static void awaitUntil(ExecutorService ex, long deadline) {
+        long left = deadline - System.currentTimeMillis();
+        if (left <= 0) return;
+        try {
+            ex.awaitTermination(left, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
         }
     }
 
@@ -2,9 +2,11 @@ package com.atom.life.world;
 
 import com.atom.life.mesh.ChunkMesher;
 import com.atom.life.mesh.ChunkMeshData;
+import com.atom.life.render.ChunkLightTexture;
 import com.badlogic.gdx.graphics.VertexAttributes;
 import com.badlogic.gdx.utils.Array;
 
+import java.nio.ShortBuffer;
 import java.util.PriorityQueue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -27,8 +29,20 @@ public class MeshSystem {
 
     private final ConcurrentLinkedQueue<MeshUpload> uploadQueue = new ConcurrentLinkedQueue<>();
 
+    // light texture mode: light changes are texture uploads, meshes only change with blocks
+    private final boolean lightTextures;
+    private final ConcurrentLinkedQueue<Chunk> lightUploadQueue = new ConcurrentLinkedQueue<>();
+    private ShortBuffer lightUploadBuffer;
+    private static final int LIGHT_UPLOADS_PER_FRAME = 16;
+
     private final AtomicBoolean closing = new AtomicBoolean(false);
 
+    // stats: meshes built, light textures uploaded, block edit -> result on screen
+    private final AtomicLong meshesBuilt = new AtomicLong(0);
+    private long lightUploads = 0;
+    private volatile long lastVisibleLatencyNs = 0;
+    private volatile long maxVisibleLatencyNs = 0;
+
     // player chunk for priority
     private volatile int playerCx = 0;
     private volatile int playerCz = 0;
@@ -131,11 +145,13 @@ public class MeshSystem {
         }
     }
 
-    public MeshSystem(ChunkStore store, ChunkMesher mesher, BlockAccess access, VertexAttributes vertexAttributes) {
+    public MeshSystem(ChunkStore store, ChunkMesher mesher, BlockAccess access, VertexAttributes vertexAttributes,
+                      boolean lightTextures) {
         this.store = store;
         this.mesher = mesher;
         this.access = access;
         this.vertexAttributes = vertexAttributes;
+        this.lightTextures = lightTextures;
 
         int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
 
@@ -159,6 +175,26 @@ public class MeshSystem {
         return uploadQueue.size();
     }
 
+    public boolean usesLightTextures() {
+        return lightTextures;
+    }
+
+    public long getMeshesBuilt() {
+        return meshesBuilt.get();
+    }
+
+    public long getLightUploads() {
+        return lightUploads;
+    }
+
+    public float getLastVisibleLatencyMs() {
+        return lastVisibleLatencyNs / 1e6f;
+    }
+
+    public float getMaxVisibleLatencyMs() {
+        return maxVisibleLatencyNs / 1e6f;
+    }
+
     public void setPlayerChunk(int cx, int cz) {
         playerCx = cx;
         playerCz = cz;
@@ -172,6 +208,12 @@ public class MeshSystem {
         requestRemeshForceNeighbor(c.cx - 1, c.cz);
         requestRemeshForceNeighbor(c.cx, c.cz + 1);
         requestRemeshForceNeighbor(c.cx, c.cz - 1);
+
+        // neighbors' texture borders hold this chunk's edge cells
+        if (lightTextures) {
+            requestLightUpload(c);
+            requestLightUploadNeighbors(c);
+        }
     }
 
     private void requestRemeshForceNeighbor(int cx, int cz) {
@@ -185,7 +227,9 @@ public class MeshSystem {
         if (c == null) return;
         c.meshRevision++;
         c.remeshQueued.set(false);
+        c.lightUploadQueued.set(false);
         c.dirtyMesh = false;
+        c.editPendingNs = 0;
     }
 
     public void requestRemesh(Chunk c) {
@@ -223,6 +267,30 @@ public class MeshSystem {
         }
     }
 
+    /** Light texture mode: re-upload c's light texture (no remesh). */
+    public void requestLightUpload(Chunk c) {
+        if (closing.get()) return;
+        if (c == null || !c.isReady()) return;
+
+        if (c.lightUploadQueued.compareAndSet(false, true)) {
+            lightUploadQueue.add(c);
+        }
+    }
+
+    /** Light texture mode: the 4 neighbors, whose texture borders hold c's edge cells. */
+    public void requestLightUploadNeighbors(Chunk c) {
+        requestLightUpload(store.getOrNull(c.cx + 1, c.cz));
+        requestLightUpload(store.getOrNull(c.cx - 1, c.cz));
+        requestLightUpload(store.getOrNull(c.cx, c.cz + 1));
+        requestLightUpload(store.getOrNull(c.cx, c.cz - 1));
+    }
+
+    /** A block edit queued at queuedNs changed c: latency is recorded once its meshes / light are on screen. */
+    public void markEditPending(Chunk c, long queuedNs) {
+        long cur = c.editPendingNs;
+        if (cur == 0 || queuedNs < cur) c.editPendingNs = queuedNs;
+    }
+
     public void rescheduleDirtyNear(int radius, int budget) {
         if (closing.get()) return;
         int r2 = radius * radius;
@@ -282,11 +350,12 @@ public class MeshSystem {
             }
 
             ChunkMeshData md = mesher.buildMesh(c, access);
+            meshesBuilt.incrementAndGet();
 
-            if (closing.get()) return;
-            if (c.status != Chunk.Status.READY) return;
-
-            if (c.meshRevision != revAtStart) return;
+            if (closing.get() || c.status != Chunk.Status.READY || c.meshRevision != revAtStart) {
+                mesher.recycle(md);
+                return;
+            }
 
             c.dirtyMesh = false;
             uploadQueue.add(new MeshUpload(t.key, revAtStart, md));
@@ -313,26 +382,85 @@ public class MeshSystem {
         int limit = 32;
 
         while (limit-- > 0 && (u = uploadQueue.poll()) != null) {
-            Chunk c = store.getByKey(u.key);
-            if (c == null || c.status != Chunk.Status.READY) continue;
-
-            if (c.meshRevision != u.rev) {
-                if (c.dirtyMesh) requestRemesh(c);
-                continue;
+            try {
+                applyUpload(u);
+            } finally {
+                // copied into the chunk's meshes (or dropped): its buffers go back to the mesher
+                mesher.recycle(u.meshData);
             }
+        }
 
-            if (u.meshData != null) {
-                c.applyMeshDataOpaque(u.meshData.opaque, vertexAttributes);
-                c.applyMeshDataAlpha(u.meshData.alpha, vertexAttributes);
-            } else {
-                c.applyMeshDataOpaque(null, vertexAttributes);
-                c.applyMeshDataAlpha(null, vertexAttributes);
-            }
+        if (lightTextures) pumpLightUploads();
+    }
 
-            c.dirtyMesh = false;
+    private void applyUpload(MeshUpload u) {
+        Chunk c = store.getByKey(u.key);
+        if (c == null || c.status != Chunk.Status.READY) return;
 
+        if (c.meshRevision != u.rev) {
             if (c.dirtyMesh) requestRemesh(c);
+            return;
         }
+
+        if (u.meshData != null) {
+            c.applyMeshDataOpaque(u.meshData.opaque, vertexAttributes);
+            c.applyMeshDataAlpha(u.meshData.alpha, vertexAttributes);
+        } else {
+            c.applyMeshDataOpaque(null, vertexAttributes);
+            c.applyMeshDataAlpha(null, vertexAttributes);
+        }
+
+        c.dirtyMesh = false;
+
+        // a mesh never shows without its light
+        if (lightTextures && c.lightTexture == null) uploadLight(c);
+
+        checkEditVisible(c);
+
+        if (c.dirtyMesh) requestRemesh(c);
+    }
+
+    private void pumpLightUploads() {
+        Chunk c;
+        int limit = LIGHT_UPLOADS_PER_FRAME;
+
+        while (limit-- > 0 && (c = lightUploadQueue.poll()) != null) {
+            // cleared before reading Chunk.light: a request arriving meanwhile queues a fresh upload
+            c.lightUploadQueued.set(false);
+            if (c.status != Chunk.Status.READY) continue;
+
+            uploadLight(c);
+            checkEditVisible(c);
+        }
+    }
+
+    private void uploadLight(Chunk c) {
+        if (lightUploadBuffer == null) lightUploadBuffer = ChunkLightTexture.newUploadBuffer();
+        if (c.lightTexture == null) c.lightTexture = new ChunkLightTexture();
+
+        ChunkLightTexture.pack(c,
+            readyOrNull(c.cx + 1, c.cz), readyOrNull(c.cx - 1, c.cz),
+            readyOrNull(c.cx, c.cz + 1), readyOrNull(c.cx, c.cz - 1),
+            lightUploadBuffer);
+        c.lightTexture.upload(lightUploadBuffer);
+        lightUploads++;
+    }
+
+    private Chunk readyOrNull(int cx, int cz) {
+        Chunk n = store.getOrNull(cx, cz);
+        return (n != null && n.isReady()) ? n : null;
+    }
+
+    /** Edit-to-visible latency: the edited chunk has nothing left queued for the GPU. */
+    private void checkEditVisible(Chunk c) {
+        long queued = c.editPendingNs;
+        if (queued == 0) return;
+        if (c.remeshQueued.get() || c.meshBuilding || c.lightUploadQueued.get()) return;
+
+        c.editPendingNs = 0;
+        long lat = System.nanoTime() - queued;
+        lastVisibleLatencyNs = lat;
+        if (lat > maxVisibleLatencyNs) maxVisibleLatencyNs = lat;
     }
 
     public void shutdownStopWorkers() {
@@ -0,0 +1,10 @@
+package com.atom.life.world;
+
+/**
+ * Optional chunk access for mesher (no change to BlockAccess public API):
+ * lets a build copy neighbor edges in bulk instead of reading them cell by cell.
+ */
+public interface MesherChunkAccess {
+    /** the chunk at chunk coords (cx, cz) if it is loaded and READY, else null */
+    Chunk getReadyChunk(int cx, int cz);
+}
@@ -4,6 +4,6 @@ package com.atom.life.world;
  * Optional light access for mesher (no change to BlockAccess public API).
  */
 public interface MesherLightAccess {
-    /** returns block light level in [0..7] */
-    byte getBlockLight(int wx, int wy, int wz);
+    /** returns packed light (see Chunk.light): block light R, G, B [0..7] in bits 0..11, sky light [0..15] in bits 12..15 */
+    short getLight(int wx, int wy, int wz);
 }
@@ -29,21 +29,26 @@ public class PerlinNoise {
         return a + t * (b - a);
     }
 
+    // 8 directions as (+-1, +-1) factors on (x, y): branch-free, same bits as the
+    // original (h < 4 ? x : y) / sign-bit selection (sums commute, *+-1 is exact)
+    private static final float[] GX = { 1f, -1f,  1f, -1f,  1f,  1f, -1f, -1f };
+    private static final float[] GY = { 1f,  1f, -1f, -1f,  1f, -1f,  1f, -1f };
+
     private static float grad(int hash, float x, float y) {
-        // 8 directions
         int h = hash & 7;
-        float u = (h < 4) ? x : y;
-        float v = (h < 4) ? y : x;
-        return (((h & 1) == 0) ? u : -u) + (((h & 2) == 0) ? v : -v);
+        return GX[h] * x + GY[h] * y;
     }
 
     // returns roughly [-1,1]
     public float noise(float x, float y) {
-        int X = ((int) Math.floor(x)) & 255;
-        int Y = ((int) Math.floor(y)) & 255;
+        int xi = floorInt(x);
+        int yi = floorInt(y);
+
+        int X = xi & 255;
+        int Y = yi & 255;
 
-        float xf = x - (float) Math.floor(x);
-        float yf = y - (float) Math.floor(y);
+        float xf = x - floorFloat(x, xi);
+        float yf = y - floorFloat(y, yi);
 
         float u = fade(xf);
         float v = fade(yf);
@@ -59,6 +64,58 @@ public class PerlinNoise {
         return lerp(x1, x2, v);
     }
 
+    /**
+     * floor(x) as int; identical to (int) Math.floor(x).
+     * Below 2^23 the cast path is exact (floats there may have a fraction); beyond, floats are integers anyway.
+     */
+    private static int floorInt(float x) {
+        if (x > -8388608f && x < 8388608f) {
+            int i = (int) x;
+            return (x < i) ? i - 1 : i;
+        }
+        return (int) Math.floor(x);
+    }
+
+    /** (float) Math.floor(x), given xi = floorInt(x). */
+    private static float floorFloat(float x, int xi) {
+        if (x > -8388608f && x < 8388608f) return (float) xi;
+        return (float) Math.floor(x);
+    }
+
+    /**
+     * acc[i] += noise(xs[i] * freq, y) * amp for i in [0, n).
+     * Row-wise: everything that depends on y is done once per row.
+     */
+    private void noiseRowAdd(float[] xs, int n, float freq, float y, float amp, float[] acc) {
+        int yi = floorInt(y);
+        int Y = yi & 255;
+        float yf = y - floorFloat(y, yi);
+        float yf1 = yf - 1;
+        float v = fade(yf);
+
+        for (int i = 0; i < n; i++) {
+            float x = xs[i] * freq;
+            int xi = floorInt(x);
+            int X = xi & 255;
+            float xf = x - floorFloat(x, xi);
+            float xf1 = xf - 1;
+            float u = fade(xf);
+
+            int pX = p[X];
+            int pX1 = p[X + 1];
+
+            int aa = p[pX + Y];
+            int ab = p[pX + Y + 1];
+            int ba = p[pX1 + Y];
+            int bb = p[pX1 + Y + 1];
+
+            float x1 = lerp(grad(aa, xf, yf),  grad(ba, xf1, yf),  u);
+            float x2 = lerp(grad(ab, xf, yf1), grad(bb, xf1, yf1), u);
+
+            acc[i] += lerp(x1, x2, v) * amp;
+        }
+    }
+
     // Fractal Brownian Motion
     public float fbm(float x, float y, int octaves, float lacunarity, float gain) {
         float amp = 1f;
@@ -74,5 +131,147 @@ public class PerlinNoise {
         }
         return sum / norm; // normalize to [-1,1] roughly
     }
-}
 
+    /**
+     * Batched fbm along a row: out[i] = fbm(xs[i], y, ...) bit-for-bit, for i in [0, n).
+     * Same per-point operation order as fbm(), so seeds keep producing the same terrain.
+     */
+    public void fbmRow(float[] xs, int n, float y, int octaves, float lacunarity, float gain, float[] out) {
+        for (int i = 0; i < n; i++) out[i] = 0f;
+
+        float amp = 1f;
+        float freq = 1f;
+        float norm = 0f;
+
+        for (int o = 0; o < octaves; o++) {
+            noiseRowAdd(xs, n, freq, y * freq, amp, out);
+            norm += amp;
+            amp *= gain;
+            freq *= lacunarity;
+        }
+
+        for (int i = 0; i < n; i++) out[i] = out[i] / norm;
+    }
+
+    /**
+     * Batched fbm over a grid: out[j * w + i] = fbm(xs[i], ys[j], ...) for i in [0, w), j in [0, h).
+     * row is scratch of length >= w.
+     */
+    public void fbmGrid(float[] xs, int w, float[] ys, int h,
+                        int octaves, float lacunarity, float gain,
+                        float[] row, float[] out) {
+        for (int j = 0; j < h; j++) {
+            fbmRow(xs, w, ys[j], octaves, lacunarity, gain, row);
+            System.arraycopy(row, 0, out, j * w, w);
+        }
+    }
+
+    // 12 cube-edge directions (+ 4 repeats to fill 16), improved-noise gradient set
+    private static final float[] GX3 = { 1f, -1f,  1f, -1f,  1f, -1f,  1f, -1f,  0f,  0f,  0f,  0f,  1f, -1f,  0f,  0f };
+    private static final float[] GY3 = { 1f,  1f, -1f, -1f,  0f,  0f,  0f,  0f,  1f, -1f,  1f, -1f,  1f,  1f, -1f, -1f };
+    private static final float[] GZ3 = { 0f,  0f,  0f,  0f,  1f,  1f, -1f, -1f,  1f,  1f, -1f, -1f,  0f,  0f,  1f, -1f };
+
+    private static float grad3(int hash, float x, float y, float z) {
+        int h = hash & 15;
+        return GX3[h] * x + GY3[h] * y + GZ3[h] * z;
+    }
+
+    /** 3D noise, roughly [-1,1]. */
+    public float noise3(float x, float y, float z) {
+        int xi = floorInt(x);
+        int yi = floorInt(y);
+        int zi = floorInt(z);
+
+        int X = xi & 255;
+        int Y = yi & 255;
+        int Z = zi & 255;
+
+        float xf = x - floorFloat(x, xi);
+        float yf = y - floorFloat(y, yi);
+        float zf = z - floorFloat(z, zi);
+
+        float u = fade(xf);
+        float v = fade(yf);
+        float w = fade(zf);
+
+        int a = p[X] + Y, aa = p[a] + Z, ab = p[a + 1] + Z;
+        int b = p[X + 1] + Y, ba = p[b] + Z, bb = p[b + 1] + Z;
+
+        float x1 = lerp(grad3(p[aa], xf, yf, zf),         grad3(p[ba], xf - 1, yf, zf),         u);
+        float x2 = lerp(grad3(p[ab], xf, yf - 1, zf),     grad3(p[bb], xf - 1, yf - 1, zf),     u);
+        float x3 = lerp(grad3(p[aa + 1], xf, yf, zf - 1), grad3(p[ba + 1], xf - 1, yf, zf - 1), u);
+        float x4 = lerp(grad3(p[ab + 1], xf, yf - 1, zf - 1), grad3(p[bb + 1], xf - 1, yf - 1, zf - 1), u);
+
+        return lerp(lerp(x1, x2, v), lerp(x3, x4, v), w);
+    }
+
+    /** 3D Fractal Brownian Motion, normalized like fbm(). */
+    public float fbm3(float x, float y, float z, int octaves, float lacunarity, float gain) {
+        float amp = 1f;
+        float freq = 1f;
+        float sum = 0f;
+        float norm = 0f;
+
+        for (int i = 0; i < octaves; i++) {
+            sum += noise3(x * freq, y * freq, z * freq) * amp;
+            norm += amp;
+            amp *= gain;
+            freq *= lacunarity;
+        }
+        return sum / norm;
+    }
+
+    /** acc[i] += noise3(xs[i] * freq, y, z) * amp for i in [0, n); y / z work done once per row. */
+    private void noise3RowAdd(float[] xs, int n, float freq, float y, float z, float amp, float[] acc) {
+        int yi = floorInt(y);
+        int zi = floorInt(z);
+        int Y = yi & 255;
+        int Z = zi & 255;
+        float yf = y - floorFloat(y, yi);
+        float zf = z - floorFloat(z, zi);
+        float yf1 = yf - 1, zf1 = zf - 1;
+        float v = fade(yf);
+        float w = fade(zf);
+
+        for (int i = 0; i < n; i++) {
+            float x = xs[i] * freq;
+            int xi = floorInt(x);
+            int X = xi & 255;
+            float xf = x - floorFloat(x, xi);
+            float xf1 = xf - 1;
+            float u = fade(xf);
+
+            int a = p[X] + Y, aa = p[a] + Z, ab = p[a + 1] + Z;
+            int b = p[X + 1] + Y, ba = p[b] + Z, bb = p[b + 1] + Z;
+
+            float x1 = lerp(grad3(p[aa], xf, yf, zf),      grad3(p[ba], xf1, yf, zf),      u);
+            float x2 = lerp(grad3(p[ab], xf, yf1, zf),     grad3(p[bb], xf1, yf1, zf),     u);
+            float x3 = lerp(grad3(p[aa + 1], xf, yf, zf1), grad3(p[ba + 1], xf1, yf, zf1), u);
+            float x4 = lerp(grad3(p[ab + 1], xf, yf1, zf1), grad3(p[bb + 1], xf1, yf1, zf1), u);
+
+            acc[i] += lerp(lerp(x1, x2, v), lerp(x3, x4, v), w) * amp;
+        }
+    }
+
+    /**
+     * Batched 3D fbm along x: out[off + i] = fbm3(xs[i], y, z, ...) bit-for-bit, for i in [0, n).
+     * row is scratch of length >= n.
+     */
+    public void fbm3Row(float[] xs, int n, float y, float z, int octaves, float lacunarity, float gain,
+                        float[] row, float[] out, int off) {
+        for (int i = 0; i < n; i++) row[i] = 0f;
+
+        float amp = 1f;
+        float freq = 1f;
+        float norm = 0f;
+
+        for (int o = 0; o < octaves; o++) {
+            noise3RowAdd(xs, n, freq, y * freq, z * freq, amp, row);
+            norm += amp;
+            amp *= gain;
+            freq *= lacunarity;
+        }
+
+        for (int i = 0; i < n; i++) out[off + i] = row[i] / norm;
+    }
+}
@@ -0,0 +1,44 @@
+package com.atom.life.world;
+
+import com.atom.life.world.blocks.ShapeTemplate;
+
+/**
+ * Ray vs. a non-cube block, from its ShapeTemplate (the same faces the mesher emits).
+ * Cell-local: the block occupies [0,1]^3.
+ */
+final class ShapeIntersector {
+
+    private static final ThreadLocal<RaycastMath.Interval> INTERVAL_TL =
+        ThreadLocal.withInitial(RaycastMath.Interval::new);
+
+    static boolean intersectShapeLocalFast(ShapeTemplate shape,
+                                           float ox, float oy, float oz,
+                                           float dx, float dy, float dz,
+                                           float invDx, float invDy, float invDz,
+                                           float tEnter, float tExit,
+                                           SlopeScratch.SlopeHit outHit) {
+
+        RaycastMath.Interval itv = INTERVAL_TL.get();
+        if (!RaycastMath.intersectAABB01Inv(
+            ox, oy, oz,
+            dx, dy, dz,
+            invDx, invDy, invDz,
+            tEnter, tExit,
+            itv
+        )) {
+            return false;
+        }
+
+        float tMin = itv.t0;
+        float tMax = itv.t1;
+
+        for (ShapeTemplate.Face f : shape.faces) {
+            float t = f.intersect(ox, oy, oz, dx, dy, dz, tMin, tMax);
+            if (t == t) outHit.updateIfCloser(t, f.hitNx, f.hitNy, f.hitNz);
+        }
+
+        return outHit.hit;
+    }
+
+    private ShapeIntersector() {}
+}
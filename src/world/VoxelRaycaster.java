@@ -1,5 +1,6 @@
 package com.atom.life.world;
 
+import com.atom.life.world.blocks.ShapeTemplate;
 import com.badlogic.gdx.math.Vector3;
 public final class VoxelRaycaster {
 
@@ -33,9 +34,9 @@ public final class VoxelRaycaster {
 
             final byte id = world.getBlock(st.x, st.y, st.z);
             if (id != 0) {
-//                final int ii = id & 0xFF;
-
-                if (!world.getBlockName(id).toLowerCase().contains("slope")) {
+                // cubes (no template) are hit on entry
+                final ShapeTemplate shape = world.getShapeTemplate(id);
+                if (shape == null) {
                     out.set(st.x, st.y, st.z, st.nx, st.ny, st.nz, st.t);
                     return true;
                 }
@@ -51,13 +52,13 @@ public final class VoxelRaycaster {
                 SlopeScratch.SlopeHit sh = SlopeScratch.get();
                 sh.reset();
 
-                if (SlopeIntersector.intersectSlopeLocalFast(
-                    id,
+                if (ShapeIntersector.intersectShapeLocalFast(
+                    shape,
                     rox, roy, roz,
                     dx, dy, dz,
                     st.invDx, st.invDy, st.invDz,
                     tEnter, tExit,
-                    sh, world
+                    sh
                 )) {
                     out.set(st.x, st.y, st.z, sh.nx, sh.ny, sh.nz, sh.t);
                     return true;
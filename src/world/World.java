@@ -4,9 +4,12 @@ import com.atom.life.GlobalVariables;
 import com.atom.life.data.WorldIO;
 import com.atom.life.world.blocks.BlockDef;
 import com.atom.life.world.blocks.BlockRegistry;
+import com.atom.life.world.blocks.ShapeTemplate;
 import com.atom.life.mesh.ChunkMesher;
 import com.atom.life.render.BlockAtlas;
+import com.atom.life.render.ChunkLightTexture;
 import com.atom.life.world.circuit.CircuitSystem;
+import com.atom.life.world.gen.GenMetrics;
 import com.atom.life.world.light.BlockLightSystem;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
@@ -14,11 +17,12 @@ import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.LongArray;
 
+import java.util.List;
 import java.util.Set;
 
 import static com.atom.life.GlobalVariables.*;
 
-public class World implements BlockAccess, MesherLightAccess {
+public class World implements BlockAccess, MesherLightAccess, MesherChunkAccess {
 
     private final long seed;
     private final int renderDistance;
@@ -35,6 +39,7 @@ public class World implements BlockAccess, MesherLightAccess {
     private final ChunkIOSystem ioSystem;
     private final MeshSystem meshSystem;
     private final CircuitSystem circuitSystem;
+    private final WorldPregenerator pregenerator;
 
     // player chunk
     private volatile int playerCx = 0;
@@ -58,21 +63,10 @@ public class World implements BlockAccess, MesherLightAccess {
         this.worldMode = info.worldMode;
         this.worldVersion = info.version;
 
+        // packed chunk vertex (see VertexWriter): 3 exact-integer floats, unpacked in BlockRenderer
         this.vertexAttributes = new com.badlogic.gdx.graphics.VertexAttributes(
             new com.badlogic.gdx.graphics.VertexAttribute(
-                com.badlogic.gdx.graphics.VertexAttributes.Usage.Position, 3, "a_position"
-            ),
-            new com.badlogic.gdx.graphics.VertexAttribute(
-                com.badlogic.gdx.graphics.VertexAttributes.Usage.Normal, 3, "a_normal"
-            ),
-            new com.badlogic.gdx.graphics.VertexAttribute(
-                com.badlogic.gdx.graphics.VertexAttributes.Usage.TextureCoordinates, 2, "a_localUV"
-            ),
-            new com.badlogic.gdx.graphics.VertexAttribute(
-                com.badlogic.gdx.graphics.VertexAttributes.Usage.Generic, 4, "a_atlasRect"
-            ),
-            new com.badlogic.gdx.graphics.VertexAttribute(
-                com.badlogic.gdx.graphics.VertexAttributes.Usage.Generic, 1, "a_emission"
+                com.badlogic.gdx.graphics.VertexAttributes.Usage.Generic, 3, "a_packed"
             )
         );
 
@@ -80,11 +74,14 @@ public class World implements BlockAccess, MesherLightAccess {
 
         this.ioSystem = new ChunkIOSystem(info, saveDir, store, registry);
 
-        ChunkMesher mesher = new ChunkMesher(registry, atlas);
-        this.meshSystem = new MeshSystem(store, mesher, this, vertexAttributes);
+        boolean lightTextures = ChunkLightTexture.enabled();
+        ChunkMesher mesher = new ChunkMesher(registry, atlas, lightTextures);
+        this.meshSystem = new MeshSystem(store, mesher, this, vertexAttributes, lightTextures);
 
         this.lightSystem = new BlockLightSystem(this, registry, store, meshSystem);
         this.circuitSystem = new CircuitSystem(this);
+
+        this.pregenerator = new WorldPregenerator(ioSystem.generator(), ioSystem.chunkIO(), saveDir, store);
     }
 
     public void tickCircuits(float dt) {
@@ -105,6 +102,13 @@ public class World implements BlockAccess, MesherLightAccess {
     public int getExecutorQueueSize() { return ioSystem.getExecutorQueueSize(); }
     public int getMeshQueueSize() { return meshSystem.getMeshQueueSize(); }
     public Array<Chunk> getRenderableChunks() { return store.getRenderableChunks(); }
+    public int getPlayerChunkX() { return playerCx; }
+    public int getPlayerChunkZ() { return playerCz; }
+
+    public WorldPregenerator getPregenerator() { return pregenerator; }
+    public GenMetrics getGenMetrics() { return ioSystem.genMetrics(); }
+    public BlockLightSystem getLightSystem() { return lightSystem; }
+    public MeshSystem getMeshSystem() { return meshSystem; }
 
     // ---- main update ----
     public void update(Vector3 playerPos) {
@@ -112,6 +116,7 @@ public class World implements BlockAccess, MesherLightAccess {
         playerCz = Math.floorDiv((int) Math.floor(playerPos.z), Chunk.SZ);
 
         meshSystem.setPlayerChunk(playerCx, playerCz);
+        lightSystem.setPlayerChunk(playerCx, playerCz);
 
         int r = renderDistance;
 
@@ -141,14 +146,8 @@ public class World implements BlockAccess, MesherLightAccess {
                 int dz = cz - playerCz;
                 if (dx * dx + dz * dz > r2) continue;
 
-                ioSystem.ensureChunkAsync(cx, cz, (readyChunk) -> {
-                    Gdx.app.postRunnable(() -> {
-                        if (readyChunk == null || !readyChunk.isReady()) return;
-
-                        lightSystem.onChunkReady(readyChunk);
-                        meshSystem.onChunkReady(readyChunk);
-                    });
-                });
+                // light worker lights the chunk, then hands it to MeshSystem
+                ioSystem.ensureChunkAsync(cx, cz, lightSystem::onChunkReady);
             }
         }
     }
@@ -195,6 +194,12 @@ public class World implements BlockAccess, MesherLightAccess {
         meshSystem.pumpMeshUploads();
     }
 
+    @Override
+    public Chunk getReadyChunk(int cx, int cz) {
+        Chunk c = store.getOrNull(cx, cz);
+        return (c != null && c.isReady()) ? c : null;
+    }
+
     @Override
     public byte getBlock(int wx, int wy, int wz) {
         if (wy < 0 || wy >= Chunk.SY) return 0;
@@ -227,35 +232,37 @@ public class World implements BlockAccess, MesherLightAccess {
 
         c.setLocal(lx, wy, lz, id);
 
+        // remesh (this chunk + border neighbors) is requested by the light worker once the light is updated
         lightSystem.onBlockChanged(wx, wy, wz, cur, id);
 
         circuitSystem.onBlockChanged(wx, wy, wz, cur, id);
 
-        meshSystem.requestRemesh(c);
-
-        if (lx == 0) forceNeighborMesh(cx - 1, cz);
-        if (lx == Chunk.SX - 1) forceNeighborMesh(cx + 1, cz);
-        if (lz == 0) forceNeighborMesh(cx, cz - 1);
-        if (lz == Chunk.SZ - 1) forceNeighborMesh(cx, cz + 1);
-
         return true;
     }
 
-    private void forceNeighborMesh(int cx, int cz) {
-        Chunk n = store.getOrNull(cx, cz);
-        if (n != null && n.isReady()) {
-            meshSystem.requestRemeshForce(n);
-        }
-    }
-
     public String getBlockName(byte id) {
         BlockDef d = registry.def(id);
         return d == null ? ("id=" + (id & 0xFF)) : d.name;
     }
 
+    /** Geometry of a non-cube block (slopes), or null for air and cubes. */
+    public ShapeTemplate getShapeTemplate(byte id) {
+        return registry.shapeTemplate(id);
+    }
+
+    /** Packed R, G, B block light levels (Chunk.RED_SHIFT / GREEN_SHIFT / BLUE_SHIFT). */
+    public int getBlockLight(int wx, int wy, int wz) {
+        return getLight(wx, wy, wz) & Chunk.BLOCK_LIGHT_MASK;
+    }
+
+    public int getSkyLight(int wx, int wy, int wz) {
+        return (getLight(wx, wy, wz) & 0xFFFF) >>> Chunk.SKY_LIGHT_SHIFT;
+    }
+
     @Override
-    public byte getBlockLight(int wx, int wy, int wz) {
-        if (wy < 0 || wy >= Chunk.SY) return 0;
+    public short getLight(int wx, int wy, int wz) {
+        if (wy >= Chunk.SY) return (short) (BlockLightSystem.MAX_SKY_LIGHT << Chunk.SKY_LIGHT_SHIFT);
+        if (wy < 0) return 0;
 
         int cx = Math.floorDiv(wx, Chunk.SX);
         int cz = Math.floorDiv(wz, Chunk.SZ);
@@ -301,18 +308,21 @@ public class World implements BlockAccess, MesherLightAccess {
 
     // ---- dispose ----
     public void dispose() {
+        pregenerator.cancelAndWait(2000);
+
         ioSystem.beginShutdown();
+        lightSystem.shutdown(1000);
         meshSystem.shutdownStopWorkers();
 
-        ioSystem.shutdownExecutorsGracefully();
+        List<String> unsaved = ioSystem.flushAllOnShutdown(GlobalVariables.shutdownSaveDeadlineMs);
+        if (!unsaved.isEmpty()) {
+            System.err.println("[World] " + unsaved.size() + " chunk(s) NOT saved before the "
+                + GlobalVariables.shutdownSaveDeadlineMs + " ms deadline: " + unsaved);
+        }
 
         for (Chunk c : store.chunksMap().values()) {
             if (c == null) continue;
 
-            if (c.dirtyBlocks && c.isReady()) {
-                ioSystem.forceSaveSync(c);
-            }
-
             c.disposeGpu();
             c.status = Chunk.Status.UNLOADED;
         }
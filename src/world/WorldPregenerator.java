@@ -0,0 +1,372 @@
+package com.atom.life.world;
+
+import com.atom.life.data.PregenState;
+import com.atom.life.data.WorldIO;
+import com.atom.life.io.ChunkIO;
+import com.atom.life.io.CwdFiles;
+import com.atom.life.world.blocks.BlockRegistry;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Generates + saves every chunk in a radius without touching the render ChunkStore.
+ * - chunks are processed nearest-first in fixed-size batches on a fork-join pool
+ * - pregen.json checkpoints the finished prefix so a job resumes after interruption
+ * - chunks that already have a file (or are loaded in the live store) are skipped; the write itself is
+ *   ChunkIO.saveIfAbsent, so a chunk the game saved while pregen worked on it is never overwritten
+ * - a batch with failed chunks is not checkpointed: the job stops there and 'pregen resume' retries it
+ *
+ * Block light is not persisted by ChunkIO (it is rebuilt on chunk ready), so pregen stops at save.
+ *
+ * Headless, from the assets directory (blocks.json, structures/), for an existing world:
+ *   java -cp Atom.jar com.atom.life.world.WorldPregenerator saves/World <radius> [--center cx cz]
+ *   java -cp Atom.jar com.atom.life.world.WorldPregenerator saves/World resume
+ */
+public final class WorldPregenerator {
+
+    private static final int BATCH = 64;
+    private static final int SPLIT_THRESHOLD = 4;
+    private static final long REPORT_INTERVAL_MS = 2000;
+
+    private final ChunkGenerator generator;
+    private final ChunkIO chunkIO;
+    private final FileHandle saveDir;
+    private final ChunkStore liveStore; // may be null (headless)
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicBoolean cancelRequested = new AtomicBoolean(false);
+
+    // progress (read by status from any thread)
+    private final AtomicInteger generated = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile int total = 0;
+    private volatile int completed = 0;
+    private volatile long startMs = 0;
+
+    private volatile Thread driver;
+
+    public WorldPregenerator(ChunkGenerator generator, ChunkIO chunkIO, FileHandle saveDir, ChunkStore liveStore) {
+        this.generator = generator;
+        this.chunkIO = chunkIO;
+        this.saveDir = saveDir;
+        this.liveStore = liveStore;
+    }
+
+    /** Headless entry: no World / render thread required. */
+    public static WorldPregenerator headless(FileHandle saveDir, BlockRegistry registry) {
+        WorldIO info = WorldIO.loadOrCreate(saveDir);
+        ChunkGenerator gen = new ChunkGenerator(info, registry);
+        return new WorldPregenerator(gen, new ChunkIO(saveDir), saveDir, null);
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /** Pending checkpoint from an interrupted job, or null. */
+    public PregenState pendingCheckpoint() {
+        return PregenState.loadOrNull(saveDir);
+    }
+
+    /**
+     * Start (or resume, if pregen.json matches) a job on a background driver thread.
+     * log receives progress lines from non-render threads.
+     */
+    public boolean start(int centerCx, int centerCz, int radius, Consumer<String> log) {
+        if (radius < 0) return false;
+        if (!running.compareAndSet(false, true)) return false;
+
+        cancelRequested.set(false);
+
+        Thread t = new Thread(() -> {
+            try {
+                runJob(centerCx, centerCz, radius, log);
+            } catch (Throwable ex) {
+                ex.printStackTrace();
+                emit(log, "pregen: Failed: " + ex);
+            } finally {
+                running.set(false);
+                driver = null;
+            }
+        }, "pregen-driver");
+        t.setDaemon(true);
+        driver = t;
+        t.start();
+        return true;
+    }
+
+    /** Blocking variant for headless runs. */
+    public void runBlocking(int centerCx, int centerCz, int radius, Consumer<String> log) {
+        if (!running.compareAndSet(false, true)) return;
+        cancelRequested.set(false);
+        try {
+            runJob(centerCx, centerCz, radius, log);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public void cancel() {
+        cancelRequested.set(true);
+    }
+
+    /** Cancel and wait for the current batch to finish (checkpoint stays on disk). */
+    public void cancelAndWait(long timeoutMs) {
+        cancel();
+        Thread t = driver;
+        if (t == null) return;
+        try {
+            t.join(Math.max(1L, timeoutMs));
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public String statusString() {
+        if (!running.get()) return "pregen: idle";
+        return "pregen: " + progressLine();
+    }
+
+    private void runJob(int centerCx, int centerCz, int radius, Consumer<String> log) {
+        long[] order = ringOrder(centerCx, centerCz, radius);
+
+        PregenState state = PregenState.loadOrNull(saveDir);
+        if (state == null || !state.sameJob(centerCx, centerCz, radius) || state.done > order.length) {
+            state = new PregenState(centerCx, centerCz, radius);
+            PregenState.save(saveDir, state);
+        } else if (state.done > 0) {
+            emit(log, "pregen: Resuming at " + state.done + "/" + order.length);
+        }
+
+        generated.set(0);
+        skipped.set(0);
+        failed.set(0);
+        total = order.length;
+        completed = state.done;
+        startMs = System.currentTimeMillis();
+
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+
+        emit(log, "pregen: r=" + radius + " around (" + centerCx + ", " + centerCz + ") -> "
+            + order.length + " chunks on " + threads + " threads");
+
+        long lastReport = startMs;
+        try {
+            for (int i = state.done; i < order.length; i += BATCH) {
+                if (cancelRequested.get()) break;
+
+                int end = Math.min(order.length, i + BATCH);
+                int failedBefore = failed.get();
+                pool.invoke(new Range(order, i, end));
+
+                if (failed.get() != failedBefore) {
+                    // keep the checkpoint before this batch: its finished chunks are skipped on resume
+                    emit(log, "pregen: Stopped, " + (failed.get() - failedBefore) + " chunks failed to generate or save"
+                        + " (retry with 'pregen resume'). " + progressLine());
+                    return;
+                }
+
+                state.done = end;
+                completed = end;
+                PregenState.save(saveDir, state);
+
+                long now = System.currentTimeMillis();
+                if (now - lastReport >= REPORT_INTERVAL_MS) {
+                    lastReport = now;
+                    emit(log, "pregen: " + progressLine());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        if (cancelRequested.get() && completed < order.length) {
+            emit(log, "pregen: Cancelled at " + completed + "/" + order.length + " (resume with 'pregen resume')");
+            return;
+        }
+
+        PregenState.delete(saveDir);
+        emit(log, "pregen: Done. " + progressLine());
+    }
+
+    private String progressLine() {
+        int gen = generated.get();
+        int done = completed;
+        int tot = total;
+
+        float secs = Math.max(0.001f, (System.currentTimeMillis() - startMs) / 1000f);
+        float rate = gen / secs;
+
+        String eta;
+        if (rate <= 0.01f) eta = "?";
+        else eta = formatSeconds((tot - done) / rate);
+
+        return String.format(Locale.ROOT,
+            "%d/%d (%.1f%%) | gen=%d skip=%d failed=%d | %.1f chunks/s | ETA %s",
+            done, tot, tot == 0 ? 100f : done * 100f / tot,
+            gen, skipped.get(), failed.get(), rate, eta);
+    }
+
+    private void generateOne(int cx, int cz) {
+        if (liveStore != null && liveStore.contains(cx, cz)) {
+            skipped.incrementAndGet();
+            return;
+        }
+        if (chunkIO.exists(cx, cz)) {
+            skipped.incrementAndGet();
+            return;
+        }
+
+        byte[] blocks = generator.generateChunkBlocks(cx, cz, Chunk.SX, Chunk.SY, Chunk.SZ);
+
+        // loaded meanwhile: the live chunk owns it (and saves it once edited)
+        if (liveStore != null && liveStore.contains(cx, cz)) {
+            skipped.incrementAndGet();
+            return;
+        }
+
+        switch (chunkIO.saveIfAbsent(cx, cz, Chunk.SX, Chunk.SY, Chunk.SZ, blocks)) {
+            case WRITTEN -> generated.incrementAndGet();
+            case EXISTS -> skipped.incrementAndGet();
+            case FAILED -> failed.incrementAndGet();
+        }
+    }
+
+    private final class Range extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] keys;
+        private final int from, to;
+
+        Range(long[] keys, int from, int to) {
+            this.keys = keys;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    long k = keys[i];
+                    try {
+                        generateOne(ChunkKey.unpackX(k), ChunkKey.unpackZ(k));
+                    } catch (Throwable ex) {
+                        ex.printStackTrace();
+                        failed.incrementAndGet();
+                    }
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Range(keys, from, mid), new Range(keys, mid, to));
+        }
+    }
+
+    /** Circle of chunk keys sorted nearest-first (stable order => resumable prefix). */
+    static long[] ringOrder(int centerCx, int centerCz, int radius) {
+        int r2 = radius * radius;
+        int side = 2 * radius + 1;
+
+        long[] sortable = new long[side * side];
+        int n = 0;
+        for (int dz = -radius; dz <= radius; dz++) {
+            for (int dx = -radius; dx <= radius; dx++) {
+                int d2 = dx * dx + dz * dz;
+                if (d2 > r2) continue;
+                // d2 in high bits, scan index in low bits => deterministic tie-break
+                int scan = (dz + radius) * side + (dx + radius);
+                sortable[n++] = ((long) d2 << 32) | (scan & 0xFFFFFFFFL);
+            }
+        }
+
+        long[] sorted = Arrays.copyOf(sortable, n);
+        Arrays.sort(sorted);
+
+        long[] out = new long[n];
+        for (int i = 0; i < n; i++) {
+            int scan = (int) sorted[i];
+            int dx = scan % side - radius;
+            int dz = scan / side - radius;
+            out[i] = ChunkKey.pack(centerCx + dx, centerCz + dz);
+        }
+        return out;
+    }
+
+    private static String formatSeconds(float s) {
+        int t = Math.max(0, Math.round(s));
+        int h = t / 3600;
+        int m = (t / 60) % 60;
+        int sec = t % 60;
+        if (h > 0) return h + "h" + m + "m";
+        if (m > 0) return m + "m" + sec + "s";
+        return sec + "s";
+    }
+
+    private static void emit(Consumer<String> log, String line) {
+        if (log != null) log.accept(line);
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: WorldPregenerator <worldDir> <radius 0..1024>|resume [--center cx cz]");
+            return;
+        }
+
+        FileHandle worldDir = new FileHandle(new File(args[0]));
+        // headless() creates a missing world with a random seed: a mistyped path must not do that
+        if (!worldDir.child(WorldIO.FILE_NAME).exists()) {
+            System.out.println("No " + WorldIO.FILE_NAME + " under " + worldDir.file().getAbsolutePath());
+            System.exit(2);
+            return;
+        }
+
+        int cx = 0, cz = 0;
+        for (int i = 2; i < args.length; i++) {
+            if ("--center".equals(args[i]) && i + 2 < args.length) {
+                cx = Integer.parseInt(args[++i]);
+                cz = Integer.parseInt(args[++i]);
+            } else {
+                System.out.println("Ignoring unknown option: " + args[i]);
+            }
+        }
+
+        if (Gdx.files == null) Gdx.files = new CwdFiles();
+        WorldPregenerator pregen = headless(worldDir, new BlockRegistry());
+
+        int radius;
+        if ("resume".equals(args[1])) {
+            PregenState st = pregen.pendingCheckpoint();
+            if (st == null) {
+                System.out.println("pregen: Nothing to resume.");
+                return;
+            }
+            cx = st.centerCx;
+            cz = st.centerCz;
+            radius = st.radius;
+        } else {
+            radius = Integer.parseInt(args[1]);
+            if (radius < 0 || radius > 1024) {
+                System.out.println("pregen: radius must be 0..1024");
+                System.exit(2);
+                return;
+            }
+        }
+
+        pregen.runBlocking(cx, cz, radius, System.out::println);
+
+        // a job that stopped on failed chunks keeps its checkpoint
+        System.exit(pregen.pendingCheckpoint() == null ? 0 : 1);
+    }
+}
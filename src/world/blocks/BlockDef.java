@@ -62,6 +62,9 @@ public class BlockDef {
 
     public final float emission;
 
+    /** light color of an emitter, 0xRRGGBB (white by default; scaled by emission) */
+    public final int lightColorRGB;
+
     // ✅ NEW: procedural texture config
     public final int baseColorRGBA;
     public final boolean jitter;
@@ -75,7 +78,7 @@ public class BlockDef {
 
     public BlockDef(byte id, String name, boolean opaque, boolean solid,
                     Shape shape, RenderLayer renderLayer,
-                    int tileTop, int tileSide, int tileBottom, float emission,
+                    int tileTop, int tileSide, int tileBottom, float emission, int lightColorRGB,
                     int baseColorRGBA, boolean jitter, float jitterStrength, float lumaJitter, boolean isFluid, float fluidDrag, float fluidBuoyancy, float fluidGravityScale, float fluidMoveScale) {
         this.id = id;
         this.name = (name == null) ? ("id_" + (id & 0xFF)) : name;
@@ -87,6 +90,7 @@ public class BlockDef {
         this.tileSide = tileSide;
         this.tileBottom = tileBottom;
         this.emission = emission;
+        this.lightColorRGB = lightColorRGB & 0xFFFFFF;
 
         this.baseColorRGBA = baseColorRGBA;
         this.jitter = jitter;
@@ -18,7 +18,7 @@ final class BlockDefaults {
             false, false,
             BlockDef.Shape.AIR, BlockDef.RenderLayer.NONE,
             0, 0, 0,
-            0f,
+            0f, 0xFFFFFF,
             baseColorRGBA, jitter, jitterStrength, lumaJitter,
             false, 0f, 0f, 0f, 0f
         );
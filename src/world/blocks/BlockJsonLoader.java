@@ -57,6 +57,7 @@ final class BlockJsonLoader {
                 boolean solid  = b.getBoolean("solid",  idInt != 0);
 
                 float emission = (float) b.getDouble("emission", 0.0);
+                int lightColorRGB = BlockDefaults.parseHexRGBA(b.getString("lightColor", null), 0xFFFFFFFF) >>> 8;
 
                 BlockDef.Shape shape = BlockDef.Shape.fromString(b.getString("shape", "cube"));
                 BlockDef.RenderLayer layer = BlockDef.RenderLayer.fromString(b.getString("renderLayer", "opaque"));
@@ -125,7 +126,7 @@ final class BlockJsonLoader {
                     opaque, solid,
                     shape, layer,
                     top, side, bottom,
-                    emission,
+                    emission, lightColorRGB,
                     baseColorRGBA, jitter, jitterStrength, lumaJitter,
                     isFluid, fluidDrag, fluidBuoyancy, fluidGravityScale, fluidMoveScale
                 );
@@ -150,6 +150,11 @@ public class BlockRegistry {
     public int tileSide(byte id)   { return cache.tileSide(id & 0xFF); }
     public int tileBottom(byte id) { return cache.tileBottom(id & 0xFF); }
 
+    /** Geometry of a non-cube block, or null (air, cube). */
+    public ShapeTemplate shapeTemplate(byte id) {
+        return cache.shapeTemplate(id & 0xFF);
+    }
+
     public BlockDef.RenderLayer renderLayer(byte id) {
         // Keep behavior: undefined -> airDef -> NONE
         return def(id).renderLayer;
@@ -166,7 +171,7 @@ public class BlockRegistry {
             opaque, solid,
             shape, layer,
             top, side, bottom,
-            0f,
+            0f, 0xFFFFFF,
             baseColor, jitter, jitterStrength, lumaJitter,
             false, 0f, 0f, 0f, 0f
         );
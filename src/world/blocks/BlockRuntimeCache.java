@@ -4,6 +4,7 @@ package com.atom.life.world.blocks;
  * Runtime hot-path caches for 0..255 ids.
  * - Avoids defs[id&255] + branches in tight loops.
  * - Precomputes blocksFullFace bitmask (mesh/culling hotspot).
+ * - Holds the ShapeTemplate of non-cube shapes (mesher + raycast geometry).
  */
 final class BlockRuntimeCache {
 
@@ -21,6 +22,9 @@ final class BlockRuntimeCache {
     // Face mask bits: X-/X+/Y-/Y+/Z-/Z+
     private final int[] faceMask6 = new int[256];
 
+    // Non-cube geometry (null: air / cube)
+    private final ShapeTemplate[] shape = new ShapeTemplate[256];
+
     void rebuildAll(BlockStore store, BlockDef airDef) {
         BlockDef[] arr = store.rawArray();
         for (int i = 0; i < 256; i++) {
@@ -39,6 +43,7 @@ final class BlockRuntimeCache {
             slope[idx]  = false;
             tileTop[idx] = tileSide[idx] = tileBottom[idx] = 0;
             faceMask6[idx] = 0;
+            shape[idx] = null;
             return;
         }
 
@@ -55,8 +60,9 @@ final class BlockRuntimeCache {
         tileSide[idx]   = d.tileSide;
         tileBottom[idx] = d.tileBottom;
 
-        // Full-face mask
-        faceMask6[idx] = computeFaceMask6(s);
+        // Geometry + full-face mask
+        shape[idx] = ShapeTemplate.of(s);
+        faceMask6[idx] = computeFaceMask6(s, shape[idx]);
     }
 
     boolean isOpaque(int idx) { return opaque[idx & 0xFF]; }
@@ -68,6 +74,8 @@ final class BlockRuntimeCache {
     int tileSide(int idx)   { return tileSide[idx & 0xFF]; }
     int tileBottom(int idx) { return tileBottom[idx & 0xFF]; }
 
+    ShapeTemplate shapeTemplate(int idx) { return shape[idx & 0xFF]; }
+
     boolean blocksFullFace(int idx, int axis, boolean positiveFace) {
         int mask = faceMask6[idx & 0xFF];
         int bit = faceBit(axis, positiveFace);
@@ -100,37 +108,15 @@ final class BlockRuntimeCache {
 
     /**
      * Precompute which axis-aligned faces are fully closed.
-     * Mirrors your original rules:
      * - AIR: none
      * - CUBE: all 6
-     * - SLOPE: bottom (-Y) always full; plus the "high side" full.
+     * - templated shapes (slopes: bottom + high side): the template's full faces
+     * - unknown future shapes without a template: conservative (no full faces)
      */
-    private static int computeFaceMask6(BlockDef.Shape s) {
-        if (s == BlockDef.Shape.AIR) return 0;
-
+    private static int computeFaceMask6(BlockDef.Shape s, ShapeTemplate t) {
         if (s == BlockDef.Shape.CUBE) {
             return BIT_X_NEG | BIT_X_POS | BIT_Y_NEG | BIT_Y_POS | BIT_Z_NEG | BIT_Z_POS;
         }
-
-        // slopes
-        if (s == BlockDef.Shape.SLOPE_XP) {
-            // bottom (-Y) + high side (-X)
-            return BIT_Y_NEG | BIT_X_NEG;
-        }
-        if (s == BlockDef.Shape.SLOPE_XN) {
-            // bottom (-Y) + high side (+X)
-            return BIT_Y_NEG | BIT_X_POS;
-        }
-        if (s == BlockDef.Shape.SLOPE_ZP) {
-            // bottom (-Y) + high side (+Z)
-            return BIT_Y_NEG | BIT_Z_POS;
-        }
-        if (s == BlockDef.Shape.SLOPE_ZN) {
-            // bottom (-Y) + high side (-Z)
-            return BIT_Y_NEG | BIT_Z_NEG;
-        }
-
-        // Unknown future shapes: conservative (no full faces)
-        return 0;
+        return t != null ? t.fullFaces : 0;
     }
 }
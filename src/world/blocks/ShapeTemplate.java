@@ -0,0 +1,212 @@
+package com.atom.life.world.blocks;
+
+/**
+ * Geometry of a non-cube shape as data: the faces of one unit cell, shared by the mesher
+ * (emit + cull + light sample) and the raycaster (hit test + hit normal).
+ * - one template per BlockDef.Shape, looked up by block id (BlockRegistry.shapeTemplate), so nothing
+ *   compares names or builds sets per voxel
+ * - a new shape is a new table here; meshing and picking need no new code
+ * Cubes and air have no template (greedy / alpha meshers and the plain voxel hit handle them).
+ *
+ * Directions: 0:+X 1:-X 2:+Y 3:-Y 4:+Z 5:-Z.
+ * Face masks: bit axis * 2 for the negative side, axis * 2 + 1 for the positive side (as blocksFullFace).
+ */
+public final class ShapeTemplate {
+
+    // face normal codes (the packed chunk vertex stores these): the 6 axis directions,
+    // then slope tops: the axis they lean towards, tilted 45 degrees up
+    public static final int N_PX = 0, N_NX = 1, N_PY = 2, N_NY = 3, N_PZ = 4, N_NZ = 5;
+    public static final int N_SLOPE_PX = 6, N_SLOPE_NX = 7, N_SLOPE_PZ = 8, N_SLOPE_NZ = 9;
+
+    // which of the block's tiles a face uses
+    public static final int TILE_BOTTOM = 0, TILE_SIDE = 1, TILE_TOP = 2;
+
+    public static final class Face {
+        /** 3 (triangle) or 4 (quad) */
+        public final int vertexCount;
+        /** cell-local corners, x y z per vertex, each 0 or 1 */
+        public final int[] corners;
+        /** quad-local UVs, u v per vertex */
+        public final int[] uvs;
+        public final int normal;
+        public final int tile;
+
+        /** neighbor that can hide the face (-1: never hidden) and the face of it that must be full */
+        public final int cullDir;
+        public final int cullMask;
+        /** neighbor whose light the face shows */
+        public final int lightDir;
+
+        /** normal reported to a ray that hits the face (slope tops: up, so placing stacks on top) */
+        public final int hitNx, hitNy, hitNz;
+
+        // plane (n . p = d), n = edge cross product (not normalized)
+        final float pnx, pny, pnz, pd;
+
+        Face(int[] corners, int[] uvs, int normal, int tile, int cullDir, int lightDir, int hitNx, int hitNy, int hitNz) {
+            this.vertexCount = corners.length / 3;
+            this.corners = corners;
+            this.uvs = uvs;
+            this.normal = normal;
+            this.tile = tile;
+            this.cullDir = cullDir;
+            this.cullMask = cullDir < 0 ? 0 : faceBit(cullDir ^ 1);
+            this.lightDir = lightDir;
+            this.hitNx = hitNx;
+            this.hitNy = hitNy;
+            this.hitNz = hitNz;
+
+            float ex = corners[3] - corners[0], ey = corners[4] - corners[1], ez = corners[5] - corners[2];
+            float fx = corners[6] - corners[0], fy = corners[7] - corners[1], fz = corners[8] - corners[2];
+            pnx = ey * fz - ez * fy;
+            pny = ez * fx - ex * fz;
+            pnz = ex * fy - ey * fx;
+            pd = pnx * corners[0] + pny * corners[1] + pnz * corners[2];
+        }
+
+        /**
+         * Ray o + t * d against this face; t in [tMin, tMax].
+         * Returns t, or NaN on a miss (parallel, out of range, or outside the polygon).
+         */
+        public float intersect(float ox, float oy, float oz, float dx, float dy, float dz, float tMin, float tMax) {
+            float denom = pnx * dx + pny * dy + pnz * dz;
+            if (denom == 0f) return Float.NaN;
+
+            // tolerance: a face on the cell boundary is hit at the clip interval's end, rounded differently
+            float t = (pd - (pnx * ox + pny * oy + pnz * oz)) / denom;
+            if (t < tMin - T_EPS || t > tMax + T_EPS) return Float.NaN;
+            t = Math.min(Math.max(t, tMin), tMax);
+
+            float px = ox + dx * t, py = oy + dy * t, pz = oz + dz * t;
+
+            // convex polygon: the point is on the inner side of every edge
+            for (int i = 0; i < vertexCount; i++) {
+                int a = i * 3, b = ((i + 1) % vertexCount) * 3;
+                float ex = corners[b] - corners[a], ey = corners[b + 1] - corners[a + 1], ez = corners[b + 2] - corners[a + 2];
+                float wx = px - corners[a], wy = py - corners[a + 1], wz = pz - corners[a + 2];
+                float cx = ey * wz - ez * wy;
+                float cy = ez * wx - ex * wz;
+                float cz = ex * wy - ey * wx;
+                if (cx * pnx + cy * pny + cz * pnz < -EDGE_EPS) return Float.NaN;
+            }
+            return t;
+        }
+    }
+
+    private static final float EDGE_EPS = 1e-6f;
+    private static final float T_EPS = 1e-5f;
+
+    public final Face[] faces;
+
+    /** the shape's own faces that fully close their side of the cell (face mask bits) */
+    public final int fullFaces;
+
+    private ShapeTemplate(Face... faces) {
+        this.faces = faces;
+
+        int full = 0;
+        for (Face f : faces) {
+            if (f.vertexCount == 4 && f.normal < 6) full |= faceBit(f.normal);
+        }
+        this.fullFaces = full;
+    }
+
+    /** Face mask bit of the cell side facing dir. */
+    public static int faceBit(int dir) {
+        int axis = dir >> 1;
+        boolean positive = (dir & 1) == 0;
+        return 1 << (axis * 2 + (positive ? 1 : 0));
+    }
+
+    // ---------------------------------------------------------------------
+    // Tables
+    // ---------------------------------------------------------------------
+
+    // shared by all slopes: full bottom
+    private static Face bottom() {
+        return new Face(
+            new int[]{0, 0, 0, 1, 0, 0, 1, 0, 1, 0, 0, 1},
+            new int[]{0, 0, 1, 0, 1, 1, 0, 1},
+            N_NY, TILE_BOTTOM, 3, 3, 0, -1, 0);
+    }
+
+    // high side at -X, top falls towards +X
+    private static final ShapeTemplate SLOPE_XP = new ShapeTemplate(
+        bottom(),
+        new Face(new int[]{0, 0, 0, 0, 0, 1, 0, 1, 1, 0, 1, 0},
+            new int[]{0, 0, 1, 0, 1, 1, 0, 1},
+            N_NX, TILE_SIDE, 1, 1, -1, 0, 0),
+        new Face(new int[]{0, 0, 0, 0, 1, 0, 1, 0, 0},
+            new int[]{0, 0, 0, 1, 1, 0},
+            N_NZ, TILE_SIDE, 5, 5, 0, 0, -1),
+        new Face(new int[]{0, 0, 1, 1, 0, 1, 0, 1, 1},
+            new int[]{0, 0, 1, 0, 0, 1},
+            N_PZ, TILE_SIDE, 4, 4, 0, 0, 1),
+        new Face(new int[]{0, 1, 0, 0, 1, 1, 1, 0, 1, 1, 0, 0},
+            new int[]{0, 0, 1, 0, 1, 1, 0, 1},
+            N_SLOPE_PX, TILE_TOP, -1, 2, 0, 1, 0)
+    );
+
+    // high side at +X
+    private static final ShapeTemplate SLOPE_XN = new ShapeTemplate(
+        bottom(),
+        new Face(new int[]{1, 0, 0, 1, 1, 0, 1, 1, 1, 1, 0, 1},
+            new int[]{0, 0, 0, 1, 1, 1, 1, 0},
+            N_PX, TILE_SIDE, 0, 0, 1, 0, 0),
+        new Face(new int[]{0, 0, 0, 1, 1, 0, 1, 0, 0},
+            new int[]{0, 0, 1, 1, 1, 0},
+            N_NZ, TILE_SIDE, 5, 5, 0, 0, -1),
+        new Face(new int[]{0, 0, 1, 1, 0, 1, 1, 1, 1},
+            new int[]{0, 0, 1, 0, 1, 1},
+            N_PZ, TILE_SIDE, 4, 4, 0, 0, 1),
+        new Face(new int[]{1, 1, 0, 0, 0, 0, 0, 0, 1, 1, 1, 1},
+            new int[]{0, 0, 0, 1, 1, 1, 1, 0},
+            N_SLOPE_NX, TILE_TOP, -1, 2, 0, 1, 0)
+    );
+
+    // high side at +Z
+    private static final ShapeTemplate SLOPE_ZP = new ShapeTemplate(
+        bottom(),
+        new Face(new int[]{0, 0, 1, 1, 0, 1, 1, 1, 1, 0, 1, 1},
+            new int[]{0, 0, 1, 0, 1, 1, 0, 1},
+            N_PZ, TILE_SIDE, 4, 4, 0, 0, 1),
+        new Face(new int[]{0, 0, 0, 0, 0, 1, 0, 1, 1},
+            new int[]{0, 0, 1, 0, 1, 1},
+            N_NX, TILE_SIDE, 1, 1, -1, 0, 0),
+        new Face(new int[]{1, 0, 0, 1, 1, 1, 1, 0, 1},
+            new int[]{0, 0, 1, 1, 1, 0},
+            N_PX, TILE_SIDE, 0, 0, 1, 0, 0),
+        new Face(new int[]{0, 1, 1, 1, 1, 1, 1, 0, 0, 0, 0, 0},
+            new int[]{0, 1, 1, 1, 1, 0, 0, 0},
+            N_SLOPE_NZ, TILE_TOP, -1, 2, 0, 1, 0)
+    );
+
+    // high side at -Z
+    private static final ShapeTemplate SLOPE_ZN = new ShapeTemplate(
+        bottom(),
+        new Face(new int[]{0, 0, 0, 0, 1, 0, 1, 1, 0, 1, 0, 0},
+            new int[]{0, 0, 0, 1, 1, 1, 1, 0},
+            N_NZ, TILE_SIDE, 5, 5, 0, 0, -1),
+        new Face(new int[]{0, 0, 0, 0, 0, 1, 0, 1, 0},
+            new int[]{0, 0, 1, 0, 0, 1},
+            N_NX, TILE_SIDE, 1, 1, -1, 0, 0),
+        new Face(new int[]{1, 0, 0, 1, 1, 0, 1, 0, 1},
+            new int[]{0, 0, 0, 1, 1, 0},
+            N_PX, TILE_SIDE, 0, 0, 1, 0, 0),
+        new Face(new int[]{0, 1, 0, 0, 0, 1, 1, 0, 1, 1, 1, 0},
+            new int[]{0, 0, 0, 1, 1, 1, 1, 0},
+            N_SLOPE_PZ, TILE_TOP, -1, 2, 0, 1, 0)
+    );
+
+    /** Template of a shape, or null for shapes without one (air, cube). */
+    public static ShapeTemplate of(BlockDef.Shape s) {
+        if (s == null) return null;
+        return switch (s) {
+            case SLOPE_XP -> SLOPE_XP;
+            case SLOPE_XN -> SLOPE_XN;
+            case SLOPE_ZP -> SLOPE_ZP;
+            case SLOPE_ZN -> SLOPE_ZN;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,320 @@
+package com.atom.life.world.gen;
+
+import com.atom.life.data.WorldIO;
+import com.atom.life.world.PerlinNoise;
+import com.atom.life.world.blocks.BlockRegistry;
+import com.badlogic.gdx.utils.Array;
+
+import static com.atom.life.world.gen.TerrainMath.*;
+
+/**
+ * Biomes from world.json (biomeNoise + biomes).
+ * - temperature / moisture noise is evaluated every CLIMATE_CELL blocks and interpolated to a
+ *   world-aligned CELL x CELL grid (never per column); climate noise is far lower frequency than either
+ * - every grid corner blends the biome height params by smooth membership in the climate ranges,
+ *   columns bilinearly interpolate the corners => no height seams at biome borders
+ * - the dominant biome of the nearest corner picks the surface blocks (byte tables, resolved once)
+ * Results are cached per column by ColumnCache tiles.
+ *
+ * With neutral params (offset 0, multipliers 1) heights are bit-identical to the no-biome terrain.
+ */
+public final class BiomeEngine {
+
+    public static final int CELL_SHIFT = 2;
+    public static final int CELL = 1 << CELL_SHIFT;
+
+    /** climate noise lattice (blocks); must be a multiple of CELL */
+    public static final int CLIMATE_SHIFT = 4;
+    public static final int CLIMATE_CELL = 1 << CLIMATE_SHIFT;
+
+    /** climate-space width of the smooth edge around each biome's ranges */
+    private static final float EDGE = 0.05f;
+
+    /** amplitude of the border jitter added to temperature (and subtracted from moisture) */
+    private static final float JITTER = 0.06f;
+
+    /** fbm of low octave counts spans roughly [-0.7, 0.7]; stretch so range ends are reachable */
+    private static final float CLIMATE_STRETCH = 1.4f;
+
+    private final PerlinNoise tempNoise;
+    private final PerlinNoise moistNoise;
+    private final PerlinNoise jitterNoise;
+
+    private final float tScale, mScale, jScale;
+
+    private final String[] names;
+    private final float[] weight;
+    private final float[] tMin, tMax, mMin, mMax;
+    private final float[] hOffset, hAmp, dAmp, rough;
+    private final String[] topName, fillerName, stoneName, waterName;
+
+    // resolved surface ids per biome
+    private volatile boolean resolved = false;
+    private byte[] top, filler, stone, water;
+
+    /** Per-thread buffers for one tile (caller-owned). */
+    public static final class TileScratch {
+        float[] cOff = new float[0], cAmp, cDet, cRough;
+        byte[] cBiome;
+        float[] wbuf = new float[0];
+        float[] climT = new float[0], climM;
+
+        void ensure(int corners, int climate, int biomes) {
+            if (cOff.length < corners) {
+                cOff = new float[corners];
+                cAmp = new float[corners];
+                cDet = new float[corners];
+                cRough = new float[corners];
+                cBiome = new byte[corners];
+            }
+            if (climT.length < climate) {
+                climT = new float[climate];
+                climM = new float[climate];
+            }
+            if (wbuf.length < biomes) wbuf = new float[biomes];
+        }
+    }
+
+    /** Returns null when the world has no enabled biome definitions. */
+    public static BiomeEngine createOrNull(WorldIO info) {
+        if (info == null || info.biomes == null) return null;
+
+        Array<WorldIO.BiomeDef> enabled = new Array<>();
+        for (WorldIO.BiomeDef d : info.biomes) {
+            if (d != null && d.enabled && d.weight > 0f) enabled.add(d);
+        }
+        if (enabled.size == 0) return null;
+        if (enabled.size > 127) enabled.truncate(127);
+
+        WorldIO.BiomeNoise bn = (info.biomeNoise != null) ? info.biomeNoise : new WorldIO.BiomeNoise();
+        return new BiomeEngine(info.seed, bn, enabled);
+    }
+
+    private BiomeEngine(long seed, WorldIO.BiomeNoise bn, Array<WorldIO.BiomeDef> defs) {
+        this.tempNoise = new PerlinNoise(seed ^ 0x5DEECE66DL);
+        this.moistNoise = new PerlinNoise(seed * 31L + 0x2545F491L);
+        this.jitterNoise = new PerlinNoise(seed + 0x9E3779B97F4A7C15L);
+
+        this.tScale = bn.temperatureScale;
+        this.mScale = bn.moistureScale;
+        this.jScale = bn.blendScale;
+
+        int n = defs.size;
+        names = new String[n];
+        weight = new float[n];
+        tMin = new float[n];
+        tMax = new float[n];
+        mMin = new float[n];
+        mMax = new float[n];
+        hOffset = new float[n];
+        hAmp = new float[n];
+        dAmp = new float[n];
+        rough = new float[n];
+        topName = new String[n];
+        fillerName = new String[n];
+        stoneName = new String[n];
+        waterName = new String[n];
+
+        for (int i = 0; i < n; i++) {
+            WorldIO.BiomeDef d = defs.get(i);
+            names[i] = (d.name == null) ? ("biome" + i) : d.name;
+            weight[i] = d.weight;
+            tMin[i] = Math.min(d.temperatureMin, d.temperatureMax);
+            tMax[i] = Math.max(d.temperatureMin, d.temperatureMax);
+            mMin[i] = Math.min(d.moistureMin, d.moistureMax);
+            mMax[i] = Math.max(d.moistureMin, d.moistureMax);
+            hOffset[i] = d.heightOffset;
+            hAmp[i] = d.heightAmpMul;
+            dAmp[i] = d.detailAmpMul;
+            rough[i] = d.roughnessMul;
+            topName[i] = d.surfaceTop;
+            fillerName[i] = d.surfaceFiller;
+            stoneName[i] = d.surfaceStone;
+            waterName[i] = d.surfaceWater;
+        }
+    }
+
+    public int count() {
+        return names.length;
+    }
+
+    public String name(int biome) {
+        return names[biome];
+    }
+
+    /** Resolves surface names into per-biome ids once; unknown names fall back to the legacy ids. */
+    public void resolveOnce(BlockRegistry registry, BlockIdResolver ids) {
+        if (resolved) return;
+
+        int n = names.length;
+        byte[] t = new byte[n], f = new byte[n], s = new byte[n], w = new byte[n];
+        for (int i = 0; i < n; i++) {
+            t[i] = idOr(registry, topName[i], ids.grass());
+            f[i] = idOr(registry, fillerName[i], ids.dirt());
+            s[i] = idOr(registry, stoneName[i], ids.stone());
+            w[i] = idOr(registry, waterName[i], ids.water());
+        }
+        top = t;
+        filler = f;
+        stone = s;
+        water = w;
+        resolved = true;
+    }
+
+    private static byte idOr(BlockRegistry registry, String name, byte fallback) {
+        if (name == null || name.isEmpty()) return fallback;
+        return registry.idByName(name, fallback);
+    }
+
+    public byte top(int biome) { return top[biome]; }
+    public byte filler(int biome) { return filler[biome]; }
+    public byte stone(int biome) { return stone[biome]; }
+    public byte water(int biome) { return water[biome]; }
+
+    /**
+     * Fills per-column biome params for a size x size block at (wx0, wz0) (both multiples of CLIMATE_CELL).
+     * Outputs are row-major (z * size + x).
+     */
+    public void sampleTile(int wx0, int wz0, int size, TileScratch ts,
+                           float[] outOff, float[] outAmp, float[] outDet, float[] outRough, byte[] outBiome) {
+        int nk = (size >> CLIMATE_SHIFT) + 1;
+        int nc = (size >> CELL_SHIFT) + 1;
+        ts.ensure(nc * nc, nk * nk, names.length);
+
+        for (int j = 0; j < nk; j++) {
+            for (int i = 0; i < nk; i++) {
+                climate(wx0 + (i << CLIMATE_SHIFT), wz0 + (j << CLIMATE_SHIFT), ts, j * nk + i);
+            }
+        }
+
+        int per = CLIMATE_CELL >> CELL_SHIFT;
+        for (int j = 0; j < nc; j++) {
+            int kj = Math.min(j / per, nk - 2);
+            float tz = (j - kj * per) / (float) per;
+            for (int i = 0; i < nc; i++) {
+                int ki = Math.min(i / per, nk - 2);
+                float tx = (i - ki * per) / (float) per;
+                int k00 = kj * nk + ki;
+                float t = climateLerp(ts.climT, k00, k00 + 1, k00 + nk, k00 + nk + 1, tx, tz);
+                float m = climateLerp(ts.climM, k00, k00 + 1, k00 + nk, k00 + nk + 1, tx, tz);
+                evalCorner(t, m, ts, j * nc + i);
+            }
+        }
+
+        float inv = 1f / CELL;
+        for (int z = 0; z < size; z++) {
+            int j = z >> CELL_SHIFT;
+            int fz = z & (CELL - 1);
+            float tz = fz * inv;
+            int nj = (fz >= CELL / 2) ? j + 1 : j;
+
+            for (int x = 0; x < size; x++) {
+                int i = x >> CELL_SHIFT;
+                int fx = x & (CELL - 1);
+                float tx = fx * inv;
+
+                int c00 = j * nc + i;
+                int c10 = c00 + 1;
+                int c01 = c00 + nc;
+                int c11 = c01 + 1;
+
+                int o = z * size + x;
+                outOff[o] = bilerp(ts.cOff, c00, c10, c01, c11, tx, tz);
+                outAmp[o] = bilerp(ts.cAmp, c00, c10, c01, c11, tx, tz);
+                outDet[o] = bilerp(ts.cDet, c00, c10, c01, c11, tx, tz);
+                outRough[o] = bilerp(ts.cRough, c00, c10, c01, c11, tx, tz);
+
+                int ni = (fx >= CELL / 2) ? i + 1 : i;
+                outBiome[o] = ts.cBiome[nj * nc + ni];
+            }
+        }
+    }
+
+    /** Dominant biome at one column (nearest grid corner); matches sampleTile. */
+    public int biomeAt(int wx, int wz, TileScratch ts) {
+        ts.ensure(1, 4, names.length);
+        int cx = ((wx + CELL / 2) >> CELL_SHIFT) << CELL_SHIFT;
+        int cz = ((wz + CELL / 2) >> CELL_SHIFT) << CELL_SHIFT;
+
+        int kx = cx >> CLIMATE_SHIFT;
+        int kz = cz >> CLIMATE_SHIFT;
+        climate(kx << CLIMATE_SHIFT, kz << CLIMATE_SHIFT, ts, 0);
+        climate((kx + 1) << CLIMATE_SHIFT, kz << CLIMATE_SHIFT, ts, 1);
+        climate(kx << CLIMATE_SHIFT, (kz + 1) << CLIMATE_SHIFT, ts, 2);
+        climate((kx + 1) << CLIMATE_SHIFT, (kz + 1) << CLIMATE_SHIFT, ts, 3);
+
+        int per = CLIMATE_CELL >> CELL_SHIFT;
+        float tx = ((cx >> CELL_SHIFT) - (kx * per)) / (float) per;
+        float tz = ((cz >> CELL_SHIFT) - (kz * per)) / (float) per;
+        float t = climateLerp(ts.climT, 0, 1, 2, 3, tx, tz);
+        float m = climateLerp(ts.climM, 0, 1, 2, 3, tx, tz);
+
+        evalCorner(t, m, ts, 0);
+        return ts.cBiome[0];
+    }
+
+    private void climate(int wx, int wz, TileScratch ts, int k) {
+        float jit = jitterNoise.fbm(wx * jScale, wz * jScale, 2, 2f, 0.5f) * JITTER;
+        ts.climT[k] = clamp01(0.5f + tempNoise.fbm(wx * tScale, wz * tScale, 3, 2f, 0.5f) * 0.5f * CLIMATE_STRETCH + jit);
+        ts.climM[k] = clamp01(0.5f + moistNoise.fbm(wx * mScale, wz * mScale, 3, 2f, 0.5f) * 0.5f * CLIMATE_STRETCH - jit);
+    }
+
+    private void evalCorner(float t, float m, TileScratch ts, int c) {
+        int n = names.length;
+        float[] w = ts.wbuf;
+
+        float sum = 0f;
+        int best = 0;
+        float bestW = -1f;
+        int nearest = 0;
+        float nearestInside = -Float.MAX_VALUE;
+
+        for (int b = 0; b < n; b++) {
+            // signed distance to the range box edge (positive inside)
+            float inside = Math.min(Math.min(t - tMin[b], tMax[b] - t), Math.min(m - mMin[b], mMax[b] - m));
+            if (inside > nearestInside) { nearestInside = inside; nearest = b; }
+
+            float wb = weight[b] * smoothstep(-EDGE, EDGE, inside);
+            w[b] = wb;
+            sum += wb;
+            if (wb > bestW) { bestW = wb; best = b; }
+        }
+
+        if (sum <= 0f) {
+            // outside every range: the closest biome takes the corner
+            for (int b = 0; b < n; b++) w[b] = 0f;
+            w[nearest] = 1f;
+            sum = 1f;
+            best = nearest;
+        }
+
+        float off = 0f, ampMul = 0f, detMul = 0f, roughMul = 0f;
+        for (int b = 0; b < n; b++) {
+            float wb = w[b];
+            if (wb == 0f) continue;
+            off += wb * hOffset[b];
+            ampMul += wb * hAmp[b];
+            detMul += wb * dAmp[b];
+            roughMul += wb * rough[b];
+        }
+
+        ts.cOff[c] = off / sum;
+        ts.cAmp[c] = ampMul / sum;
+        ts.cDet[c] = detMul / sum;
+        ts.cRough[c] = roughMul / sum;
+        ts.cBiome[c] = (byte) best;
+    }
+
+    /** Bilinear with exact endpoints, so a lattice corner shared by two tiles gets identical climate from both. */
+    private static float climateLerp(float[] v, int c00, int c10, int c01, int c11, float tx, float tz) {
+        float a = (tx >= 1f) ? v[c10] : lerp(v[c00], v[c10], tx);
+        float b = (tx >= 1f) ? v[c11] : lerp(v[c01], v[c11], tx);
+        return (tz >= 1f) ? b : lerp(a, b, tz);
+    }
+
+    private static float bilerp(float[] v, int c00, int c10, int c01, int c11, float tx, float tz) {
+        float a = lerp(v[c00], v[c10], tx);
+        float b = lerp(v[c01], v[c11], tx);
+        return lerp(a, b, tz);
+    }
+}
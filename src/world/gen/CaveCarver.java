@@ -0,0 +1,218 @@
+package com.atom.life.world.gen;
+
+import com.atom.life.data.WorldIO;
+import com.atom.life.world.PerlinNoise;
+
+/**
+ * Optional 3D density caves, run after ChunkFiller.
+ * - two 3D fbm fields are sampled only on a world-aligned LX x LY x LZ (4 x 8 x 4) lattice,
+ *   and only up to the highest carvable y of the chunk; voxels are trilinearly interpolated
+ * - caverns where field A > cavernThreshold; tunnels where |A| and |B| are both below tunnelWidth
+ *   (the intersection of two zero-sheets is a tube)
+ * - lattice points sit on world coordinates, so neighboring chunks interpolate the same values => no seams
+ * - lattice cells whose corner values cannot open a cave are skipped whole (no per-column or per-voxel work)
+ * Air, fluid and bedrock are never carved; sea floors keep seaFloorMargin solid blocks so water stays put.
+ */
+public final class CaveCarver {
+
+    public static final int LX_SHIFT = 2, LY_SHIFT = 3, LZ_SHIFT = 2;
+    public static final int LX = 1 << LX_SHIFT, LY = 1 << LY_SHIFT, LZ = 1 << LZ_SHIFT;
+
+    private final PerlinNoise fieldA;
+    private final PerlinNoise fieldB;
+
+    private final float scaleXZ, scaleY;
+    private final int octaves;
+    private final float cavern;
+    private final float tunnel;
+    private final int minY;
+    private final int surfaceMargin, seaFloorMargin;
+
+    /** Per-thread lattice buffers (GenScratch owned). */
+    public static final class Scratch {
+        float[] a = new float[0], b = new float[0];
+        float[] xs = new float[0], row = new float[0];
+        int[] top = new int[0];
+
+        void ensure(int lattice, int rowLen, int area) {
+            if (a.length < lattice) {
+                a = new float[lattice];
+                b = new float[lattice];
+            }
+            if (xs.length < rowLen) {
+                xs = new float[rowLen];
+                row = new float[rowLen];
+            }
+            if (top.length < area) top = new int[area];
+        }
+    }
+
+    /** Returns null when the world has no (enabled) cave config. */
+    public static CaveCarver createOrNull(long seed, WorldIO.CaveConfig c) {
+        if (c == null || !c.enabled) return null;
+        if (c.cavernThreshold >= 1f && c.tunnelWidth <= 0f) return null;
+        return new CaveCarver(seed, c);
+    }
+
+    private CaveCarver(long seed, WorldIO.CaveConfig c) {
+        this.fieldA = new PerlinNoise(seed ^ 0x43415645L);           // "CAVE"
+        this.fieldB = new PerlinNoise(seed * 0x2545F4914F6CDD1DL + 1L);
+
+        this.scaleXZ = c.scaleXZ;
+        this.scaleY = c.scaleY;
+        this.octaves = Math.max(1, Math.min(4, c.octaves));
+        this.cavern = c.cavernThreshold;
+        this.tunnel = Math.max(0f, c.tunnelWidth);
+        this.minY = Math.max(1, c.minY);
+        this.surfaceMargin = Math.max(0, c.surfaceMargin);
+        this.seaFloorMargin = Math.max(0, c.seaFloorMargin);
+    }
+
+    /**
+     * Carves chunk (cx, cz) in place. hm is the chunk's height map (as used by ChunkFiller);
+     * sx / sz must be multiples of LX / LZ.
+     */
+    public void carve(byte[] blocks, int cx, int cz, int sx, int sy, int sz,
+                      int seaY, HeightMap hm, BlockIdResolver ids, Scratch s) {
+        int area = sx * sz;
+        s.ensure(0, 0, area);
+        int[] top = s.top;
+
+        // highest carvable y per column
+        int maxTop = 0;
+        for (int z = 0; z < sz; z++) {
+            for (int x = 0; x < sx; x++) {
+                int h = hm.heightAt(x, z);
+                int t = (h <= seaY) ? h - seaFloorMargin : h - surfaceMargin;
+                if (t > sy - 2) t = sy - 2;
+                top[z * sx + x] = t;
+                if (t > maxTop) maxTop = t;
+            }
+        }
+        if (maxTop < minY) return;
+
+        int nx = (sx >> LX_SHIFT) + 1;
+        int nz = (sz >> LZ_SHIFT) + 1;
+        int ly0 = minY >> LY_SHIFT;
+        int ny = (maxTop >> LY_SHIFT) + 2 - ly0;
+        s.ensure(nx * ny * nz, nx, area);
+
+        boolean tunnels = tunnel > 0f;
+        int wx0 = cx * sx, wz0 = cz * sz;
+
+        sampleLattice(fieldA, s.a, wx0, wz0, ly0, nx, ny, nz, s);
+        if (tunnels) sampleLattice(fieldB, s.b, wx0, wz0, ly0, nx, ny, nz, s);
+
+        carveCells(blocks, ly0, nx, ny, nz, sx, sz, tunnels, ids, s);
+    }
+
+    /** World-aligned lattice, one batched fbm3 row per (y, z). */
+    private void sampleLattice(PerlinNoise field, float[] out, int wx0, int wz0, int ly0,
+                               int nx, int ny, int nz, Scratch s) {
+        float[] xs = s.xs;
+        for (int i = 0; i < nx; i++) xs[i] = (wx0 + (i << LX_SHIFT)) * scaleXZ;
+
+        for (int j = 0; j < ny; j++) {
+            float fy = ((ly0 + j) << LY_SHIFT) * scaleY;
+            for (int k = 0; k < nz; k++) {
+                float fz = (wz0 + (k << LZ_SHIFT)) * scaleXZ;
+                field.fbm3Row(xs, nx, fy, fz, octaves, 2f, 0.5f, s.row, out, (j * nz + k) * nx);
+            }
+        }
+    }
+
+    /**
+     * Walks the lattice cells. Trilinear values never leave the range of a cell's 8 corners, so a cell whose
+     * corner range can neither exceed cavernThreshold nor reach +-tunnelWidth in both fields is skipped whole;
+     * only surviving cells interpolate their columns (bottom / top bilinear) and test voxels.
+     */
+    private void carveCells(byte[] blocks, int ly0, int nx, int ny, int nz, int sx, int sz,
+                            boolean tunnels, BlockIdResolver ids, Scratch s) {
+        float[] a = s.a, b = s.b;
+        int[] top = s.top;
+        int area = sx * sz;
+        int layer = nx * nz;
+
+        byte air = ids.air();
+        byte water = ids.water();
+        byte bedrock = ids.bedrock();
+        float invX = 1f / LX, invZ = 1f / LZ, invY = 1f / LY;
+
+        for (int j = 0; j + 1 < ny; j++) {
+            int yCell = (ly0 + j) << LY_SHIFT;
+            int yFrom = Math.max(yCell, minY);
+            int yEnd = yCell + LY - 1;
+
+            for (int k = 0; k + 1 < nz; k++) {
+                for (int i = 0; i + 1 < nx; i++) {
+                    int o00 = (j * nz + k) * nx + i;
+                    int o01 = o00 + nx;
+                    int u00 = o00 + layer, u01 = o01 + layer;
+
+                    float aMin = min4(a[o00], a[o00 + 1], a[o01], a[o01 + 1]);
+                    float aMax = max4(a[o00], a[o00 + 1], a[o01], a[o01 + 1]);
+                    aMin = Math.min(aMin, min4(a[u00], a[u00 + 1], a[u01], a[u01 + 1]));
+                    aMax = Math.max(aMax, max4(a[u00], a[u00 + 1], a[u01], a[u01 + 1]));
+
+                    boolean cav = aMax > cavern;
+                    boolean tun = false;
+                    if (tunnels && aMin <= tunnel && aMax >= -tunnel) {
+                        float bMin = Math.min(min4(b[o00], b[o00 + 1], b[o01], b[o01 + 1]),
+                            min4(b[u00], b[u00 + 1], b[u01], b[u01 + 1]));
+                        float bMax = Math.max(max4(b[o00], b[o00 + 1], b[o01], b[o01 + 1]),
+                            max4(b[u00], b[u00 + 1], b[u01], b[u01 + 1]));
+                        tun = bMin <= tunnel && bMax >= -tunnel;
+                    }
+                    if (!cav && !tun) continue;
+
+                    for (int z = 0; z < LZ; z++) {
+                        float tz = z * invZ;
+                        for (int x = 0; x < LX; x++) {
+                            int c = ((k << LZ_SHIFT) + z) * sx + (i << LX_SHIFT) + x;
+                            int yTo = Math.min(yEnd, top[c]);
+                            if (yTo < yFrom) continue;
+
+                            float tx = x * invX;
+                            float a0 = bilerp(a, o00, o01, tx, tz);
+                            float da = bilerp(a, u00, u01, tx, tz) - a0;
+                            float b0 = 0f, db = 0f;
+                            if (tun) {
+                                b0 = bilerp(b, o00, o01, tx, tz);
+                                db = bilerp(b, u00, u01, tx, tz) - b0;
+                            }
+
+                            for (int y = yFrom, idx = yFrom * area + c; y <= yTo; y++, idx += area) {
+                                float t = (y - yCell) * invY;
+                                float va = a0 + da * t;
+                                boolean open = va > cavern;
+                                if (!open && tun && Math.abs(va) < tunnel) {
+                                    open = Math.abs(b0 + db * t) < tunnel;
+                                }
+                                if (!open) continue;
+
+                                byte cur = blocks[idx];
+                                if (cur == air || cur == water || cur == bedrock) continue;
+                                blocks[idx] = air;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /** x first, then z (row o0 -> row o1), on one lattice layer. */
+    private static float bilerp(float[] v, int o0, int o1, float tx, float tz) {
+        float r0 = v[o0] + (v[o0 + 1] - v[o0]) * tx;
+        float r1 = v[o1] + (v[o1 + 1] - v[o1]) * tx;
+        return r0 + (r1 - r0) * tz;
+    }
+
+    private static float min4(float a, float b, float c, float d) {
+        return Math.min(Math.min(a, b), Math.min(c, d));
+    }
+
+    private static float max4(float a, float b, float c, float d) {
+        return Math.max(Math.max(a, b), Math.max(c, d));
+    }
+}
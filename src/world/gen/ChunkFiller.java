@@ -1,10 +1,19 @@
 package com.atom.life.world.gen;
 
+import java.util.Arrays;
+
 import static com.atom.life.world.gen.TerrainMath.*;
 
 /**
  * Fills chunk blocks from a HeightMap and cached ids.
- * Logic matches original ChunkGenerator.generateChunkBlocks() 1:1.
+ * Output matches original ChunkGenerator.generateChunkBlocks() 1:1.
+ *
+ * Layer-major: a per-column span table (top / filler / stone / fluid block, filler start, height) is built first,
+ * then every y-plane (contiguous sx*sz bytes) is written in one pass;
+ * planes that are uniform across the chunk (all stone / all water / all air) use Arrays.fill.
+ * Surface ids come from the column's biome when a BiomeEngine is given (beach sand / peak snow still win).
+ * Span arrays live in the caller's GenScratch (the filler itself is shared across threads).
+ * blocks must arrive zeroed (freshly allocated).
  */
 public final class ChunkFiller {
 
@@ -15,10 +24,32 @@ public final class ChunkFiller {
                      int seaY,
                      TerrainConfig cfg,
                      HeightMap hm,
-                     BlockIdResolver ids) {
+                     BlockIdResolver ids,
+                     BiomeEngine biomes,
+                     GenScratch scratch) {
 
         int snowLine = clampInt(seaY + cfg.snowLineOffset, cfg.snowLineMin, sy - cfg.snowLineMaxMargin);
 
+        int area = sx * sz;
+        scratch.ensureSpans(area);
+
+        int[] colH = scratch.colH;
+        int[] colFillFrom = scratch.colFillFrom;
+        byte[] colTop = scratch.colTop;
+        byte[] colFill = scratch.colFill;
+        byte[] colStone = scratch.colStone;
+        byte[] colFluid = scratch.colFluid;
+        SurfaceRules.Result sr = scratch.surface;
+
+        byte air = ids.air();
+
+        int minFillFrom = Integer.MAX_VALUE;
+        int maxH = 0;
+
+        // uniform stone / fluid across the chunk => whole planes can be Arrays.fill'ed
+        boolean uniform = true;
+
+        // ---- span table ----
         for (int z = 0; z < sz; z++) {
             for (int x = 0; x < sx; x++) {
 
@@ -32,47 +63,86 @@ public final class ChunkFiller {
                 int slope2 = absInt(h - hD);
                 if (slope2 > slope) slope = slope2;
 
-                SurfaceRules.Result sr = surfaceRules.eval(t, h, seaY, slope, snowLine);
-
-                boolean sandySurface = sr.sandySurface && ids.sand() != ids.air();
-                boolean snowySurface = sr.snowySurface && ids.snow() != ids.air();
-
-                for (int y = 0; y < sy; y++) {
-                    int idx = (y * sz + z) * sx + x;
-
-                    if (y == 0) {
-                        blocks[idx] = ids.bedrock();
-                        continue;
-                    }
-
-                    if (y > h) {
-                        if (y <= seaY && ids.water() != ids.air()) blocks[idx] = ids.water();
-                        else blocks[idx] = ids.air();
-                        continue;
-                    }
-
-                    if (y == h) {
-                        if (snowySurface) {
-                            blocks[idx] = ids.snow();
-                        } else if (sandySurface) {
-                            blocks[idx] = ids.sand();
-                        } else {
-                            blocks[idx] = ids.grass();
-                        }
-                        continue;
-                    }
-
-                    // below surface
-                    if (sandySurface) {
-                        if (y >= h - 3) blocks[idx] = ids.sand();
-                        else blocks[idx] = ids.stone();
-                        continue;
-                    }
-
-                    if (y >= h - sr.topSoil) blocks[idx] = ids.dirt();
-                    else blocks[idx] = ids.stone();
+                surfaceRules.eval(t, h, seaY, slope, snowLine, sr);
+
+                boolean sandySurface = sr.sandySurface && ids.sand() != air;
+                boolean snowySurface = sr.snowySurface && ids.snow() != air;
+
+                byte top, filler, stone, water;
+                if (biomes != null) {
+                    int b = hm.biomeAt(x, z);
+                    top = biomes.top(b);
+                    filler = biomes.filler(b);
+                    stone = biomes.stone(b);
+                    water = biomes.water(b);
+                } else {
+                    top = ids.grass();
+                    filler = ids.dirt();
+                    stone = ids.stone();
+                    water = ids.water();
+                }
+
+                int c = z * sx + x;
+                colH[c] = h;
+                colStone[c] = stone;
+                colFluid[c] = (water != air) ? water : air;
+
+                if (snowySurface) colTop[c] = ids.snow();
+                else if (sandySurface) colTop[c] = ids.sand();
+                else colTop[c] = top;
+
+                if (sandySurface) {
+                    colFill[c] = ids.sand();
+                    colFillFrom[c] = h - 3;
+                } else {
+                    colFill[c] = filler;
+                    colFillFrom[c] = h - sr.topSoil;
+                }
+
+                if (colStone[c] != colStone[0] || colFluid[c] != colFluid[0]) uniform = false;
+
+                if (colFillFrom[c] < minFillFrom) minFillFrom = colFillFrom[c];
+                if (h > maxH) maxH = h;
+            }
+        }
+
+        // ---- y = 0: bedrock ----
+        Arrays.fill(blocks, 0, area, ids.bedrock());
+
+        for (int y = 1; y < sy; y++) {
+            int base = y * area;
+
+            // above every surface and the sea: blocks arrive zeroed, so air id 0 needs no writes at all
+            if (y > maxH && y > seaY) {
+                if (air == 0) break;
+                Arrays.fill(blocks, base, base + area, air);
+                continue;
+            }
+
+            if (uniform) {
+                // fully underground for every column
+                if (y < minFillFrom) {
+                    Arrays.fill(blocks, base, base + area, colStone[0]);
+                    continue;
+                }
+                // above every surface, below sea level
+                if (y > maxH) {
+                    Arrays.fill(blocks, base, base + area, colFluid[0]);
+                    continue;
                 }
             }
+
+            boolean sea = y <= seaY;
+
+            for (int c = 0; c < area; c++) {
+                int h = colH[c];
+                byte b;
+                if (y > h) b = sea ? colFluid[c] : air;
+                else if (y == h) b = colTop[c];
+                else if (y >= colFillFrom[c]) b = colFill[c];
+                else b = colStone[c];
+                blocks[base + c] = b;
+            }
         }
     }
 }
@@ -0,0 +1,162 @@
+package com.atom.life.world.gen;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.atom.life.world.gen.TerrainConfig.seaLevel;
+import static com.atom.life.world.gen.TerrainMath.clampInt;
+
+/**
+ * Shared height + TerrainType + biome per world column, in chunk-aligned TILE x TILE tiles.
+ * - safe for concurrent generator threads: each tile is sampled once, under its own lock
+ * - a chunk's 17x17 heightmap reads its own tile plus one border row/column of neighbors
+ * - also usable for point queries (structures, biomes, spawn search)
+ * - bounded: least recently used tiles are dropped when MAX_TILES is exceeded
+ */
+public final class ColumnCache {
+
+    public static final int TILE_SHIFT = 4;
+    public static final int TILE = 1 << TILE_SHIFT;
+    private static final int TILE_MASK = TILE - 1;
+
+    private static final int MAX_TILES = 4096;
+
+    private static final class Tile {
+        final int tx, tz;
+        final int[] heights = new int[TILE * TILE];
+        final TerrainType[] types = new TerrainType[TILE * TILE];
+        final byte[] biomes = new byte[TILE * TILE];
+
+        volatile boolean ready;
+        volatile long lastUse;
+
+        Tile(int tx, int tz) {
+            this.tx = tx;
+            this.tz = tz;
+        }
+    }
+
+    private final HeightSampler sampler;
+    private final int sy;
+    private final int seaY;
+
+    private final ConcurrentHashMap<Long, Tile> tiles = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final ReentrantLock evictLock = new ReentrantLock();
+
+    private final ThreadLocal<HeightSampler.RowScratch> rowTL =
+        ThreadLocal.withInitial(HeightSampler.RowScratch::new);
+
+    public ColumnCache(HeightSampler sampler, int sy) {
+        this.sampler = sampler;
+        this.sy = sy;
+        this.seaY = clampInt(seaLevel, 1, sy - 2);
+    }
+
+    public int sy() {
+        return sy;
+    }
+
+    public int heightAt(int wx, int wz) {
+        Tile t = tile(wx >> TILE_SHIFT, wz >> TILE_SHIFT);
+        return t.heights[((wz & TILE_MASK) << TILE_SHIFT) | (wx & TILE_MASK)];
+    }
+
+    public TerrainType typeAt(int wx, int wz) {
+        Tile t = tile(wx >> TILE_SHIFT, wz >> TILE_SHIFT);
+        return t.types[((wz & TILE_MASK) << TILE_SHIFT) | (wx & TILE_MASK)];
+    }
+
+    /** BiomeEngine index at a column (0 without biomes). */
+    public int biomeAt(int wx, int wz) {
+        Tile t = tile(wx >> TILE_SHIFT, wz >> TILE_SHIFT);
+        return t.biomes[((wz & TILE_MASK) << TILE_SHIFT) | (wx & TILE_MASK)];
+    }
+
+    /** Copies hm.w x hm.h columns starting at world (wx0, wz0) into hm. */
+    public void fill(HeightMap hm, int wx0, int wz0) {
+        int wx1 = wx0 + hm.w - 1;
+        int wz1 = wz0 + hm.h - 1;
+
+        for (int tz = wz0 >> TILE_SHIFT; tz <= wz1 >> TILE_SHIFT; tz++) {
+            for (int tx = wx0 >> TILE_SHIFT; tx <= wx1 >> TILE_SHIFT; tx++) {
+                Tile t = tile(tx, tz);
+
+                int x0 = Math.max(wx0, tx << TILE_SHIFT);
+                int x1 = Math.min(wx1, (tx << TILE_SHIFT) + TILE_MASK);
+                int z0 = Math.max(wz0, tz << TILE_SHIFT);
+                int z1 = Math.min(wz1, (tz << TILE_SHIFT) + TILE_MASK);
+
+                for (int wz = z0; wz <= z1; wz++) {
+                    int row = (wz & TILE_MASK) << TILE_SHIFT;
+                    for (int wx = x0; wx <= x1; wx++) {
+                        int i = row | (wx & TILE_MASK);
+                        hm.set(wx - wx0, wz - wz0, t.heights[i], t.types[i], t.biomes[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return tiles.size();
+    }
+
+    public void clear() {
+        tiles.clear();
+    }
+
+    private Tile tile(int tx, int tz) {
+        long key = ((long) tx << 32) | (tz & 0xFFFFFFFFL);
+
+        Tile t = tiles.get(key);
+        if (t == null) {
+            Tile fresh = new Tile(tx, tz);
+            t = tiles.putIfAbsent(key, fresh);
+            if (t == null) {
+                t = fresh;
+                if (tiles.size() > MAX_TILES) evictOldest();
+            }
+        }
+
+        t.lastUse = clock.incrementAndGet();
+        if (!t.ready) compute(t);
+        return t;
+    }
+
+    private void compute(Tile t) {
+        synchronized (t) {
+            if (t.ready) return;
+
+            int wx0 = t.tx << TILE_SHIFT;
+            int wz0 = t.tz << TILE_SHIFT;
+            HeightSampler.RowScratch rs = rowTL.get();
+
+            sampler.sampleTile(wx0, wz0, TILE, seaY, sy, rs, t.heights, t.types, t.biomes);
+            t.ready = true;
+        }
+    }
+
+    /** Drops the older half of the tiles (a dropped tile is simply resampled if needed again). */
+    private void evictOldest() {
+        if (!evictLock.tryLock()) return;
+        try {
+            if (tiles.size() <= MAX_TILES) return;
+
+            long[] stamps = new long[tiles.size()];
+            int n = 0;
+            for (Tile t : tiles.values()) {
+                if (n == stamps.length) break;
+                stamps[n++] = t.lastUse;
+            }
+            Arrays.sort(stamps, 0, n);
+            long cutoff = stamps[n / 2];
+
+            tiles.values().removeIf(t -> t.lastUse < cutoff);
+        } finally {
+            evictLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.atom.life.world.gen;
+
+import com.atom.life.data.WorldIO;
+import com.atom.life.io.CwdFiles;
+import com.atom.life.world.Chunk;
+import com.atom.life.world.ChunkGenerator;
+import com.atom.life.world.blocks.BlockRegistry;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Json;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+
+/**
+ * Allocation regression check for the generator hot path (NOISE / FILL / FEATURES).
+ * Generates chunks on one thread and counts the bytes it allocated per chunk, minus the returned block array:
+ * - fresh: columns not sampled yet (the new column tiles are the expected allocation)
+ * - cached: the same chunks again (only the per-call GenJob and boxed tile keys are expected)
+ * Exits with status 1 when a budget is exceeded.
+ *
+ * Run from the assets directory (blocks.json, structures/):
+ *   java -cp Atom.jar com.atom.life.world.gen.GenAllocCheck [worldDir] [--chunks N]
+ * Without worldDir (or without a world.json in it) a default normal world is used.
+ */
+public final class GenAllocCheck {
+
+    // bytes per chunk; measured ~3.2 KB fresh (column tiles) / ~0.4 KB cached (GenJob, tile keys)
+    private static final long FRESH_BUDGET = 4 * 1024;
+    private static final long CACHED_BUDGET = 512;
+
+    private static final int WARMUP_CHUNKS = 256;
+
+    public static void main(String[] args) {
+        String worldDir = null;
+        int side = 16;
+
+        for (int i = 0; i < args.length; i++) {
+            if ("--chunks".equals(args[i]) && i + 1 < args.length) {
+                side = Math.max(1, (int) Math.ceil(Math.sqrt(Integer.parseInt(args[++i]))));
+            } else if (worldDir == null) {
+                worldDir = args[i];
+            } else {
+                System.out.println("Ignoring unknown option: " + args[i]);
+            }
+        }
+
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        if (!(mx instanceof com.sun.management.ThreadMXBean tb) || !tb.isThreadAllocatedMemorySupported()) {
+            System.out.println("GenAllocCheck: per-thread allocation counters not available on this JVM");
+            System.exit(2);
+            return;
+        }
+        tb.setThreadAllocatedMemoryEnabled(true);
+
+        if (Gdx.files == null) Gdx.files = new CwdFiles();
+
+        ChunkGenerator gen = new ChunkGenerator(loadInfo(worldDir), new BlockRegistry());
+        final int sx = Chunk.SX, sy = Chunk.SY, sz = Chunk.SZ;
+
+        // warm up far away from the measured area: JIT, id resolution, structure plans of that area
+        int warmSide = (int) Math.ceil(Math.sqrt(WARMUP_CHUNKS));
+        for (int cz = 0; cz < warmSide; cz++) {
+            for (int cx = 0; cx < warmSide; cx++) gen.generateChunkBlocks(-4096 + cx, -4096 + cz, sx, sy, sz);
+        }
+        // the measured area's structure plans up front: planning is per region, not per chunk
+        if (gen.structures() != null) {
+            for (int cz = 0; cz < side; cz++) {
+                for (int cx = 0; cx < side; cx++) gen.structures().plansReady(cx, cz, sx, sz, null);
+            }
+        }
+
+        long arrayBytes = arrayBytes(sx * sy * sz);
+        long fresh = perChunk(tb, gen, side, arrayBytes);
+        long cached = perChunk(tb, gen, side, arrayBytes);
+
+        boolean ok = fresh <= FRESH_BUDGET && cached <= CACHED_BUDGET;
+        System.out.println(String.format(Locale.ROOT,
+            "GenAllocCheck: %d chunks | fresh %d B/chunk (budget %d) | cached %d B/chunk (budget %d) -> %s",
+            side * side, fresh, FRESH_BUDGET, cached, CACHED_BUDGET, ok ? "OK" : "REGRESSION"));
+
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static long perChunk(com.sun.management.ThreadMXBean tb, ChunkGenerator gen, int side, long arrayBytes) {
+        long a0 = tb.getCurrentThreadAllocatedBytes();
+        for (int cz = 0; cz < side; cz++) {
+            for (int cx = 0; cx < side; cx++) gen.generateChunkBlocks(cx, cz, Chunk.SX, Chunk.SY, Chunk.SZ);
+        }
+        long a1 = tb.getCurrentThreadAllocatedBytes();
+        return Math.max(0, (a1 - a0) / ((long) side * side) - arrayBytes);
+    }
+
+    /** Heap size of a byte[n] (16 byte header, 8 byte alignment). */
+    private static long arrayBytes(int n) {
+        return (16L + n + 7) & ~7L;
+    }
+
+    private static WorldIO loadInfo(String worldDir) {
+        if (worldDir != null) {
+            File f = new File(worldDir, WorldIO.FILE_NAME);
+            if (f.exists()) {
+                Json json = new Json();
+                json.setIgnoreUnknownFields(true);
+                return json.fromJson(WorldIO.class, new FileHandle(f).readString("UTF-8"));
+            }
+            System.out.println("GenAllocCheck: no " + f.getPath() + ", using a default world");
+        }
+        return new WorldIO(1234L, "normal", 8, "alloc-check");
+    }
+
+    private GenAllocCheck() {}
+}
@@ -0,0 +1,41 @@
+package com.atom.life.world.gen;
+
+import com.atom.life.world.light.ChunkEmitters;
+
+/**
+ * One chunk moving through the GenStage pipeline.
+ * Owned by one thread at a time. A job parked on a dependency resumes on whichever worker picks it up,
+ * so everything a later stage needs lives here rather than in thread-local GenScratch.
+ */
+public final class GenJob {
+
+    public final int cx, cz;
+    public final int sx, sy, sz;
+
+    public GenStage stage;
+
+    public byte[] blocks;
+    public HeightMap hm; // pooled by ChunkGenerator: set in NOISE, handed back (null) once FEATURES is done
+
+    /** blocks came from disk (generation stages skipped) */
+    public boolean loaded;
+
+    /** light emitters, filled by the LIGHT stage */
+    public ChunkEmitters emitters;
+
+    // timing (System.nanoTime)
+    public final long submitNs;
+    public long startNs;    // first stage started, 0 = still queued
+    public long parkedNs;   // parked on a dependency since, 0 = not parked
+    public long stageNs;    // time spent in the current stage so far (a parked stage runs in pieces)
+
+    public GenJob(int cx, int cz, int sx, int sy, int sz, GenStage first) {
+        this.cx = cx;
+        this.cz = cz;
+        this.sx = sx;
+        this.sy = sy;
+        this.sz = sz;
+        this.stage = first;
+        this.submitNs = System.nanoTime();
+    }
+}
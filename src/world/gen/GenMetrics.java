@@ -0,0 +1,156 @@
+package com.atom.life.world.gen;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histograms for the generation pipeline: one per GenStage plus queue wait,
+ * dependency wait and submit-to-ready total.
+ * - lock-free recording from any worker thread
+ * - log2 buckets with 4 sub-steps (about 19% wide), from 1 us up to ~16 s
+ */
+public final class GenMetrics {
+
+    public static final class Histogram {
+        private static final int SUB_SHIFT = 2;
+        private static final int SUB = 1 << SUB_SHIFT;
+        private static final int BUCKETS = 1 + 24 * SUB;
+
+        public final String name;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sumNs = new AtomicLong();
+        private final AtomicLong maxNs = new AtomicLong();
+
+        Histogram(String name) {
+            this.name = name;
+        }
+
+        public void record(long ns) {
+            if (ns < 0) ns = 0;
+            counts.incrementAndGet(bucket(ns / 1000L));
+            count.incrementAndGet();
+            sumNs.addAndGet(ns);
+
+            long m = maxNs.get();
+            while (ns > m && !maxNs.compareAndSet(m, ns)) m = maxNs.get();
+        }
+
+        public long count() {
+            return count.get();
+        }
+
+        public double meanMs() {
+            long n = count.get();
+            return (n == 0) ? 0.0 : sumNs.get() / (n * 1e6);
+        }
+
+        public double maxMs() {
+            return maxNs.get() / 1e6;
+        }
+
+        /** Upper edge of the bucket holding quantile q (0..1), in ms. */
+        public double percentileMs(double q) {
+            long n = count.get();
+            if (n == 0) return 0.0;
+
+            long rank = (long) Math.ceil(q * n);
+            if (rank < 1) rank = 1;
+
+            long seen = 0;
+            for (int b = 0; b < BUCKETS; b++) {
+                seen += counts.get(b);
+                if (seen >= rank) return Math.min(upperUs(b) / 1000.0, maxMs());
+            }
+            return maxMs();
+        }
+
+        void reset() {
+            for (int b = 0; b < BUCKETS; b++) counts.set(b, 0);
+            count.set(0);
+            sumNs.set(0);
+            maxNs.set(0);
+        }
+
+        void appendBuckets(StringBuilder sb) {
+            for (int b = 0; b < BUCKETS; b++) {
+                long c = counts.get(b);
+                if (c == 0) continue;
+                sb.append(String.format(Locale.ROOT, "  <= %10.3f ms  %d%n", upperUs(b) / 1000.0, c));
+            }
+        }
+
+        private static int bucket(long us) {
+            if (us < 1) return 0;
+            int lg = 63 - Long.numberOfLeadingZeros(us);
+            int sub = (lg >= SUB_SHIFT)
+                ? (int) (us >>> (lg - SUB_SHIFT)) & (SUB - 1)
+                : (int) (us << (SUB_SHIFT - lg)) & (SUB - 1);
+            return Math.min(BUCKETS - 1, 1 + lg * SUB + sub);
+        }
+
+        private static double upperUs(int b) {
+            if (b == 0) return 1.0;
+            int lg = (b - 1) >> SUB_SHIFT;
+            int sub = (b - 1) & (SUB - 1);
+            return Math.scalb((double) (SUB + sub + 1), lg - SUB_SHIFT);
+        }
+    }
+
+    private final Histogram[] stages = new Histogram[GenStage.values().length];
+
+    /** submitted -> first stage started */
+    public final Histogram queueWait = new Histogram("queue");
+    /** parked on a dependency (structure plan of a neighbor region) -> resumed */
+    public final Histogram depWait = new Histogram("deps");
+    /** submitted -> READY */
+    public final Histogram total = new Histogram("total");
+
+    public GenMetrics() {
+        for (GenStage s : GenStage.values()) stages[s.ordinal()] = new Histogram(s.label());
+    }
+
+    public Histogram stage(GenStage s) {
+        return stages[s.ordinal()];
+    }
+
+    public void record(GenStage s, long ns) {
+        stages[s.ordinal()].record(ns);
+    }
+
+    public void reset() {
+        for (Histogram h : stages) h.reset();
+        queueWait.reset();
+        depWait.reset();
+        total.reset();
+    }
+
+    /** Every histogram with samples, stages first. */
+    public Histogram[] all() {
+        Histogram[] out = new Histogram[stages.length + 3];
+        System.arraycopy(stages, 0, out, 0, stages.length);
+        out[stages.length] = queueWait;
+        out[stages.length + 1] = depWait;
+        out[stages.length + 2] = total;
+        return out;
+    }
+
+    /** "noise p50 0.120 p95 0.400 max 3.100 ms n=812" */
+    public static String line(Histogram h) {
+        return String.format(Locale.ROOT, "%-8s p50 %.3f p95 %.3f max %.3f ms n=%d",
+            h.name, h.percentileMs(0.50), h.percentileMs(0.95), h.maxMs(), h.count());
+    }
+
+    /** Full text dump: summary line plus non-empty buckets for every histogram. */
+    public String dump() {
+        StringBuilder sb = new StringBuilder(4096);
+        for (Histogram h : all()) {
+            sb.append(line(h))
+                .append(String.format(Locale.ROOT, " mean %.3f ms%n", h.meanMs()));
+            h.appendBuckets(sb);
+        }
+        return sb.toString();
+    }
+}
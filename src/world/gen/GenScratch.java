@@ -0,0 +1,30 @@
+package com.atom.life.world.gen;
+
+/**
+ * Per-thread reusable outputs for the generation kernels (ThreadLocal owned).
+ * ChunkGenerator is shared by all IO / pregen threads, so nothing here may be shared.
+ */
+public final class GenScratch {
+
+    public final HeightSampler.HeightResult height = new HeightSampler.HeightResult();
+    public final SurfaceRules.Result surface = new SurfaceRules.Result();
+    public final CaveCarver.Scratch cave = new CaveCarver.Scratch();
+
+    // ChunkFiller span table, one entry per column (z * sx + x)
+    public int[] colH = new int[0];
+    public int[] colFillFrom = new int[0];
+    public byte[] colTop = new byte[0];
+    public byte[] colFill = new byte[0];
+    public byte[] colStone = new byte[0];
+    public byte[] colFluid = new byte[0];
+
+    public void ensureSpans(int area) {
+        if (colH.length >= area) return;
+        colH = new int[area];
+        colFillFrom = new int[area];
+        colTop = new byte[area];
+        colFill = new byte[area];
+        colStone = new byte[area];
+        colFluid = new byte[area];
+    }
+}
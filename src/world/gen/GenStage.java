@@ -0,0 +1,35 @@
+package com.atom.life.world.gen;
+
+/**
+ * Chunk generation pipeline, in order.
+ * - LOAD: read the chunk file (a hit skips straight to LIGHT)
+ * - NOISE / FILL / FEATURES: ChunkGenerator (height columns, block fill, caves + structures)
+ * - LIGHT: find light emitters off the render thread
+ * - READY: publish blocks to the live Chunk
+ */
+public enum GenStage {
+    LOAD(false),
+    NOISE(true),
+    FILL(true),
+    FEATURES(true),
+    LIGHT(false),
+    READY(false);
+
+    /** run by ChunkGenerator.runStage (the rest belong to the caller, e.g. ChunkIOSystem) */
+    public final boolean generator;
+
+    private static final GenStage[] ALL = values();
+
+    GenStage(boolean generator) {
+        this.generator = generator;
+    }
+
+    /** Next stage; READY is the last one. */
+    public GenStage next() {
+        return (this == READY) ? READY : ALL[ordinal() + 1];
+    }
+
+    public String label() {
+        return name().toLowerCase();
+    }
+}
@@ -1,7 +1,7 @@
 package com.atom.life.world.gen;
 
 /**
- * Heightmap + type map for one chunk, with 1-cell border:
+ * Heightmap + type map + biome map for one chunk, with 1-cell border:
  * width = sx+1, height = sz+1.
  */
 public final class HeightMap {
@@ -11,12 +11,14 @@ public final class HeightMap {
 
     private final int[] heights;
     private final TerrainType[] types;
+    private final byte[] biomes;
 
     public HeightMap(int w, int h) {
         this.w = w;
         this.h = h;
         this.heights = new int[w * h];
         this.types = new TerrainType[w * h];
+        this.biomes = new byte[w * h];
     }
 
     private int idx(int x, int z) {
@@ -24,9 +26,14 @@ public final class HeightMap {
     }
 
     public void set(int x, int z, int height, TerrainType type) {
+        set(x, z, height, type, (byte) 0);
+    }
+
+    public void set(int x, int z, int height, TerrainType type, byte biome) {
         int i = idx(x, z);
         heights[i] = height;
         types[i] = type;
+        biomes[i] = biome;
     }
 
     public int heightAt(int x, int z) {
@@ -36,4 +43,9 @@ public final class HeightMap {
     public TerrainType typeAt(int x, int z) {
         return types[idx(x, z)];
     }
+
+    /** BiomeEngine index (0 when the world has no biomes). */
+    public int biomeAt(int x, int z) {
+        return biomes[idx(x, z)];
+    }
 }
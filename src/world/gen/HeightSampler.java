@@ -1,34 +1,43 @@
 package com.atom.life.world.gen;
 
+import java.util.Arrays;
+
 import static com.atom.life.world.gen.TerrainConfig.*;
 import static com.atom.life.world.gen.TerrainMath.*;
 
 /**
  * Samples height + dominant terrain type at world coordinates.
  * Logic matches original ChunkGenerator.computeHeightAndType() 1:1.
+ * Allocation-free: results go into a caller-owned HeightResult.
  */
 public final class HeightSampler {
 
+    /** Mutable, caller-owned (not shared between threads). */
     public static final class HeightResult {
-        public final int h;
-        public final TerrainType type;
+        public int h;
+        public TerrainType type;
 
-        public HeightResult(int h, TerrainType type) {
-            this.h = h;
-            this.type = type;
-        }
+        /** classifier scratch */
+        final TerrainClassifier.Weights w = new TerrainClassifier.Weights();
     }
 
     private final TerrainConfig cfg;
     private final NoiseField noise;
     private final TerrainClassifier classifier = new TerrainClassifier();
+    private final BiomeEngine biomes; // null = single climate
 
     public HeightSampler(TerrainConfig cfg, NoiseField noise) {
+        this(cfg, noise, null);
+    }
+
+    public HeightSampler(TerrainConfig cfg, NoiseField noise, BiomeEngine biomes) {
         this.cfg = cfg;
         this.noise = noise;
+        this.biomes = biomes;
     }
 
-    public HeightResult sample(int wx, int wz, int seaY, int sy) {
+    /** Single column without biome params (sampleTile is the biome-aware path). */
+    public void sample(int wx, int wz, int seaY, int sy, HeightResult out) {
 
         float fMacro   = freq * cfg.macroMul;
         float fDetail  = freq * cfg.detailMul;
@@ -42,6 +51,211 @@ public final class HeightSampler {
         float nBasin0 = noise.fbm(wx * fBasin,   wz * fBasin,   cfg.basinOct,   cfg.lacunarity, cfg.gain);
         float nPlat0  = noise.fbm(wx * fPlateau, wz * fPlateau, cfg.plateauOct, cfg.lacunarity, cfg.gain);
 
+        combine(nMacro, nDetail, nRidge0, nBasin0, nPlat0, 0f, 1f, 1f, 1f, seaY, sy, out);
+    }
+
+    /** Per-thread row / lattice buffers for sampleRow + sampleTile (caller-owned). */
+    public static final class RowScratch {
+        final HeightResult hr = new HeightResult();
+        float[] xs = new float[0];
+        float[] macro, detail, ridge, basin, plat;
+
+        // coarse lattice (lowFreqLattice)
+        float[] lx = new float[0], lz, lrow;
+        float[] gMacro = new float[0], gBasin, gPlat;   // lattice values
+        float[] xMacro = new float[0], xBasin, xPlat;   // lattice rows interpolated along x
+
+        // per-column biome params (BiomeEngine), row-major like the tile outputs
+        final BiomeEngine.TileScratch bts = new BiomeEngine.TileScratch();
+        float[] bOff = new float[0], bAmp, bDet, bRough;
+
+        void ensure(int n) {
+            if (xs.length >= n) return;
+            xs = new float[n];
+            macro = new float[n];
+            detail = new float[n];
+            ridge = new float[n];
+            basin = new float[n];
+            plat = new float[n];
+        }
+
+        void ensureBiome(int area) {
+            if (bOff.length >= area) return;
+            bOff = new float[area];
+            bAmp = new float[area];
+            bDet = new float[area];
+            bRough = new float[area];
+        }
+
+        void ensureLattice(int nl, int size) {
+            if (lx.length < nl) {
+                lx = new float[nl];
+                lz = new float[nl];
+                lrow = new float[nl];
+            }
+            if (gMacro.length < nl * nl) {
+                gMacro = new float[nl * nl];
+                gBasin = new float[nl * nl];
+                gPlat = new float[nl * nl];
+            }
+            if (xMacro.length < nl * size) {
+                xMacro = new float[nl * size];
+                xBasin = new float[nl * size];
+                xPlat = new float[nl * size];
+            }
+        }
+    }
+
+    /**
+     * Samples a size x size block of columns (row-major into outH/outType).
+     * With cfg.lowFreqLattice > 0 the macro/basin/plateau layers come from a world-aligned
+     * coarse lattice (Catmull-Rom), detail/ridge stay per column; wx0/wz0 must be lattice-aligned.
+     * outBiome receives the dominant biome per column (0 without a BiomeEngine).
+     */
+    public void sampleTile(int wx0, int wz0, int size, int seaY, int sy,
+                           RowScratch rs, int[] outH, TerrainType[] outType, byte[] outBiome) {
+        int area = size * size;
+        rs.ensureBiome(area);
+        if (biomes != null) {
+            biomes.sampleTile(wx0, wz0, size, rs.bts, rs.bOff, rs.bAmp, rs.bDet, rs.bRough, outBiome);
+        } else {
+            Arrays.fill(rs.bOff, 0, area, 0f);
+            Arrays.fill(rs.bAmp, 0, area, 1f);
+            Arrays.fill(rs.bDet, 0, area, 1f);
+            Arrays.fill(rs.bRough, 0, area, 1f);
+            Arrays.fill(outBiome, 0, area, (byte) 0);
+        }
+
+        int step = cfg.lowFreqLattice;
+        if (step <= 0) {
+            for (int z = 0; z < size; z++) {
+                sampleRow(wx0, wz0 + z, size, seaY, sy, rs, outH, outType, z * size);
+            }
+            return;
+        }
+
+        rs.ensure(size);
+
+        // lattice nodes: one before the block, size/step inside, two after (spline support)
+        int nl = size / step + 3;
+        rs.ensureLattice(nl, size);
+
+        int i0 = Math.floorDiv(wx0, step) - 1;
+        int j0 = Math.floorDiv(wz0, step) - 1;
+
+        latticeLayer(i0, j0, nl, step, freq * cfg.macroMul,   cfg.macroOct,   size, rs, rs.gMacro, rs.xMacro, wx0);
+        latticeLayer(i0, j0, nl, step, freq * cfg.basinMul,   cfg.basinOct,   size, rs, rs.gBasin, rs.xBasin, wx0);
+        latticeLayer(i0, j0, nl, step, freq * cfg.plateauMul, cfg.plateauOct, size, rs, rs.gPlat,  rs.xPlat,  wx0);
+
+        float fDetail = freq * cfg.detailMul;
+        float fRidge  = freq * cfg.ridgeMul;
+        float invStep = 1f / step;
+
+        float[] xs = rs.xs;
+        HeightResult hr = rs.hr;
+
+        for (int z = 0; z < size; z++) {
+            int wz = wz0 + z;
+
+            for (int i = 0; i < size; i++) xs[i] = (wx0 + i) * fDetail;
+            noise.fbmRow(xs, size, wz * fDetail, cfg.detailOct, cfg.lacunarity, cfg.gain, rs.detail);
+
+            for (int i = 0; i < size; i++) xs[i] = (wx0 + i) * fRidge;
+            noise.fbmRow(xs, size, wz * fRidge, cfg.ridgeOct, cfg.lacunarity, cfg.gain, rs.ridge);
+
+            int cell = Math.floorDiv(wz, step);
+            int r1 = cell - j0;                       // lattice row at/before wz
+            float t = (wz - cell * step) * invStep;
+
+            int b0 = (r1 - 1) * size, b1 = r1 * size, b2 = (r1 + 1) * size, b3 = (r1 + 2) * size;
+
+            for (int i = 0; i < size; i++) {
+                float nMacro = catmullRom(rs.xMacro[b0 + i], rs.xMacro[b1 + i], rs.xMacro[b2 + i], rs.xMacro[b3 + i], t);
+                float nBasin = catmullRom(rs.xBasin[b0 + i], rs.xBasin[b1 + i], rs.xBasin[b2 + i], rs.xBasin[b3 + i], t);
+                float nPlat  = catmullRom(rs.xPlat[b0 + i],  rs.xPlat[b1 + i],  rs.xPlat[b2 + i],  rs.xPlat[b3 + i],  t);
+
+                int o = z * size + i;
+                combine(nMacro, rs.detail[i], rs.ridge[i], nBasin, nPlat,
+                    rs.bOff[o], rs.bAmp[o], rs.bDet[o], rs.bRough[o], seaY, sy, hr);
+                outH[o] = hr.h;
+                outType[o] = hr.type;
+            }
+        }
+    }
+
+    /** Evaluates one layer on the nl x nl lattice, then interpolates every lattice row along x. */
+    private void latticeLayer(int i0, int j0, int nl, int step, float f, int octaves, int size,
+                              RowScratch rs, float[] grid, float[] xInterp, int wx0) {
+        for (int k = 0; k < nl; k++) {
+            rs.lx[k] = ((i0 + k) * step) * f;
+            rs.lz[k] = ((j0 + k) * step) * f;
+        }
+        noise.fbmGrid(rs.lx, nl, rs.lz, nl, octaves, cfg.lacunarity, cfg.gain, rs.lrow, grid);
+
+        float invStep = 1f / step;
+        for (int r = 0; r < nl; r++) {
+            int g = r * nl;
+            int o = r * size;
+            for (int i = 0; i < size; i++) {
+                int wx = wx0 + i;
+                int cell = Math.floorDiv(wx, step);
+                int c1 = cell - i0;
+                float t = (wx - cell * step) * invStep;
+                xInterp[o + i] = catmullRom(grid[g + c1 - 1], grid[g + c1], grid[g + c1 + 1], grid[g + c1 + 2], t);
+            }
+        }
+    }
+
+    /**
+     * Samples n columns (wx0 .. wx0+n-1, wz) with batched row fbm.
+     * Biome params are read from rs at outOff (filled by sampleTile).
+     */
+    private void sampleRow(int wx0, int wz, int n, int seaY, int sy,
+                          RowScratch rs, int[] outH, TerrainType[] outType, int outOff) {
+        rs.ensure(n);
+
+        float fMacro   = freq * cfg.macroMul;
+        float fDetail  = freq * cfg.detailMul;
+        float fRidge   = freq * cfg.ridgeMul;
+        float fBasin   = freq * cfg.basinMul;
+        float fPlateau = freq * cfg.plateauMul;
+
+        float[] xs = rs.xs;
+
+        for (int i = 0; i < n; i++) xs[i] = (wx0 + i) * fMacro;
+        noise.fbmRow(xs, n, wz * fMacro, cfg.macroOct, cfg.lacunarity, cfg.gain, rs.macro);
+
+        for (int i = 0; i < n; i++) xs[i] = (wx0 + i) * fDetail;
+        noise.fbmRow(xs, n, wz * fDetail, cfg.detailOct, cfg.lacunarity, cfg.gain, rs.detail);
+
+        for (int i = 0; i < n; i++) xs[i] = (wx0 + i) * fRidge;
+        noise.fbmRow(xs, n, wz * fRidge, cfg.ridgeOct, cfg.lacunarity, cfg.gain, rs.ridge);
+
+        for (int i = 0; i < n; i++) xs[i] = (wx0 + i) * fBasin;
+        noise.fbmRow(xs, n, wz * fBasin, cfg.basinOct, cfg.lacunarity, cfg.gain, rs.basin);
+
+        for (int i = 0; i < n; i++) xs[i] = (wx0 + i) * fPlateau;
+        noise.fbmRow(xs, n, wz * fPlateau, cfg.plateauOct, cfg.lacunarity, cfg.gain, rs.plat);
+
+        HeightResult hr = rs.hr;
+        for (int i = 0; i < n; i++) {
+            int o = outOff + i;
+            combine(rs.macro[i], rs.detail[i], rs.ridge[i], rs.basin[i], rs.plat[i],
+                rs.bOff[o], rs.bAmp[o], rs.bDet[o], rs.bRough[o], seaY, sy, hr);
+            outH[o] = hr.h;
+            outType[o] = hr.type;
+        }
+    }
+
+    /**
+     * Height + type from the five layer values and biome params
+     * (bOff added to base; bAmp scales macro/plateau/basin, bDet detail, bRough ridges).
+     * Neutral params (0, 1, 1, 1) give the exact original result.
+     */
+    private void combine(float nMacro, float nDetail, float nRidge0, float nBasin0, float nPlat0,
+                         float bOff, float bAmp, float bDet, float bRough,
+                         int seaY, int sy, HeightResult out) {
+
         // normalize to [0,1]
         float macro01 = to01(nMacro);
         float basin01 = to01(nBasin0);
@@ -50,21 +264,22 @@ public final class HeightSampler {
         // ridged noise in [0,1] (peaks)
         float ridge01 = ridged01(nRidge0);
 
-        TerrainClassifier.Result prelim = classifier.classify(
-            cfg, macro01, basin01, plat01, ridge01, nDetail, /*h*/ 1, seaY
+        TerrainClassifier.Weights w = out.w;
+        classifier.classify(
+            cfg, macro01, basin01, plat01, ridge01, nDetail, /*h*/ 1, seaY, w
         );
 
-        float basinW   = prelim.w.basinW;
-        float plateauW = prelim.w.plateauW;
-        float mountainW= prelim.w.mountainW;
+        float basinW   = w.basinW;
+        float plateauW = w.plateauW;
+        float mountainW= w.mountainW;
 
-        float hBase = base;
+        float hBase = base + bOff;
 
-        float hMacro = nMacro * (amp * cfg.macroAmpMul);
-        float hDetail = nDetail * (amp * cfg.detailAmpMul);
-        float hRidge = ridge01 * (amp * cfg.ridgeAmpMul) * mountainW;
-        float hBasin = basinW * (amp * cfg.basinAmpMul);
-        float hPlateau = plateauW * (amp * cfg.plateauAmpMul);
+        float hMacro = nMacro * (amp * cfg.macroAmpMul) * bAmp;
+        float hDetail = nDetail * (amp * cfg.detailAmpMul) * bDet;
+        float hRidge = ridge01 * (amp * cfg.ridgeAmpMul) * mountainW * bRough;
+        float hBasin = basinW * (amp * cfg.basinAmpMul) * bAmp;
+        float hPlateau = plateauW * (amp * cfg.plateauAmpMul) * bAmp;
 
         float raw = hBase + hMacro + hDetail + hRidge + hPlateau - hBasin;
 
@@ -78,10 +293,9 @@ public final class HeightSampler {
         h = clampInt(h, 1, sy - 2);
 
         // Now choose dominant type with final h so the same tweak applies
-        TerrainClassifier.Result finalRes = classifier.classify(
-            cfg, macro01, basin01, plat01, ridge01, nDetail, h, seaY
+        out.h = h;
+        out.type = classifier.classify(
+            cfg, macro01, basin01, plat01, ridge01, nDetail, h, seaY, w
         );
-
-        return new HeightResult(h, finalRes.type);
     }
 }
@@ -20,6 +20,18 @@ public final class NoiseField {
         return perlin.fbm(x, z, octaves, lacunarity, gain);
     }
 
+    /** out[i] = fbm(xs[i], z, ...) for i in [0, n); bit-identical to fbm(). */
+    public void fbmRow(float[] xs, int n, float z, int octaves, float lacunarity, float gain, float[] out) {
+        perlin.fbmRow(xs, n, z, octaves, lacunarity, gain, out);
+    }
+
+    /** out[j * w + i] = fbm(xs[i], zs[j], ...); row is scratch of length >= w. */
+    public void fbmGrid(float[] xs, int w, float[] zs, int h,
+                        int octaves, float lacunarity, float gain,
+                        float[] row, float[] out) {
+        perlin.fbmGrid(xs, w, zs, h, octaves, lacunarity, gain, row, out);
+    }
+
     /** n in [-1,1] -> ridge in [0,1] (same transform as original) */
     public float ridged01FromNoise(float n) {
         return ridged01(n);
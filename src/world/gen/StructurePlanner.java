@@ -0,0 +1,435 @@
+package com.atom.life.world.gen;
+
+import com.atom.life.world.blocks.BlockRegistry;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.JsonReader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cross-chunk structure placement (dist/structures).
+ * - every template has an anchor grid (anchorGridChunks); each anchor cell rolls at most one instance
+ * - instances are planned once per REGION x REGION chunks, from seed + ColumnCache only (no chunk data),
+ *   so the plan never depends on which chunk asked first or on thread timing
+ * - a chunk stamps only the part of each instance that intersects it; neighbors read the same cached plan
+ * - overlapping instances are applied in one global order (region z, region x, plan order),
+ *   so every chunk resolves replace rules the same way => seam-free across chunk borders
+ * - pipeline workers use plansReady: a region being planned by another thread parks the caller
+ *   instead of blocking it (the plan is never computed twice)
+ */
+public final class StructurePlanner {
+
+    public static final String DIR = "structures";
+
+    /** plan region, in chunks */
+    public static final int REGION_SHIFT = 3;
+    public static final int REGION = 1 << REGION_SHIFT;
+
+    private static final int MAX_REGIONS = 1024;
+
+    /** One placed structure (world space, already rotated/mirrored). */
+    static final class Instance {
+        final StructureTemplate t;
+        final int x0, y0, z0;   // min corner
+        final int rot;          // 0..3 (x90 degrees)
+        final boolean mirror;
+        final int fx, fz;       // footprint after rotation
+
+        Instance(StructureTemplate t, int x0, int y0, int z0, int rot, boolean mirror) {
+            this.t = t;
+            this.x0 = x0;
+            this.y0 = y0;
+            this.z0 = z0;
+            this.rot = rot;
+            this.mirror = mirror;
+            this.fx = ((rot & 1) == 0) ? t.sizeX : t.sizeZ;
+            this.fz = ((rot & 1) == 0) ? t.sizeZ : t.sizeX;
+        }
+    }
+
+    private static final Instance[] NONE = new Instance[0];
+
+    private static final class Region {
+        final int rx, rz;
+        Instance[] instances = NONE;
+
+        final ReentrantLock planLock = new ReentrantLock();
+        ArrayList<Runnable> waiters; // guarded by this
+
+        volatile boolean ready;
+        volatile long lastUse;
+
+        Region(int rx, int rz) {
+            this.rx = rx;
+            this.rz = rz;
+        }
+    }
+
+    private final long seed;
+    private final StructureTemplate[] templates;
+    private final boolean[][] biomeAllowed; // per template, null = any biome
+    private final ColumnCache columns;
+    private final int chunkSize;
+    private final int seaY;
+
+    /** max blocks an instance can reach past its region's high edge (cell overhang + footprint) */
+    private final int reach;
+
+    private final ConcurrentHashMap<Long, Region> regions = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final ReentrantLock evictLock = new ReentrantLock();
+
+    private StructurePlanner(long seed, StructureTemplate[] templates, BiomeEngine biomes,
+                             ColumnCache columns, int chunkSize, int seaY) {
+        this.seed = seed;
+        this.templates = templates;
+        this.columns = columns;
+        this.chunkSize = chunkSize;
+        this.seaY = seaY;
+
+        this.biomeAllowed = new boolean[templates.length][];
+        int r = 0;
+        for (int i = 0; i < templates.length; i++) {
+            StructureTemplate t = templates[i];
+
+            // without world biomes the biome filter does not apply
+            if (biomes != null && t.biomeNames.length > 0) {
+                boolean[] ok = new boolean[biomes.count()];
+                for (String name : t.biomeNames) {
+                    int b = biomeIndex(biomes, name);
+                    if (b >= 0) ok[b] = true;
+                    else System.out.println("[Structures] " + t.name + ": unknown biome " + name);
+                }
+                biomeAllowed[i] = ok;
+            }
+
+            int overhang = (t.anchorGridChunks - 1) * chunkSize;
+            int foot = Math.max(t.sizeX, t.sizeZ);
+            r = Math.max(r, overhang + foot);
+        }
+        this.reach = r;
+    }
+
+    private static int biomeIndex(BiomeEngine biomes, String name) {
+        for (int b = 0; b < biomes.count(); b++) {
+            if (biomes.name(b).equalsIgnoreCase(name.trim())) return b;
+        }
+        return -1;
+    }
+
+    /**
+     * Loads structures/index.txt (one template file per line, # comments) from internal files.
+     * Returns null if nothing is enabled or files are unavailable.
+     */
+    public static StructurePlanner loadOrNull(long seed, BiomeEngine biomes, ColumnCache columns, int chunkSize, int seaY) {
+        if (Gdx.files == null) return null;
+
+        FileHandle dir = Gdx.files.internal(DIR);
+        FileHandle index = dir.child("index.txt");
+        if (!index.exists()) return null;
+
+        Array<StructureTemplate> list = new Array<>();
+        JsonReader reader = new JsonReader();
+
+        for (String line : index.readString("UTF-8").split("\\r?\\n")) {
+            String fileName = line.trim();
+            if (fileName.isEmpty() || fileName.startsWith("#")) continue;
+
+            FileHandle f = dir.child(fileName);
+            if (!f.exists()) {
+                System.out.println("[Structures] missing " + fileName);
+                continue;
+            }
+            try {
+                StructureTemplate t = StructureTemplate.parseOrNull(reader.parse(f));
+                if (t != null) list.add(t);
+            } catch (Throwable ex) {
+                System.err.println("[Structures] " + fileName + ": " + ex);
+            }
+        }
+
+        if (list.size == 0) return null;
+        return new StructurePlanner(seed, list.toArray(StructureTemplate.class), biomes, columns, chunkSize, seaY);
+    }
+
+    public void resolveOnce(BlockRegistry registry, BlockIdResolver ids) {
+        for (StructureTemplate t : templates) t.resolveOnce(registry, ids);
+    }
+
+    public int templateCount() {
+        return templates.length;
+    }
+
+    public int cachedRegions() {
+        return regions.size();
+    }
+
+    /**
+     * Non-blocking check that every region stamp(cx, cz) reads is planned.
+     * Unplanned regions are planned on this thread; if another thread is planning one, resume is parked on it
+     * and false is returned (resume then runs once, on the planning thread, when that plan is ready).
+     */
+    public boolean plansReady(int cx, int cz, int sx, int sz, Runnable resume) {
+        int wx0 = cx * sx, wz0 = cz * sz;
+        int rx0 = regionLo(wx0), rx1 = regionHi(wx0 + sx - 1);
+        int rz0 = regionLo(wz0), rz1 = regionHi(wz0 + sz - 1);
+
+        for (int rz = rz0; rz <= rz1; rz++) {
+            for (int rx = rx0; rx <= rx1; rx++) {
+                Region r = entry(rx, rz);
+                if (r.ready) continue;
+
+                if (r.planLock.tryLock()) {
+                    ArrayList<Runnable> parked;
+                    try {
+                        parked = planLocked(r);
+                    } finally {
+                        r.planLock.unlock();
+                    }
+                    runWaiters(parked);
+                    continue;
+                }
+
+                synchronized (r) {
+                    if (!r.ready) {
+                        if (r.waiters == null) r.waiters = new ArrayList<>(2);
+                        r.waiters.add(resume);
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Writes the parts of all planned instances that intersect chunk (cx, cz) into blocks. */
+    public void stamp(byte[] blocks, int cx, int cz, int sx, int sy, int sz) {
+        int wx0 = cx * sx, wz0 = cz * sz;
+        int wx1 = wx0 + sx - 1, wz1 = wz0 + sz - 1;
+
+        int rx0 = regionLo(wx0), rx1 = regionHi(wx1);
+        int rz0 = regionLo(wz0), rz1 = regionHi(wz1);
+
+        for (int rz = rz0; rz <= rz1; rz++) {
+            for (int rx = rx0; rx <= rx1; rx++) {
+                for (Instance in : region(rx, rz).instances) {
+                    if (in.x0 > wx1 || in.x0 + in.fx - 1 < wx0) continue;
+                    if (in.z0 > wz1 || in.z0 + in.fz - 1 < wz0) continue;
+                    stampInstance(blocks, in, wx0, wz0, sx, sy, sz);
+                }
+            }
+        }
+    }
+
+    private static void stampInstance(byte[] blocks, Instance in, int wx0, int wz0, int sx, int sy, int sz) {
+        StructureTemplate t = in.t;
+        int maxX = t.sizeX - 1, maxZ = t.sizeZ - 1;
+
+        for (int i = 0, n = t.blockCount(); i < n; i++) {
+            int px = t.bx(i);
+            int pz = t.bz(i);
+            if (in.mirror) px = maxX - px;
+
+            int rx, rz;
+            switch (in.rot) {
+                case 1:  rx = maxZ - pz; rz = px; break;
+                case 2:  rx = maxX - px; rz = maxZ - pz; break;
+                case 3:  rx = pz; rz = maxX - px; break;
+                default: rx = px; rz = pz;
+            }
+
+            int lx = in.x0 + rx - wx0;
+            int lz = in.z0 + rz - wz0;
+            int y = in.y0 + t.by(i);
+            if (lx < 0 || lx >= sx || lz < 0 || lz >= sz || y < 1 || y >= sy) continue;
+
+            int idx = (y * sz + lz) * sx + lx;
+            if (t.mayReplace(blocks[idx])) blocks[idx] = t.id(i);
+        }
+    }
+
+    /** lowest region whose instances can reach world coordinate w0 */
+    private int regionLo(int w0) {
+        return Math.floorDiv(w0 - reach, REGION * chunkSize);
+    }
+
+    private int regionHi(int w1) {
+        return Math.floorDiv(w1, REGION * chunkSize);
+    }
+
+    private Region region(int rx, int rz) {
+        Region r = entry(rx, rz);
+        if (!r.ready) plan(r);
+        return r;
+    }
+
+    private Region entry(int rx, int rz) {
+        long key = ((long) rx << 32) | (rz & 0xFFFFFFFFL);
+
+        Region r = regions.get(key);
+        if (r == null) {
+            Region fresh = new Region(rx, rz);
+            r = regions.putIfAbsent(key, fresh);
+            if (r == null) {
+                r = fresh;
+                if (regions.size() > MAX_REGIONS) evictOldest();
+            }
+        }
+
+        r.lastUse = clock.incrementAndGet();
+        return r;
+    }
+
+    private void plan(Region r) {
+        ArrayList<Runnable> parked;
+        r.planLock.lock();
+        try {
+            parked = planLocked(r);
+        } finally {
+            r.planLock.unlock();
+        }
+        runWaiters(parked);
+    }
+
+    /**
+     * Plans every anchor cell whose first chunk lies inside the region, all templates, fixed order.
+     * A region whose planning fails is left without structures, but still becomes ready: parked chunks must resume.
+     * Returns the parked resumes (or null); the caller runs them after releasing planLock, since a resume
+     * may run a whole generation task inline.
+     */
+    private ArrayList<Runnable> planLocked(Region r) {
+        if (r.ready) return null;
+
+        Instance[] planned = NONE;
+        try {
+            Array<Instance> out = new Array<>(false, 16, Instance.class);
+            int c0x = r.rx << REGION_SHIFT, c0z = r.rz << REGION_SHIFT;
+
+            for (int ti = 0; ti < templates.length; ti++) {
+                int g = templates[ti].anchorGridChunks;
+                int ax0 = Math.floorDiv(c0x + g - 1, g), ax1 = Math.floorDiv(c0x + REGION - 1, g);
+                int az0 = Math.floorDiv(c0z + g - 1, g), az1 = Math.floorDiv(c0z + REGION - 1, g);
+
+                for (int az = az0; az <= az1; az++) {
+                    for (int ax = ax0; ax <= ax1; ax++) {
+                        Instance in = planAnchor(ti, ax, az);
+                        if (in != null) out.add(in);
+                    }
+                }
+            }
+
+            if (out.size > 0) planned = out.toArray();
+        } catch (Throwable ex) {
+            System.err.println("[Structures] planning region " + r.rx + "," + r.rz + " failed, left empty: " + ex);
+            ex.printStackTrace();
+        }
+        r.instances = planned;
+
+        ArrayList<Runnable> parked;
+        synchronized (r) {
+            r.ready = true;
+            parked = r.waiters;
+            r.waiters = null;
+        }
+        return parked;
+    }
+
+    private static void runWaiters(ArrayList<Runnable> parked) {
+        if (parked == null) return;
+        for (Runnable w : parked) w.run();
+    }
+
+    private Instance planAnchor(int ti, int ax, int az) {
+        StructureTemplate t = templates[ti];
+
+        long h = mix(seed ^ mix(ti * 0x9E3779B97F4A7C15L + ax) ^ mix(((long) az << 20) ^ 0x632BE59BD9B4E019L));
+        float chance = Math.min(1f, t.chancePerAnchor * t.weight);
+        if (unit(h) >= chance) return null;
+
+        h = mix(h);
+        int rot = (t.rotations > 1) ? (int) ((h >>> 8) % t.rotations) * (4 / t.rotations) : 0;
+        boolean mirror = t.allowMirror && (h & 1L) != 0;
+
+        int fx = ((rot & 1) == 0) ? t.sizeX : t.sizeZ;
+        int fz = ((rot & 1) == 0) ? t.sizeZ : t.sizeX;
+
+        // keep origins minDistance/2 away from cell edges => instances of neighboring cells stay minDistance apart
+        int cell = t.anchorGridChunks * chunkSize;
+        int margin = Math.min(t.minDistance / 2, (cell - 1) / 2);
+        int span = cell - 2 * margin;
+
+        h = mix(h);
+        int x0 = ax * cell + margin + (int) ((h >>> 1) % span);
+        h = mix(h);
+        int z0 = az * cell + margin + (int) ((h >>> 1) % span);
+
+        int cxw = x0 + fx / 2;
+        int czw = z0 + fz / 2;
+        int ground = columns.heightAt(cxw, czw);
+
+        if (!t.terrainTypes.isEmpty() && !t.terrainTypes.contains(columns.typeAt(cxw, czw))) return null;
+
+        boolean[] allowed = biomeAllowed[ti];
+        if (allowed != null && !allowed[columns.biomeAt(cxw, czw)]) return null;
+
+        int y0;
+        if (t.onSurfaceOnly) {
+            if (ground < t.heightMin || ground > t.heightMax) return null;
+            y0 = ground + 1 - t.buryDepth;
+        } else {
+            h = mix(h);
+            int lo = Math.max(1, t.heightMin);
+            int hi = Math.min(columns.sy() - t.sizeY, t.heightMax);
+            if (hi < lo) return null;
+            y0 = lo + (int) ((h >>> 1) % (hi - lo + 1));
+        }
+
+        if (t.surfaceMustBeSolid) {
+            // dry land under the center and all four footprint corners
+            if (ground < seaY) return null;
+            if (columns.heightAt(x0, z0) < seaY || columns.heightAt(x0 + fx - 1, z0) < seaY) return null;
+            if (columns.heightAt(x0, z0 + fz - 1) < seaY || columns.heightAt(x0 + fx - 1, z0 + fz - 1) < seaY) return null;
+        }
+
+        if (y0 < 1 || y0 + t.sizeY > columns.sy()) return null;
+        return new Instance(t, x0, y0, z0, rot, mirror);
+    }
+
+    private static long mix(long z) {
+        // splitmix64 finalizer
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static float unit(long h) {
+        return (h >>> 40) * 0x1.0p-24f;
+    }
+
+    /** Drops the older half of the regions (a dropped region is simply re-planned, with the same result). */
+    private void evictOldest() {
+        if (!evictLock.tryLock()) return;
+        try {
+            if (regions.size() <= MAX_REGIONS) return;
+
+            long[] stamps = new long[regions.size()];
+            int n = 0;
+            for (Region r : regions.values()) {
+                if (n == stamps.length) break;
+                stamps[n++] = r.lastUse;
+            }
+            Arrays.sort(stamps, 0, n);
+            long cutoff = stamps[n / 2];
+
+            regions.values().removeIf(r -> r.lastUse < cutoff);
+        } finally {
+            evictLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.atom.life.world.gen;
+
+import com.atom.life.world.blocks.BlockRegistry;
+import com.badlogic.gdx.utils.JsonValue;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+
+/**
+ * One structure from dist/structures/*.json, parsed and resolved once.
+ * - spawn rules (anchor grid, chance, biomes, terrain types, height range)
+ * - placement rules (rotation, mirror, bury depth, replace rules as 256-entry id tables)
+ * - blocks as packed parallel arrays (template space, before rotation)
+ */
+public final class StructureTemplate {
+
+    public enum ReplaceMode {
+        /** anything except forbidReplace */
+        ANY,
+        /** only air (and fluid) */
+        AIR,
+        /** only canReplace */
+        LIST;
+
+        static ReplaceMode fromString(String s) {
+            if (s == null) return ANY;
+            switch (s.trim().toUpperCase()) {
+                case "AIR":
+                case "AIR_ONLY":
+                    return AIR;
+                case "LIST":
+                case "ONLY_LISTED":
+                    return LIST;
+                default:
+                    return ANY;
+            }
+        }
+    }
+
+    public final String name;
+
+    // spawn
+    public final float weight;
+    public final float chancePerAnchor;
+    public final int anchorGridChunks;
+    public final int minDistance;
+    public final String[] biomeNames;          // empty = any biome
+    public final EnumSet<TerrainType> terrainTypes; // empty = any type
+    public final int heightMin, heightMax;
+    public final boolean onSurfaceOnly;
+    public final boolean surfaceMustBeSolid;
+
+    // placement
+    /** rotation steps that may be picked: 1 (none), 2 (0/180) or 4 (any multiple of 90) */
+    public final int rotations;
+    public final boolean allowMirror;
+    public final int buryDepth;
+    public final ReplaceMode replaceMode;
+    private final String[] canReplaceNames, forbidReplaceNames;
+
+    // shape
+    public final int sizeX, sizeY, sizeZ;
+    private final byte[] bx, by, bz;
+    private final String[] blockNames;
+
+    // resolved once (registry)
+    private volatile boolean resolved = false;
+    private byte[] ids;
+    private boolean[] canReplace;   // LIST mode
+    private boolean[] forbid;
+    private boolean[] replaceable;  // AIR mode
+
+    private StructureTemplate(JsonValue root) {
+        name = root.getString("name", "structure");
+
+        JsonValue spawn = root.get("spawn");
+        weight = (spawn != null) ? spawn.getFloat("weight", 1f) : 1f;
+        chancePerAnchor = (spawn != null) ? spawn.getFloat("chancePerAnchor", 0f) : 0f;
+        anchorGridChunks = Math.max(1, (spawn != null) ? spawn.getInt("anchorGridChunks", 1) : 1);
+        minDistance = Math.max(0, (spawn != null) ? spawn.getInt("minDistance", 0) : 0);
+        biomeNames = strings(spawn, "biomes");
+        terrainTypes = EnumSet.noneOf(TerrainType.class);
+        for (String t : strings(spawn, "terrainTypes")) {
+            try {
+                terrainTypes.add(TerrainType.valueOf(t.trim().toUpperCase()));
+            } catch (IllegalArgumentException ex) {
+                System.out.println("[Structures] " + name + ": unknown terrain type " + t);
+            }
+        }
+        heightMin = (spawn != null) ? spawn.getInt("heightMin", 0) : 0;
+        heightMax = (spawn != null) ? spawn.getInt("heightMax", Integer.MAX_VALUE) : Integer.MAX_VALUE;
+        onSurfaceOnly = spawn == null || spawn.getBoolean("onSurfaceOnly", true);
+        surfaceMustBeSolid = spawn == null || spawn.getBoolean("surfaceMustBeSolid", true);
+
+        JsonValue place = root.get("placement");
+        String rot = (place != null) ? place.getString("rotation", "none") : "none";
+        switch (rot.trim().toLowerCase()) {
+            case "y90":
+                rotations = 4;
+                break;
+            case "y180":
+                rotations = 2;
+                break;
+            default:
+                rotations = 1;
+        }
+        allowMirror = place != null && place.getBoolean("allowMirror", false);
+        buryDepth = Math.max(0, (place != null) ? place.getInt("buryDepth", 0) : 0);
+        replaceMode = ReplaceMode.fromString((place != null) ? place.getString("replaceMode", "ANY") : "ANY");
+        canReplaceNames = strings(place, "canReplace");
+        forbidReplaceNames = strings(place, "forbidReplace");
+
+        JsonValue size = root.get("size");
+        int sx = 1, sy = 1, sz = 1;
+        if (size != null) {
+            sx = Math.max(1, size.getInt("x", 1));
+            sy = Math.max(1, size.getInt("y", 1));
+            sz = Math.max(1, size.getInt("z", 1));
+        }
+
+        JsonValue arr = root.get("blocks");
+        int n = (arr != null && arr.isArray()) ? arr.size : 0;
+        byte[] x = new byte[n], y = new byte[n], z = new byte[n];
+        String[] names = new String[n];
+        int k = 0;
+        for (JsonValue b = (n > 0) ? arr.child : null; b != null; b = b.next) {
+            int px = b.getInt("x", -1), py = b.getInt("y", -1), pz = b.getInt("z", -1);
+            // blocks outside the declared size (or the byte range) are dropped
+            if (px < 0 || py < 0 || pz < 0 || px >= sx || py >= sy || pz >= sz || px > 127 || py > 127 || pz > 127) {
+                System.out.println("[Structures] " + name + ": block outside size at " + px + "," + py + "," + pz);
+                continue;
+            }
+            x[k] = (byte) px;
+            y[k] = (byte) py;
+            z[k] = (byte) pz;
+            names[k] = b.getString("id", "air");
+            k++;
+        }
+
+        sizeX = sx;
+        sizeY = sy;
+        sizeZ = sz;
+        bx = Arrays.copyOf(x, k);
+        by = Arrays.copyOf(y, k);
+        bz = Arrays.copyOf(z, k);
+        blockNames = Arrays.copyOf(names, k);
+    }
+
+    /** Returns null if the json is not an enabled structure. */
+    static StructureTemplate parseOrNull(JsonValue root) {
+        if (root == null || !root.getBoolean("enabled", true)) return null;
+        StructureTemplate t = new StructureTemplate(root);
+        if (t.blockCount() == 0 || t.chancePerAnchor <= 0f || t.weight <= 0f) return null;
+        return t;
+    }
+
+    private static String[] strings(JsonValue parent, String key) {
+        JsonValue v = (parent != null) ? parent.get(key) : null;
+        if (v == null || !v.isArray()) return new String[0];
+        String[] out = new String[v.size];
+        int i = 0;
+        for (JsonValue s = v.child; s != null; s = s.next) out[i++] = s.asString();
+        return out;
+    }
+
+    public void resolveOnce(BlockRegistry registry, BlockIdResolver gen) {
+        if (resolved) return;
+        synchronized (this) {
+            if (resolved) return;
+
+            byte air = gen.air();
+            byte[] r = new byte[blockNames.length];
+            for (int i = 0; i < r.length; i++) {
+                r[i] = registry.idByName(blockNames[i], air);
+            }
+
+            boolean[] can = new boolean[256];
+            for (String s : canReplaceNames) {
+                byte id = registry.idByName(s, air);
+                if (id != air || "air".equalsIgnoreCase(s)) can[id & 0xFF] = true;
+            }
+
+            boolean[] no = new boolean[256];
+            for (String s : forbidReplaceNames) {
+                byte id = registry.idByName(s, air);
+                if (id != air || "air".equalsIgnoreCase(s)) no[id & 0xFF] = true;
+            }
+
+            boolean[] soft = new boolean[256];
+            soft[air & 0xFF] = true;
+            soft[gen.water() & 0xFF] = true;
+
+            ids = r;
+            canReplace = can;
+            forbid = no;
+            replaceable = soft;
+            resolved = true;
+        }
+    }
+
+    public int blockCount() {
+        return bx.length;
+    }
+
+    public int bx(int i) { return bx[i]; }
+    public int by(int i) { return by[i]; }
+    public int bz(int i) { return bz[i]; }
+    public byte id(int i) { return ids[i]; }
+
+    /** Whether a block of this structure may overwrite the existing block. */
+    public boolean mayReplace(byte existing) {
+        int e = existing & 0xFF;
+        if (forbid[e]) return false;
+        switch (replaceMode) {
+            case AIR:
+                return replaceable[e];
+            case LIST:
+                return canReplace[e];
+            case ANY:
+            default:
+                return true;
+        }
+    }
+}
@@ -4,19 +4,14 @@ import static com.atom.life.world.gen.TerrainMath.*;
 
 public final class SurfaceRules {
 
+    /** Mutable, caller-owned. */
     public static final class Result {
-        public final boolean sandySurface;
-        public final boolean snowySurface;
-        public final int topSoil;
-
-        public Result(boolean sandySurface, boolean snowySurface, int topSoil) {
-            this.sandySurface = sandySurface;
-            this.snowySurface = snowySurface;
-            this.topSoil = topSoil;
-        }
+        public boolean sandySurface;
+        public boolean snowySurface;
+        public int topSoil;
     }
 
-    public Result eval(TerrainType t, int h, int seaY, int slope, int snowLine) {
+    public void eval(TerrainType t, int h, int seaY, int slope, int snowLine, Result out) {
 
         boolean isMountain = (t == TerrainType.MOUNTAINS);
         boolean isBasin = (t == TerrainType.BASIN);
@@ -35,6 +30,8 @@ public final class SurfaceRules {
             topSoil = (slope >= 2) ? 1 : 2;
         }
 
-        return new Result(sandySurface, snowySurface, topSoil);
+        out.sandySurface = sandySurface;
+        out.snowySurface = snowySurface;
+        out.topSoil = topSoil;
     }
 }
@@ -5,43 +5,29 @@ import static com.atom.life.world.gen.TerrainMath.*;
 /**
  * Computes terrain weights and chooses dominant TerrainType.
  * Logic matches original ChunkGenerator 1:1.
+ * Allocation-free: weights go into a caller-owned Weights.
  */
 public final class TerrainClassifier {
 
+    /** Mutable, caller-owned (one per thread / sampler call site). */
     public static final class Weights {
-        public final float plainsW;
-        public final float plateauW;
-        public final float hillsW;
-        public final float basinW;
-        public final float mountainW;
-
-        public Weights(float plainsW, float plateauW, float hillsW, float basinW, float mountainW) {
-            this.plainsW = plainsW;
-            this.plateauW = plateauW;
-            this.hillsW = hillsW;
-            this.basinW = basinW;
-            this.mountainW = mountainW;
-        }
+        public float plainsW;
+        public float plateauW;
+        public float hillsW;
+        public float basinW;
+        public float mountainW;
     }
 
-    public static final class Result {
-        public final TerrainType type;
-        public final Weights w;
-
-        public Result(TerrainType type, Weights w) {
-            this.type = type;
-            this.w = w;
-        }
-    }
-
-    public Result classify(TerrainConfig cfg,
+    /** Fills w and returns the dominant type. */
+    public TerrainType classify(TerrainConfig cfg,
                            float macro01,
                            float basin01,
                            float plat01,
                            float ridge01,
                            float nDetail,
                            int h,
-                           int seaY) {
+                           int seaY,
+                           Weights w) {
 
         // basin stronger where basin01 is high
         float basinW = smoothstep(cfg.basinA, cfg.basinB, basin01);
@@ -71,6 +57,12 @@ public final class TerrainClassifier {
         // small tweak: if very low and close to sea, prefer basin for shore shaping
         if (h <= seaY + 2 && basinW > 0.35f) type = TerrainType.BASIN;
 
-        return new Result(type, new Weights(plainsW, plateauW, hillsW, basinW, mountainW));
+        w.plainsW = plainsW;
+        w.plateauW = plateauW;
+        w.hillsW = hillsW;
+        w.basinW = basinW;
+        w.mountainW = mountainW;
+
+        return type;
     }
 }
@@ -45,8 +45,21 @@ public final class TerrainConfig {
     public final int snowLineMin = 8;
     public final int snowLineMaxMargin = 8; // snowLine <= sy-8
 
+    /**
+     * Per-world option (world.json "lowFreqLattice"):
+     * 0 = every layer at every column (reference);
+     * 2/4/8/16 = macro/basin/plateau sampled every N blocks + Catmull-Rom interpolation.
+     */
+    public int lowFreqLattice = 0;
+
     public static final int seaLevel = 62;
     public static final int base = 65;
     public static final float freq = 0.008f;
     public static final float amp = 35f;
+
+    /** Lattice steps that divide ColumnCache.TILE (keeps lattice world-aligned across tiles). */
+    public static int normalizeLattice(int n) {
+        if (n == 2 || n == 4 || n == 8 || n == 16) return n;
+        return 0;
+    }
 }
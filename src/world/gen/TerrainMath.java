@@ -65,4 +65,14 @@ public final class TerrainMath {
         float shaped = frac * 0.35f;
         return base + shaped * step;
     }
+
+    /** Catmull-Rom spline through p1..p2 (t in [0,1]); C1-continuous, passes through lattice values. */
+    public static float catmullRom(float p0, float p1, float p2, float p3, float t) {
+        float t2 = t * t;
+        float t3 = t2 * t;
+        return 0.5f * ((2f * p1)
+            + (p2 - p0) * t
+            + (2f * p0 - 5f * p1 + 4f * p2 - p3) * t2
+            + (3f * p1 - p0 - 3f * p2 + p3) * t3);
+    }
 }
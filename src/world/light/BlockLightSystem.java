@@ -6,18 +6,44 @@ import com.atom.life.world.ChunkStore;
 import com.atom.life.world.MeshSystem;
 import com.atom.life.world.World;
 
-import static com.atom.life.GlobalVariables.debug;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * Block light and sky light, computed on one dedicated worker thread ("light-worker").
+ * - two channels in Chunk.light, each with its own queues and propagator, lit in the same passes;
+ *   block light carries R, G, B levels (emitter color from blocks.json "lightColor") spread together
+ * - sky light is a level (0..MAX_SKY_LIGHT), day/night is applied by the shader, so time of day never remeshes
+ * - callers (render thread, IO threads) only enqueue: chunk-ready and block edits
+ * - the worker owns queues / propagation; a pass is propagated in SLICE_NS slices and resumes where it stopped
+ * - remesh is deferred until the pass settles (queues drained): one flush of every touched chunk,
+ *   so MeshSystem never meshes half-propagated light (in-flight builds are invalidated);
+ *   in light texture mode light-only changes are texture uploads and only edited chunks remesh
+ * - edits join the open pass at the next slice boundary (until it is MAX_JOIN_NS old, so a pass always settles);
+ *   a new pass takes the READY_BATCH pending chunk arrivals nearest to the player
+ */
 public final class BlockLightSystem {
 
+    /** per color lane; at most 7 (LightLanes keeps a guard bit above each lane) */
     public static final int MAX_LIGHT = 7;
+    public static final int MAX_SKY_LIGHT = 15;
 
-    private static final int MAX_ADD_POP = 800_000;
-    private static final int MAX_REM_POP = 800_000;
+    /** chunk arrivals lit in one pass */
+    private static final int READY_BATCH = 8;
+
+    /** propagation time per slice; between slices new edits are absorbed and the CPU is yielded */
+    private static final long SLICE_NS = 2_000_000L;
+
+    /** a pass older than this stops taking new edits, so a steady stream of edits cannot keep it open */
+    private static final long MAX_JOIN_NS = 50_000_000L;
 
     private final World world;
+    private final ChunkStore store;
+    private final MeshSystem meshSystem;
 
-    private final LocalPacker packer;
     private final LightCaches caches;
     private final LightQueues queues;
     private final TouchedChunksTracker touched;
@@ -25,112 +51,327 @@ public final class BlockLightSystem {
     private final LightPropagator propagator;
     private final LightSeeder seeder;
 
-    // batching
+    private final LightQueues skyQueues;
+    private final LightAccess skyAccess;
+    private final LightPropagator skyPropagator;
+    private final SkyLightSeeder skySeeder;
+
+    /** One block change; a batch is a chain linked through next (applied in one pass). */
+    private static final class Edit {
+        final int wx, wy, wz;
+        final byte oldId, newId;
+        final long queuedNs;
+        Edit next;
+
+        Edit(int wx, int wy, int wz, byte oldId, byte newId) {
+            this.wx = wx;
+            this.wy = wy;
+            this.wz = wz;
+            this.oldId = oldId;
+            this.newId = newId;
+            this.queuedNs = System.nanoTime();
+        }
+    }
+
+    private final ConcurrentLinkedQueue<Edit> edits = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Chunk> ready = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger readyCount = new AtomicInteger();
+
+    private final AtomicBoolean closing = new AtomicBoolean(false);
+    private volatile boolean busy = false;
+    private final Thread worker;
+
+    private volatile int playerCx, playerCz;
+
+    // edit latency (queued -> light applied + remesh requested), for the debug overlay
+    private volatile long lastEditLatencyNs = 0;
+    private volatile long maxEditLatencyNs = 0;
+
+    // batching (caller thread)
     private int batchDepth = 0;
-    private boolean batching = false;
+    private Edit batchHead, batchTail;
+
+    // worker-owned pass state
+    private volatile boolean passOpen = false;
+    private long passStartNs;
+    private long passOldestEditNs;
+    private final ArrayList<Chunk> readyPending = new ArrayList<>();
+    private final ArrayList<Chunk> passReady = new ArrayList<>(READY_BATCH);
 
     public BlockLightSystem(World world, BlockRegistry registry, ChunkStore store, MeshSystem meshSystem) {
         this.world = world;
+        this.store = store;
+        this.meshSystem = meshSystem;
 
-        this.packer = new LocalPacker();
         this.caches = new LightCaches(registry, MAX_LIGHT);
-        this.queues = new LightQueues();
+        this.queues = new LightQueues(store, MAX_LIGHT, 0, 3);
         this.touched = new TouchedChunksTracker(store, meshSystem);
 
-        this.access = new LightAccess(store, touched, queues, packer);
-        this.propagator = new LightPropagator(world, store, access, caches, queues, packer, MAX_ADD_POP, MAX_REM_POP);
+        this.access = new LightAccess(store, touched, queues);
+        this.propagator = new LightPropagator(caches, queues, touched, false);
         this.seeder = new LightSeeder(world, store, access, caches);
+
+        this.skyQueues = new LightQueues(store, MAX_SKY_LIGHT, Chunk.SKY_LIGHT_SHIFT, 1);
+        this.skyAccess = new LightAccess(store, touched, skyQueues);
+        this.skyPropagator = new LightPropagator(caches, skyQueues, touched, true);
+        this.skySeeder = new SkyLightSeeder(store, skyQueues, skyAccess, caches);
+
+        this.worker = new Thread(this::workerLoop, "light-worker");
+        this.worker.setDaemon(true);
+        this.worker.start();
     }
 
-    // Batch API
-    /** Begin a batch of many block changes; lighting propagation will be deferred. */
+    // Batch API (caller thread)
+    /** Begin a batch of many block changes; they are handed to the worker together and lit in one pass. */
     public void beginBatch() {
-        if (batchDepth++ == 0) {
-            batching = true;
-            queues.beginPass(true);
-            touched.beginPass();
-        }
+        batchDepth++;
     }
 
-    /** End a batch; if this closes the outermost batch, propagate once and flush touched meshes. */
+    /** End a batch; closing the outermost batch submits it. */
     public void endBatch() {
         if (batchDepth <= 0) return;
-        if (--batchDepth == 0) {
+        if (--batchDepth == 0 && batchHead != null) {
+            Edit head = batchHead;
+            batchHead = batchTail = null;
+            submit(head);
+        }
+    }
+
+    // Chunk ready (any thread)
+    public void onChunkReady(Chunk c) {
+        if (c == null || !c.isReady() || closing.get()) return;
+        ready.add(c);
+        readyCount.incrementAndGet();
+        LockSupport.unpark(worker);
+    }
+
+    // Block changed (render thread)
+    /** Queues the light update for a changed block; the worker also remeshes the chunk (and touched border neighbors). */
+    public void onBlockChanged(int wx, int wy, int wz, byte oldId, byte newId) {
+        if (wy < 0 || wy >= Chunk.SY) return;
+
+        Edit e = new Edit(wx, wy, wz, oldId, newId);
+        if (batchDepth > 0) {
+            if (batchHead == null) batchHead = e;
+            else batchTail.next = e;
+            batchTail = e;
+            return;
+        }
+        submit(e);
+    }
+
+    private void submit(Edit chain) {
+        if (closing.get()) return;
+        edits.add(chain);
+        LockSupport.unpark(worker);
+    }
+
+    /** Arrivals nearest to this chunk are lit first. */
+    public void setPlayerChunk(int cx, int cz) {
+        playerCx = cx;
+        playerCz = cz;
+    }
+
+    public int getPendingReadyCount() {
+        return readyCount.get();
+    }
+
+    public int getPendingEditCount() {
+        return edits.size();
+    }
+
+    public float getLastEditLatencyMs() {
+        return lastEditLatencyNs / 1e6f;
+    }
+
+    public float getMaxEditLatencyMs() {
+        return maxEditLatencyNs / 1e6f;
+    }
+
+    /** Nothing queued and no pass open. */
+    public boolean isIdle() {
+        return !busy && !passOpen && edits.isEmpty() && readyCount.get() == 0;
+    }
+
+    /** Stops the worker (pending work is dropped: light is not saved, it is rebuilt on load). */
+    public void shutdown(long waitMs) {
+        if (!closing.compareAndSet(false, true)) return;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(Math.max(1L, waitMs));
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+        edits.clear();
+        ready.clear();
+        readyPending.clear();
+        readyCount.set(0);
+    }
+
+    // ---- worker ----
+
+    private void workerLoop() {
+        while (!closing.get()) {
+            busy = true;
+            boolean settled = true;
             try {
-                // single propagation for whole batch
-                propagator.processQueues();
-                touched.flushTouchedRemesh();
+                long now = System.nanoTime();
+                if (!edits.isEmpty() && (!passOpen || now - passStartNs < MAX_JOIN_NS)) {
+                    absorbEdits(now);
+                }
+                if (!passOpen && readyCount.get() > 0) {
+                    beginReadyPass(now);
+                }
+                if (passOpen) {
+                    long deadline = System.nanoTime() + SLICE_NS;
+                    settled = propagator.processQueues(deadline) && skyPropagator.processQueues(deadline);
+                    if (settled) settlePass();
+                }
+            } catch (Throwable ex) {
+                ex.printStackTrace();
+                abandonPass();
             } finally {
-                batching = false;
-                // clear for next pass
-                queues.beginPass(true);
+                busy = false;
+            }
+
+            if (!settled) {
+                Thread.yield();
+            } else if (edits.isEmpty() && readyCount.get() == 0) {
+                // producers unpark after enqueueing, so a missed item only costs one loop
+                LockSupport.park(this);
             }
         }
     }
 
-    // Chunk ready
-    public void onChunkReady(Chunk c) {
-        if (c == null || !c.isReady()) return;
-
-        queues.beginPass(true);
+    private void openPass(long now) {
+        if (passOpen) return;
+        queues.beginPass();
+        skyQueues.beginPass();
         touched.beginPass();
+        passOpen = true;
+        passStartNs = now;
+        passOldestEditNs = Long.MAX_VALUE;
+    }
 
-        access.clearChunkLight(c);
+    /** Queued edits into the open pass (or a new one); their cells are enqueued, not yet propagated. */
+    private void absorbEdits(long now) {
+        openPass(now);
 
-        seeder.seedChunkSources(c);
-        seeder.seedFromNeighborBorders(c);
+        Edit chain;
+        while ((chain = edits.poll()) != null) {
+            for (Edit e = chain; e != null; e = e.next) {
+                enqueueEdit(e.wx, e.wy, e.wz, e.oldId, e.newId);
+                markEditRemesh(e.wx, e.wz);
+                if (e.queuedNs < passOldestEditNs) passOldestEditNs = e.queuedNs;
+            }
+        }
+    }
 
-        propagator.processQueues();
+    /** Queues drained: one remesh / light upload flush for the whole pass, then arrivals go to MeshSystem. */
+    private void settlePass() {
+        touched.flushTouchedRemesh(passOldestEditNs);
 
-        touched.flushTouchedRemesh();
+        for (int i = 0; i < passReady.size(); i++) meshSystem.onChunkReady(passReady.get(i));
+        passReady.clear();
 
-        if (debug) {
-            // System.out.println("[BL] onChunkReady done.");
+        if (passOldestEditNs != Long.MAX_VALUE) {
+            long lat = System.nanoTime() - passOldestEditNs;
+            lastEditLatencyNs = lat;
+            if (lat > maxEditLatencyNs) maxEditLatencyNs = lat;
         }
+        passOpen = false;
     }
 
-    // Block changed
-    public void onBlockChanged(int wx, int wy, int wz, byte oldId, byte newId) {
-        if (wy < 0 || wy >= Chunk.SY) return;
+    /** After a failure: drop the queued work but still remesh what was written. */
+    private void abandonPass() {
+        if (!passOpen) return;
+        queues.beginPass();
+        skyQueues.beginPass();
+        settlePass();
+    }
 
-        // non-batch path: keep old behavior
-        if (!batching) {
-            queues.beginPass(true);
-            touched.beginPass();
+    /** The edited chunk always remeshes (geometry); a neighbor too when the block sits on their shared face. */
+    private void markEditRemesh(int wx, int wz) {
+        int cx = Math.floorDiv(wx, Chunk.SX);
+        int cz = Math.floorDiv(wz, Chunk.SZ);
+        int lx = wx - cx * Chunk.SX;
+        int lz = wz - cz * Chunk.SZ;
 
-            onBlockChangedEnqueueOnly(wx, wy, wz, oldId, newId);
+        markChunk(cx, cz);
+        if (lx == 0) markChunk(cx - 1, cz);
+        if (lx == Chunk.SX - 1) markChunk(cx + 1, cz);
+        if (lz == 0) markChunk(cx, cz - 1);
+        if (lz == Chunk.SZ - 1) markChunk(cx, cz + 1);
+    }
 
-            propagator.processQueues();
-            touched.flushTouchedRemesh();
-            return;
+    private void markChunk(int cx, int cz) {
+        Chunk c = store.getOrNull(cx, cz);
+        if (c != null && c.isReady()) touched.markEdited(c);
+    }
+
+    /** The READY_BATCH arrivals nearest the player: cleared and seeded together as a new pass. */
+    private void beginReadyPass(long now) {
+        Chunk c;
+        while ((c = ready.poll()) != null) readyPending.add(c);
+
+        final int pcx = playerCx, pcz = playerCz;
+        int before = readyPending.size();
+        readyPending.removeIf(r -> !r.isReady());
+        readyPending.sort((a, b) -> Integer.compare(dist2(a, pcx, pcz), dist2(b, pcx, pcz)));
+
+        int n = Math.min(READY_BATCH, readyPending.size());
+        for (int i = 0; i < n; i++) passReady.add(readyPending.get(i));
+        readyPending.subList(0, n).clear();
+        readyCount.addAndGet(readyPending.size() - before);
+        if (passReady.isEmpty()) return;
+
+        openPass(now);
+
+        for (int i = 0; i < passReady.size(); i++) {
+            Chunk r = passReady.get(i);
+            access.clearChunkLight(r);
+            skySeeder.fillColumns(r);
         }
+        for (int i = 0; i < passReady.size(); i++) {
+            Chunk r = passReady.get(i);
+            seeder.seedChunkSources(r);
+            seeder.seedFromNeighborBorders(r);
+            skySeeder.seedBorders(r);
+        }
+    }
 
-        // batch path: only enqueue, defer propagate + flush
-        onBlockChangedEnqueueOnly(wx, wy, wz, oldId, newId);
+    private static int dist2(Chunk c, int pcx, int pcz) {
+        int dx = c.cx - pcx, dz = c.cz - pcz;
+        return dx * dx + dz * dz;
     }
 
     /**
      * Enqueue remove/add work for a single changed block.
-     * Assumes queues/touched already began (batch or non-batch).
+     * Assumes queues/touched already began.
      */
-    private void onBlockChangedEnqueueOnly(int wx, int wy, int wz, byte oldId, byte newId) {
+    private void enqueueEdit(int wx, int wy, int wz, byte oldId, byte newId) {
 
-        int oldL = world.getBlockLight(wx, wy, wz) & 0xFF;
+        seeder.onBlockChanged(wx, wy, wz, oldId, newId);
+
+        int oldL = access.levelAtWorld(wx, wy, wz);
 
         // 1) removal (clear this cell light then spread removal)
         if (oldL > 0) {
-            access.setLightAtWorld(wx, wy, wz, (byte) 0);
-            queues.pushRemove(wx, wy, wz, oldL);
+            access.setLightAtWorld(wx, wy, wz, 0);
+            access.enqueueRemoveWorld(wx, wy, wz, oldL);
         }
 
         // 2) new source if any
-        int newSrc = caches.emissionToLevel(newId);
+        int newSrc = caches.emission(newId);
         if (newSrc > 0) {
-            access.setLightAtWorld(wx, wy, wz, (byte) newSrc);
+            access.setLightAtWorld(wx, wy, wz, newSrc);
             access.enqueueAddWorld(wx, wy, wz);
         }
 
         // 3) reseed neighbors (reopen paths)
         seeder.seedNeighborAdd(wx, wy, wz);
+
+        // 4) sky: only when the cell starts / stops letting light through
+        skySeeder.onBlockChanged(wx, wy, wz, oldId, newId);
     }
 }
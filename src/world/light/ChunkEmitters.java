@@ -0,0 +1,88 @@
+package com.atom.life.world.light;
+
+import com.atom.life.world.Chunk;
+
+/**
+ * Light emitters of one chunk, bucketed per 16-layer section (chunk indices, Chunk.idx).
+ * - built off-thread by the LIGHT generation stage (also for chunks loaded from disk)
+ * - after publish only the light worker reads or updates it (block edits)
+ * - seeding a chunk walks this list instead of all 65,536 cells
+ */
+public final class ChunkEmitters {
+
+    public static final int SECTION_SHIFT = 32 - Integer.numberOfLeadingZeros(16 * Chunk.SX * Chunk.SZ - 1);
+    public static final int SECTIONS = (Chunk.SX * Chunk.SY * Chunk.SZ) >> SECTION_SHIFT;
+
+    private static final int[] EMPTY = new int[0];
+
+    private final int[][] items = new int[SECTIONS][];
+    private final int[] counts = new int[SECTIONS];
+    private int total;
+
+    public ChunkEmitters() {
+        for (int s = 0; s < SECTIONS; s++) items[s] = EMPTY;
+    }
+
+    /** Every emitter in blocks (reads only blocks + caches, so it is safe on any thread). */
+    public static ChunkEmitters scan(byte[] blocks, LightCaches caches) {
+        ChunkEmitters e = new ChunkEmitters();
+        for (int i = 0; i < blocks.length; i++) {
+            if (caches.isSource(blocks[i])) e.add(i);
+        }
+        return e;
+    }
+
+    public static int sectionOf(int index) {
+        return index >>> SECTION_SHIFT;
+    }
+
+    public int size() {
+        return total;
+    }
+
+    public int size(int section) {
+        return counts[section];
+    }
+
+    public int get(int section, int k) {
+        return items[section][k];
+    }
+
+    public void add(int index) {
+        int s = index >>> SECTION_SHIFT;
+        int n = counts[s];
+        int[] a = items[s];
+        if (n == a.length) {
+            int[] g = new int[Math.max(4, n << 1)];
+            System.arraycopy(a, 0, g, 0, n);
+            items[s] = a = g;
+        }
+        a[n] = index;
+        counts[s] = n + 1;
+        total++;
+    }
+
+    public boolean remove(int index) {
+        int s = index >>> SECTION_SHIFT;
+        int n = counts[s];
+        int[] a = items[s];
+        for (int k = 0; k < n; k++) {
+            if (a[k] != index) continue;
+            a[k] = a[n - 1];
+            counts[s] = n - 1;
+            total--;
+            return true;
+        }
+        return false;
+    }
+
+    /** Keeps the list in step with one block change at index. */
+    public void onBlockChanged(int index, byte oldId, byte newId, LightCaches caches) {
+        boolean was = caches.isSource(oldId);
+        boolean now = caches.isSource(newId);
+        if (was == now) return;
+
+        if (was) remove(index);
+        else add(index);
+    }
+}
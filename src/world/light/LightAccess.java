@@ -1,17 +1,18 @@
 package com.atom.life.world.light;
 
 import com.atom.life.world.Chunk;
-import com.atom.life.world.ChunkKey;
 import com.atom.life.world.ChunkStore;
 
 import java.util.Arrays;
 
+/**
+ * World/local addressing for one light channel (the channel of its LightQueues).
+ */
 public final class LightAccess {
 
     private final ChunkStore store;
     private final TouchedChunksTracker touched;
     private final LightQueues queues;
-    private final LocalPacker packer;
 
     // chunk size shortcuts
     private static final int SX = Chunk.SX;
@@ -26,85 +27,81 @@ public final class LightAccess {
     private static final int SX_SHIFT = SX_POW2 ? Integer.numberOfTrailingZeros(SX) : -1;
     private static final int SZ_SHIFT = SZ_POW2 ? Integer.numberOfTrailingZeros(SZ) : -1;
 
-    public LightAccess(ChunkStore store, TouchedChunksTracker touched, LightQueues queues, LocalPacker packer) {
+    public LightAccess(ChunkStore store, TouchedChunksTracker touched, LightQueues queues) {
         this.store = store;
         this.touched = touched;
         this.queues = queues;
-        this.packer = packer;
     }
 
+    /** Clears every channel of the chunk. */
     public void clearChunkLight(Chunk c) {
-        Arrays.fill(c.blockLight, (byte) 0);
+        Arrays.fill(c.light, (short) 0);
+        c.litSections = 0;
         touched.markTouched(c);
     }
 
-    public void setLightAtWorld(int wx, int wy, int wz, byte level) {
-        if (wy < 0 || wy >= SY) return;
+    /** This channel's level at a world cell (0 outside loaded chunks). */
+    public int levelAtWorld(int wx, int wy, int wz) {
+        Chunk c = chunkAtWorld(wx, wy, wz);
+        if (c == null) return 0;
 
-        int cx, cz, lx, lz;
+        return queues.level(c, c.idx(localX(wx), wy, localZ(wz)));
+    }
 
-        if (SX_POW2) {
-            cx = wx >> SX_SHIFT;
-            lx = wx & SX_MASK;
-        } else {
-            cx = Math.floorDiv(wx, SX);
-            lx = wx - cx * SX;
-        }
+    public void setLightAtWorld(int wx, int wy, int wz, int level) {
+        Chunk c = chunkAtWorld(wx, wy, wz);
+        if (c == null) return;
 
-        if (SZ_POW2) {
-            cz = wz >> SZ_SHIFT;
-            lz = wz & SZ_MASK;
-        } else {
-            cz = Math.floorDiv(wz, SZ);
-            lz = wz - cz * SZ;
-        }
+        setLightLocal(c, localX(wx), wy, localZ(wz), level);
+    }
 
-        Chunk c = store.getOrNull(cx, cz);
-        if (c == null || !c.isReady()) return;
+    /** Queue the cell at its current light level for spreading. */
+    public void enqueueAddWorld(int wx, int wy, int wz) {
+        Chunk c = chunkAtWorld(wx, wy, wz);
+        if (c == null) return;
 
-        if (c.setLightLocal(lx, wy, lz, level)) {
-            touched.markTouched(c);
-        }
+        enqueueAddLocal(c, localX(wx), wy, localZ(wz));
     }
 
-    public void enqueueAddWorld(int wx, int wy, int wz) {
-        if (wy < 0 || wy >= SY) return;
-
-        int cx, cz, lx, lz;
-
-        if (SX_POW2) {
-            cx = wx >> SX_SHIFT;
-            lx = wx & SX_MASK;
-        } else {
-            cx = Math.floorDiv(wx, SX);
-            lx = wx - cx * SX;
-        }
-
-        if (SZ_POW2) {
-            cz = wz >> SZ_SHIFT;
-            lz = wz & SZ_MASK;
-        } else {
-            cz = Math.floorDiv(wz, SZ);
-            lz = wz - cz * SZ;
-        }
+    public void enqueueAddLocal(Chunk c, int lx, int ly, int lz) {
+        int i = c.idx(lx, ly, lz);
+        queues.pushAdd(queues.slotOf(c), i, queues.level(c, i));
+    }
 
-        Chunk c = store.getOrNull(cx, cz);
-        if (c == null || !c.isReady()) return;
+    /** Queue the removal of oldLevel at a cell whose light was already cleared. */
+    public void enqueueRemoveWorld(int wx, int wy, int wz, int oldLevel) {
+        Chunk c = chunkAtWorld(wx, wy, wz);
+        if (c == null) return;
 
-        enqueueAddLocal(c, lx, wy, lz);
+        queues.pushRemove(queues.slotOf(c), c.idx(localX(wx), wy, localZ(wz)), oldLevel);
     }
 
-    public void enqueueAddLocal(Chunk c, int lx, int ly, int lz) {
-        long key = ChunkKey.pack(c.cx, c.cz);
-        int local = packer.packLocal(lx, ly, lz);
-        queues.pushAdd(key, local);
+    public boolean setLightLocal(Chunk c, int lx, int ly, int lz, int level) {
+        int i = c.idx(lx, ly, lz);
+        if (queues.level(c, i) == level) return false;
+
+        queues.setLevel(c, i, level);
+        if (level != 0 && queues.shift == 0) c.litSections |= 1 << ChunkEmitters.sectionOf(i);
+        touched.markTouched(c, i);
+        return true;
+    }
+
+    private Chunk chunkAtWorld(int wx, int wy, int wz) {
+        if (wy < 0 || wy >= SY) return null;
+
+        int cx = SX_POW2 ? (wx >> SX_SHIFT) : Math.floorDiv(wx, SX);
+        int cz = SZ_POW2 ? (wz >> SZ_SHIFT) : Math.floorDiv(wz, SZ);
+
+        Chunk c = store.getOrNull(cx, cz);
+        if (c == null || !c.isReady()) return null;
+        return c;
+    }
+
+    private static int localX(int wx) {
+        return SX_POW2 ? (wx & SX_MASK) : Math.floorMod(wx, SX);
     }
 
-    public boolean setLightLocal(Chunk c, int lx, int ly, int lz, byte level) {
-        if (c.setLightLocal(lx, ly, lz, level)) {
-            touched.markTouched(c);
-            return true;
-        }
-        return false;
+    private static int localZ(int wz) {
+        return SZ_POW2 ? (wz & SZ_MASK) : Math.floorMod(wz, SZ);
     }
 }
@@ -1,5 +1,6 @@
 package com.atom.life.world.light;
 
+import com.atom.life.world.Chunk;
 import com.atom.life.world.blocks.BlockDef;
 import com.atom.life.world.blocks.BlockRegistry;
 
@@ -8,7 +9,8 @@ public final class LightCaches {
     private final BlockRegistry registry;
     private final int maxLight;
 
-    private final byte[] emissionLvlCache = new byte[256]; // 0..maxLight
+    // block light an emitter gives its own cell: R, G, B levels packed as in Chunk.light (0 = not a source)
+    private final short[] emissionCache = new short[256];
     private final boolean[] opaqueCache = new boolean[256];
 
     public LightCaches(BlockRegistry registry, int maxLight) {
@@ -24,31 +26,40 @@ public final class LightCaches {
             opaqueCache[i] = registry.isOpaque(id);
 
             if (id == 0) {
-                emissionLvlCache[i] = 0;
+                emissionCache[i] = 0;
                 continue;
             }
 
             BlockDef d = registry.def(id);
             if (d == null) {
-                emissionLvlCache[i] = 0;
+                emissionCache[i] = 0;
                 continue;
             }
 
             float e = d.emission;
             if (e <= 0f) {
-                emissionLvlCache[i] = 0;
+                emissionCache[i] = 0;
                 continue;
             }
 
-            int lvl = (int) (e * maxLight + 0.999f);
-            if (lvl < 0) lvl = 0;
-            if (lvl > maxLight) lvl = maxLight;
-            emissionLvlCache[i] = (byte) lvl;
+            int rgb = d.lightColorRGB;
+            int r = lane(e, (rgb >>> 16) & 0xFF);
+            int g = lane(e, (rgb >>> 8) & 0xFF);
+            int b = lane(e, rgb & 0xFF);
+            emissionCache[i] = (short) ((r << Chunk.RED_SHIFT) | (g << Chunk.GREEN_SHIFT) | (b << Chunk.BLUE_SHIFT));
         }
     }
 
-    public int emissionToLevel(byte id) {
-        return emissionLvlCache[id & 0xFF] & 0xFF;
+    private int lane(float emission, int component) {
+        int lvl = (int) (emission * (component / 255f) * maxLight + 0.999f);
+        if (lvl < 0) lvl = 0;
+        if (lvl > maxLight) lvl = maxLight;
+        return lvl;
+    }
+
+    /** Packed R, G, B emission levels of a block (0 if it gives no light). */
+    public int emission(byte id) {
+        return emissionCache[id & 0xFF];
     }
 
     public boolean isOpaque(byte id) {
@@ -56,6 +67,6 @@ public final class LightCaches {
     }
 
     public boolean isSource(byte id) {
-        return (emissionLvlCache[id & 0xFF] & 0xFF) > 0;
+        return emissionCache[id & 0xFF] != 0;
     }
 }
@@ -0,0 +1,46 @@
+package com.atom.life.world.light;
+
+/**
+ * Per-lane math on packed light values: up to 3 lanes of 4 bits (block light R, G, B at bits 0, 4, 8).
+ * Lane values must stay <= 7 (BlockLightSystem.MAX_LIGHT): bit 3 of every lane is the guard bit the
+ * compares borrow into, so all lanes are handled in a few int ops instead of one BFS per color.
+ * Single-lane channels (sky, levels up to 15) do not use the SWAR helpers.
+ */
+final class LightLanes {
+
+    static final int LANES = 0x0FFF;
+    private static final int LOW = 0x111;
+    private static final int GUARD = 0x888;
+
+    private LightLanes() {}
+
+    /** Brightest lane. */
+    static int maxLane(int v) {
+        int m = Math.max(v & 0xF, (v >>> 4) & 0xF);
+        return Math.max(m, (v >>> 8) & 0xF);
+    }
+
+    /** Every non-zero lane minus one. */
+    static int dec(int v) {
+        return v - ((v | (v >>> 1) | (v >>> 2)) & LOW);
+    }
+
+    /** 0xF in each lane where a >= b. */
+    static int geMask(int a, int b) {
+        return ((((a | GUARD) - b) & GUARD) >>> 3) * 0xF;
+    }
+
+    /** Lane-wise max. */
+    static int max(int a, int b) {
+        int ge = geMask(a, b);
+        return (a & ge) | (b & ~ge & LANES);
+    }
+
+    /** 0xF in each lane that differs. */
+    static int diffMask(int a, int b) {
+        int t = a ^ b;
+        t |= t >>> 1;
+        t |= t >>> 2;
+        return (t & LOW) * 0xF;
+    }
+}
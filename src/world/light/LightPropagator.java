@@ -1,173 +1,245 @@
 package com.atom.life.world.light;
 
 import com.atom.life.world.Chunk;
-import com.atom.life.world.ChunkStore;
-import com.atom.life.world.World;
-
-import static com.atom.life.GlobalVariables.debug;
 
+import static com.atom.life.world.light.LightQueues.LOCAL_BITS;
+import static com.atom.life.world.light.LightQueues.LOCAL_MASK;
+import static com.atom.life.world.light.LightQueues.NX;
+import static com.atom.life.world.light.LightQueues.NZ;
+import static com.atom.life.world.light.LightQueues.PX;
+import static com.atom.life.world.light.LightQueues.PZ;
+
+/**
+ * Level-bucketed BFS over LightQueues, for one light channel.
+ * - removal first (highest removed level first), then adds (highest level first)
+ * - block light: R, G, B lanes travel together, one queue entry per cell for all three
+ *   (per-lane max / decrement / compares in LightLanes), so color costs no extra BFS passes
+ * - sky channel: full sky light goes straight down without falloff, and is removed the same way;
+ *   sky stops at opaque blocks (emitters included), block light enters emitters
+ * - cells are read and written straight in Chunk.blocks / Chunk.light by chunk index;
+ *   crossing a chunk border goes through the queue's cached neighbor slots
+ * - time-sliced: a call stops at its deadline with the rest left in the queues, and the next call resumes
+ *   (an entry is always finished before stopping, so queue contents stay valid between calls)
+ */
 public final class LightPropagator {
 
-    private final World world;
-    private final ChunkStore store;
-    private final LightAccess access;
     private final LightCaches caches;
     private final LightQueues queues;
-    private final LocalPacker packer;
+    private final TouchedChunksTracker touched;
+    private final boolean sky;
+    private final boolean rgb;
+    private final int max;
 
-    private final int maxAddPop;
-    private final int maxRemPop;
+    /** pops between deadline checks */
+    private static final int CLOCK_MASK = 255;
 
     private static final int SX = Chunk.SX;
     private static final int SY = Chunk.SY;
     private static final int SZ = Chunk.SZ;
+    private static final int LAYER = SX * SZ;
 
-    public LightPropagator(World world,
-                           ChunkStore store,
-                           LightAccess access,
-                           LightCaches caches,
+    public LightPropagator(LightCaches caches,
                            LightQueues queues,
-                           LocalPacker packer,
-                           int maxAddPop,
-                           int maxRemPop) {
-        this.world = world;
-        this.store = store;
-        this.access = access;
+                           TouchedChunksTracker touched,
+                           boolean sky) {
         this.caches = caches;
         this.queues = queues;
-        this.packer = packer;
-        this.maxAddPop = maxAddPop;
-        this.maxRemPop = maxRemPop;
+        this.touched = touched;
+        this.sky = sky;
+        this.rgb = queues.lanes > 1;
+        this.max = queues.maxLevel();
     }
 
-    public void processQueues() {
-        processRemoveOnly();
-        processAddOnly();
+    /** Drains the queues until empty (true) or until System.nanoTime() passes deadlineNs (false). */
+    public boolean processQueues(long deadlineNs) {
+        return processRemoveOnly(deadlineNs) && processAddOnly(deadlineNs);
     }
 
-    public void processRemoveOnly() {
+    public boolean processRemoveOnly(long deadlineNs) {
         int pops = 0;
-        LightQueues.RemEntry e = new LightQueues.RemEntry();
 
-        while (queues.popRemove(e)) {
-            if (++pops > maxRemPop) {
-                if (debug) {
-                    System.out.println("[BL][WARN] remove pop limit hit, remaining remQ=" + queues.remSize());
-                }
-                return;
-            }
+        for (int level = queues.maxLevel(); level >= 1; level--) {
+            LightQueues.Fifo q = queues.removeQueue(level);
 
-            int x = e.x, y = e.y, z = e.z, level = e.level;
+            while (!q.isEmpty()) {
+                if ((++pops & CLOCK_MASK) == 0 && System.nanoTime() - deadlineNs > 0) return false;
 
-            if (level <= 1) continue;
+                int e = q.pop();
+                int old = q.pop();
+                int slot = e >>> LOCAL_BITS;
+                int i = e & LOCAL_MASK;
 
-            removeCheckNeighbor(x + 1, y, z, level);
-            removeCheckNeighbor(x - 1, y, z, level);
-            removeCheckNeighbor(x, y + 1, z, level);
-            removeCheckNeighbor(x, y - 1, z, level);
-            removeCheckNeighbor(x, y, z + 1, level);
-            removeCheckNeighbor(x, y, z - 1, level);
-        }
-    }
+                int x = i % SX;
+                int z = (i / SX) % SZ;
+                int y = i / LAYER;
 
-    public void processAddOnly() {
-        int pops = 0;
-        LightQueues.AddEntry e = new LightQueues.AddEntry();
+                if (x + 1 < SX) removeCheck(slot, i + 1, old);
+                else removeCheck(queues.neighbor(slot, PX), i - (SX - 1), old);
+
+                if (x > 0) removeCheck(slot, i - 1, old);
+                else removeCheck(queues.neighbor(slot, NX), i + (SX - 1), old);
+
+                if (z + 1 < SZ) removeCheck(slot, i + SX, old);
+                else removeCheck(queues.neighbor(slot, PZ), i - (SZ - 1) * SX, old);
 
-        while (queues.popAdd(e)) {
-            if (++pops > maxAddPop) {
-                if (debug) {
-                    System.out.println("[BL][WARN] add pop limit hit, remaining addQ=" + queues.addSize());
+                if (z > 0) removeCheck(slot, i - SX, old);
+                else removeCheck(queues.neighbor(slot, NZ), i + (SZ - 1) * SX, old);
+
+                if (y + 1 < SY) removeCheck(slot, i + LAYER, old);
+                if (y > 0) {
+                    if (sky && old == max) removeCheckBelowFullSky(slot, i - LAYER);
+                    else removeCheck(slot, i - LAYER, old);
                 }
-                return;
             }
+        }
+        return true;
+    }
 
-            long key = e.chunkKey;
-            int local = e.local;
+    public boolean processAddOnly(long deadlineNs) {
+        int pops = 0;
 
-            Chunk c = store.getByKey(key);
-            if (c == null || !c.isReady()) continue;
+        for (int level = queues.maxLevel(); level >= 2; level--) {
+            LightQueues.Fifo q = queues.addQueue(level);
+
+            while (!q.isEmpty()) {
+                if ((++pops & CLOCK_MASK) == 0 && System.nanoTime() - deadlineNs > 0) return false;
+
+                int e = q.pop();
+                int slot = e >>> LOCAL_BITS;
+                int i = e & LOCAL_MASK;
+
+                int cur = queues.level(queues.chunk(slot), i);
+                int next;
+                if (rgb) {
+                    // stale: dimmed by a removal after it was queued (entries are bucketed by the lanes raised)
+                    if (LightLanes.maxLane(cur) < level) continue;
+                    next = LightLanes.dec(cur);
+                } else {
+                    // stale: cleared by a removal after it was queued (a raise re-queues in its own bucket)
+                    if (cur != level) continue;
+                    next = level - 1;
+                }
 
-            int lx = packer.unpackLocalX(local);
-            int ly = packer.unpackLocalY(local);
-            int lz = packer.unpackLocalZ(local);
+                int x = i % SX;
+                int z = (i / SX) % SZ;
+                int y = i / LAYER;
 
-            if (ly < 0 || ly >= SY) continue;
+                if (x + 1 < SX) tryRaise(slot, i + 1, next);
+                else tryRaise(queues.neighbor(slot, PX), i - (SX - 1), next);
 
-            int level = c.getLightLocal(lx, ly, lz) & 0xFF;
-            if (level <= 1) continue;
+                if (x > 0) tryRaise(slot, i - 1, next);
+                else tryRaise(queues.neighbor(slot, NX), i + (SX - 1), next);
 
-            int next = level - 1;
+                if (z + 1 < SZ) tryRaise(slot, i + SX, next);
+                else tryRaise(queues.neighbor(slot, PZ), i - (SZ - 1) * SX, next);
 
-            // x+1
-            if (lx + 1 < SX) {
-                addTryPropagateLocal(c, lx + 1, ly, lz, next);
-            } else {
-                Chunk n = store.getOrNull(c.cx + 1, c.cz);
-                if (n != null && n.isReady()) addTryPropagateLocal(n, 0, ly, lz, next);
-            }
+                if (z > 0) tryRaise(slot, i - SX, next);
+                else tryRaise(queues.neighbor(slot, NZ), i + (SZ - 1) * SX, next);
 
-            // x-1
-            if (lx - 1 >= 0) {
-                addTryPropagateLocal(c, lx - 1, ly, lz, next);
-            } else {
-                Chunk n = store.getOrNull(c.cx - 1, c.cz);
-                if (n != null && n.isReady()) addTryPropagateLocal(n, SX - 1, ly, lz, next);
+                if (y + 1 < SY) tryRaise(slot, i + LAYER, next);
+                if (y > 0) tryRaise(slot, i - LAYER, (sky && level == max) ? max : next);
             }
+        }
+        return true;
+    }
 
-            // z+1
-            if (lz + 1 < SZ) {
-                addTryPropagateLocal(c, lx, ly, lz + 1, next);
-            } else {
-                Chunk n = store.getOrNull(c.cx, c.cz + 1);
-                if (n != null && n.isReady()) addTryPropagateLocal(n, lx, ly, 0, next);
-            }
+    /**
+     * Neighbor of a cell that lost old (per lane):
+     * - dimmer (and above its own emission) => it was lit through that cell: drop it to its emission
+     *   and spread the removal (an emitter is re-queued to spread its own light again)
+     * - otherwise it keeps its light from another source: re-spread it after the removals
+     */
+    private void removeCheck(int slot, int i, int old) {
+        if (slot < 0) return;
+
+        Chunk c = queues.chunk(slot);
+        int nl = queues.level(c, i);
+        if (nl == 0) return;
 
-            // z-1
-            if (lz - 1 >= 0) {
-                addTryPropagateLocal(c, lx, ly, lz - 1, next);
+        if (!rgb) {
+            int src = sky ? 0 : caches.emission(c.blocks[i]);
+            if (nl < old && nl > src) {
+                drop(slot, c, i, nl, src);
             } else {
-                Chunk n = store.getOrNull(c.cx, c.cz - 1);
-                if (n != null && n.isReady()) addTryPropagateLocal(n, lx, ly, SZ - 1, next);
+                queues.pushAdd(slot, i, nl);
             }
+            return;
+        }
 
-            // y+1 / y-1
-            if (ly + 1 < SY) addTryPropagateLocal(c, lx, ly + 1, lz, next);
-            if (ly - 1 >= 0) addTryPropagateLocal(c, lx, ly - 1, lz, next);
+        int src = caches.emission(c.blocks[i]);
+        // lanes dimmer than the removed light and brighter than the cell's own emission
+        int dropped = ~LightLanes.geMask(nl, old) & ~LightLanes.geMask(src, nl) & LightLanes.LANES;
+        if (dropped == 0) {
+            queues.pushAdd(slot, i, nl);
+            return;
         }
-    }
 
-    private void removeCheckNeighbor(int nx, int ny, int nz, int oldLevel) {
-        if (ny < 0 || ny >= SY) return;
+        int kept = (nl & ~dropped) | (src & dropped);
+        queues.setLevel(c, i, kept);
+        touch(slot, c, i);
+        queues.pushRemove(slot, i, nl & dropped);
+        queues.pushAdd(slot, i, kept);
+    }
 
-        int nl = world.getBlockLight(nx, ny, nz) & 0xFF;
+    /** Full sky light below a cell that lost full sky light came straight down through it. */
+    private void removeCheckBelowFullSky(int slot, int i) {
+        Chunk c = queues.chunk(slot);
+        int nl = queues.level(c, i);
         if (nl == 0) return;
 
-        if (nl < oldLevel) {
-            access.setLightAtWorld(nx, ny, nz, (byte) 0);
-            queues.pushRemove(nx, ny, nz, nl);
+        if (nl == max) {
+            drop(slot, c, i, nl, 0);
         } else {
-            access.enqueueAddWorld(nx, ny, nz);
+            queues.pushAdd(slot, i, nl);
         }
     }
 
-    private void addTryPropagateLocal(Chunk c, int lx, int ly, int lz, int candidate) {
-        if (candidate <= 0) return;
+    private void drop(int slot, Chunk c, int i, int nl, int src) {
+        queues.setLevel(c, i, src);
+        touch(slot, c, i);
+        queues.pushRemove(slot, i, nl);
+        queues.pushAdd(slot, i, src);
+    }
+
+    private void tryRaise(int slot, int i, int candidate) {
+        if (slot < 0) return;
 
-        if (!canLightEnterCellLocal(c, lx, ly, lz)) return;
+        Chunk c = queues.chunk(slot);
+        int cur = queues.level(c, i);
 
-        int cur = c.getLightLocal(lx, ly, lz) & 0xFF;
-        if (candidate > cur) {
-            access.setLightLocal(c, lx, ly, lz, (byte) candidate);
-            access.enqueueAddLocal(c, lx, ly, lz);
+        int raised;
+        if (rgb) {
+            int nv = LightLanes.max(cur, candidate);
+            if (nv == cur) return;
+            if (!canLightEnter(c.blocks[i])) return;
+            queues.setLevel(c, i, nv);
+            // queued by the lanes that rose: their level is below the one being spread, so the entry is not lost
+            raised = nv & LightLanes.diffMask(nv, cur);
+        } else {
+            if (candidate <= cur) return;
+            if (!canLightEnter(c.blocks[i])) return;
+            queues.setLevel(c, i, candidate);
+            raised = candidate;
         }
-    }
 
-    private boolean canLightEnterCellLocal(Chunk c, int lx, int ly, int lz) {
-        byte id = c.getLocal(lx, ly, lz);
+        if (!sky) c.litSections |= 1 << ChunkEmitters.sectionOf(i);
+        touch(slot, c, i);
+        queues.pushAdd(slot, i, raised);
+    }
+    private void touch(int slot, Chunk c, int i) {
+        if (queues.markTouched(slot)) {
+            touched.markTouched(c, i);
+            return;
+        }
+        int s = TouchedChunksTracker.sidesOf(i);
+        if (s != 0 && queues.markSides(slot, s)) touched.markSides(c, s);
+    }
 
+    private boolean canLightEnter(byte id) {
         if (id == 0) return true;
 
+        if (sky) return !caches.isOpaque(id);
+
         if (caches.isSource(id)) return true;
 
         return !caches.isOpaque(id);
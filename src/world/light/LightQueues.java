@@ -1,81 +1,247 @@
 package com.atom.life.world.light;
 
-import com.atom.life.world.util.LongIntHashSet;
-import com.badlogic.gdx.utils.IntArray;
-import com.badlogic.gdx.utils.LongArray;
-
+import com.atom.life.world.Chunk;
+import com.atom.life.world.ChunkKey;
+import com.atom.life.world.ChunkStore;
+import com.atom.life.world.util.LongIntHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Level-bucketed BFS queues for one light channel of Chunk.light (block RGB lanes, or sky):
+ * one FIFO per light level, for adds and for removals.
+ * - an entry is (chunk slot << LOCAL_BITS) | chunk index (Chunk.idx), so propagation never hashes per cell;
+ *   a removal entry is followed by the packed value that was removed
+ * - a channel value packs its lanes (LightLanes); entries are bucketed by their brightest lane
+ * - slots index a per-pass chunk table that also caches each chunk's 4 horizontal neighbors
+ * - draining levels from high to low raises every cell straight to its final level, once
+ *   (DFS order used to raise cells several times on the way)
+ */
 public final class LightQueues {
 
-    private final LongArray addChunk = new LongArray(false, 1024);
-    private final IntArray addLocal = new IntArray(false, 1024);
+    private static final int VOLUME = Chunk.SX * Chunk.SY * Chunk.SZ;
+
+    public static final int LOCAL_BITS = 32 - Integer.numberOfLeadingZeros(VOLUME - 1);
+    public static final int LOCAL_MASK = (1 << LOCAL_BITS) - 1;
+
+    // cached neighbor directions
+    public static final int PX = 0, NX = 1, PZ = 2, NZ = 3;
+
+    private static final int NO_SLOT = -1;
+    private static final int UNRESOLVED = -2;
+
+    /** Growable int FIFO, reset when drained. */
+    public static final class Fifo {
+        private int[] items = new int[256];
+        private int head, tail;
+
+        void push(int v) {
+            if (tail == items.length) {
+                if (head > 0) {
+                    System.arraycopy(items, head, items, 0, tail - head);
+                    tail -= head;
+                    head = 0;
+                }
+                if (tail == items.length) {
+                    int[] n = new int[items.length << 1];
+                    System.arraycopy(items, 0, n, 0, tail);
+                    items = n;
+                }
+            }
+            items[tail++] = v;
+        }
 
-    private final LongArray remXZ = new LongArray(false, 1024);
-    private final IntArray remYL = new IntArray(false, 1024);
+        public boolean isEmpty() {
+            return head == tail;
+        }
 
-    private final LongIntHashSet addSeen = new LongIntHashSet(2048);
+        public int pop() {
+            int v = items[head++];
+            if (head == tail) head = tail = 0;
+            return v;
+        }
 
-    public void beginPass(boolean clearQueues) {
-        addSeen.reset();
-        if (clearQueues) {
-            addChunk.clear();
-            addLocal.clear();
-            remXZ.clear();
-            remYL.clear();
+        public int size() {
+            return tail - head;
+        }
+
+        void clear() {
+            head = tail = 0;
         }
     }
 
-    public void pushAdd(long chunkKey, int local) {
-        if (addSeen.add(chunkKey, local)) {
-            addChunk.add(chunkKey);
-            addLocal.add(local);
+    private final ChunkStore store;
+
+    /** channel position in the light short (0 = block, Chunk.SKY_LIGHT_SHIFT = sky) */
+    public final int shift;
+    /** 3 = block light R, G, B lanes, 1 = sky */
+    public final int lanes;
+    private final int valueMask;
+    private final int keep;
+
+    private final Fifo[] add;
+    private final Fifo[] rem;
+
+    // per-pass chunk table
+    private final LongIntHashMap slotByKey = new LongIntHashMap(64);
+    private Chunk[] chunks = new Chunk[16];
+    private int[] neighbors = new int[16 * 4];
+    private boolean[] touched = new boolean[16];
+    private int[] sides = new int[16];
+    private int slots;
+
+    public LightQueues(ChunkStore store, int maxLight, int shift, int lanes) {
+        this.store = store;
+        this.shift = shift;
+        this.lanes = lanes;
+        this.valueMask = (1 << (4 * lanes)) - 1;
+        this.keep = ~(valueMask << shift) & 0xFFFF;
+        this.add = new Fifo[maxLight + 1];
+        this.rem = new Fifo[maxLight + 1];
+        for (int l = 0; l <= maxLight; l++) {
+            add[l] = new Fifo();
+            rem[l] = new Fifo();
         }
     }
 
-    public boolean popAdd(AddEntry out) {
-        if (addChunk.size == 0) return false;
-        out.chunkKey = addChunk.pop();
-        out.local = addLocal.pop();
-        return true;
+    public int maxLevel() {
+        return add.length - 1;
     }
 
-    public int addSize() {
-        return addChunk.size;
+    /** This channel's value at chunk index i (its lanes packed, see LightLanes). */
+    public int level(Chunk c, int i) {
+        return ((c.light[i] & 0xFFFF) >>> shift) & valueMask;
     }
 
-    public void pushRemove(int wx, int wy, int wz, int level) {
-        remXZ.add(packXZ32(wx, wz));
-        remYL.add((wy & 0x3FF) | ((level & 0xFF) << 10));
+    public void setLevel(Chunk c, int i, int level) {
+        c.light[i] = (short) ((c.light[i] & keep) | (level << shift));
     }
 
-    public boolean popRemove(RemEntry out) {
-        if (remXZ.size == 0) return false;
-        long xz = remXZ.pop();
-        int yl = remYL.pop();
+    /**
+     * Starts a pass: new chunk table; queued entries (which reference its slots) are dropped with it.
+     * A pass may be propagated in slices, so the table lives until the queues are drained.
+     */
+    public void beginPass() {
+        for (Fifo q : add) q.clear();
+        for (Fifo q : rem) q.clear();
+
+        Arrays.fill(chunks, 0, slots, null);
+        slotByKey.reset();
+        slots = 0;
+    }
 
-        out.x = unpackX32(xz);
-        out.z = unpackZ32(xz);
-        out.y = (yl & 0x3FF);
-        out.level = (yl >>> 10);
+    // ---- chunk table ----
+
+    /** Slot of a READY chunk (registered on first use in this pass). */
+    public int slotOf(Chunk c) {
+        long key = ChunkKey.pack(c.cx, c.cz);
+        int s = slotByKey.get(key, NO_SLOT);
+        if (s != NO_SLOT) return s;
+
+        s = slots++;
+        if (s == chunks.length) {
+            chunks = Arrays.copyOf(chunks, s << 1);
+            neighbors = Arrays.copyOf(neighbors, (s << 1) * 4);
+            touched = Arrays.copyOf(touched, s << 1);
+            sides = Arrays.copyOf(sides, s << 1);
+        }
+        chunks[s] = c;
+        touched[s] = false;
+        sides[s] = 0;
+        Arrays.fill(neighbors, s * 4, s * 4 + 4, UNRESOLVED);
+        slotByKey.put(key, s);
+        return s;
+    }
+
+    public Chunk chunk(int slot) {
+        return chunks[slot];
+    }
+
+    /** Slot of the READY neighbor in direction dir (PX, NX, PZ, NZ), or -1 if it is not loaded. */
+    public int neighbor(int slot, int dir) {
+        int n = neighbors[slot * 4 + dir];
+        if (n != UNRESOLVED) return n;
+
+        Chunk c = chunks[slot];
+        int cx = c.cx, cz = c.cz;
+        switch (dir) {
+            case PX: cx++; break;
+            case NX: cx--; break;
+            case PZ: cz++; break;
+            default: cz--;
+        }
+
+        Chunk nc = store.getOrNull(cx, cz);
+        n = (nc != null && nc.isReady()) ? slotOf(nc) : NO_SLOT;
+        neighbors[slot * 4 + dir] = n;
+        return n;
+    }
+
+    /** First time a slot is written in this pass (caller marks the chunk for remesh). */
+    public boolean markTouched(int slot) {
+        if (touched[slot]) return false;
+        touched[slot] = true;
         return true;
     }
 
-    public int remSize() {
-        return remXZ.size;
+    /**
+     * Edge columns written in a slot (TouchedChunksTracker.SIDE_* bits; the neighbors' light texture borders change).
+     * True if any of them is new in this pass.
+     */
+    public boolean markSides(int slot, int sideBits) {
+        int cur = sides[slot];
+        if ((cur | sideBits) == cur) return false;
+        sides[slot] = cur | sideBits;
+        return true;
+    }
+
+    // ---- queues ----
+
+    /**
+     * Queue a lit cell for spreading, in the bucket of value's brightest lane
+     * (value: its current light, or only the lanes just raised). Levels <= 1 have nothing to spread.
+     */
+    public void pushAdd(int slot, int index, int value) {
+        int level = LightLanes.maxLane(value);
+        if (level <= 1) return;
+        add[level].push((slot << LOCAL_BITS) | index);
     }
 
-    public static final class AddEntry {
-        public long chunkKey;
-        public int local;
+    /**
+     * Queue a cell whose light (old, packed lanes) was just cleared.
+     * Level 1 is kept: its neighbors must still be visited so an independent brighter neighbor re-spreads into it.
+     */
+    public void pushRemove(int slot, int index, int old) {
+        int level = LightLanes.maxLane(old);
+        if (level <= 0) return;
+        Fifo q = rem[level];
+        q.push((slot << LOCAL_BITS) | index);
+        q.push(old);
     }
 
-    public static final class RemEntry {
-        public int x, y, z, level;
+    public Fifo addQueue(int level) {
+        return add[level];
     }
 
-    private static long packXZ32(int x, int z) {
-        return (((long) x) << 32) | (z & 0xFFFFFFFFL);
+    public Fifo removeQueue(int level) {
+        return rem[level];
     }
 
-    private static int unpackX32(long xz) { return (int) (xz >> 32); }
-    private static int unpackZ32(long xz) { return (int) xz; }
+    public boolean isEmpty() {
+        for (Fifo q : rem) if (!q.isEmpty()) return false;
+        for (Fifo q : add) if (!q.isEmpty()) return false;
+        return true;
+    }
+
+    public int addSize() {
+        int n = 0;
+        for (Fifo q : add) n += q.size();
+        return n;
+    }
+
+    public int remSize() {
+        int n = 0;
+        for (Fifo q : rem) n += q.size() >> 1;
+        return n;
+    }
 }
@@ -23,21 +23,54 @@ public final class LightSeeder {
     }
 
     public void seedChunkSources(Chunk c) {
-        for (int y = 0; y < SY; y++) {
-            for (int z = 0; z < SZ; z++) {
-                for (int x = 0; x < SX; x++) {
-                    byte id = c.getLocal(x, y, z);
-                    int src = caches.emissionToLevel(id);
-                    if (src <= 0) continue;
-
-                    // source even if opaque
-                    access.setLightLocal(c, x, y, z, (byte) src);
-                    access.enqueueAddLocal(c, x, y, z);
-                }
+        ChunkEmitters e = emittersOf(c);
+
+        for (int s = 0; s < ChunkEmitters.SECTIONS; s++) {
+            for (int k = 0, n = e.size(s); k < n; k++) {
+                int i = e.get(s, k);
+                int x = i % SX;
+                int z = (i / SX) % SZ;
+                int y = i / (SX * SZ);
+                seedSource(c, x, y, z, caches.emission(c.blocks[i]));
             }
         }
     }
 
+    private void seedSource(Chunk c, int x, int y, int z, int src) {
+        if (src <= 0) return;
+
+        // source even if opaque
+        access.setLightLocal(c, x, y, z, src);
+        access.enqueueAddLocal(c, x, y, z);
+    }
+
+    /** Keeps the chunk's emitter index in step with a block change (light worker only). */
+    public void onBlockChanged(int wx, int wy, int wz, byte oldId, byte newId) {
+        if (wy < 0 || wy >= SY) return;
+
+        int cx = Math.floorDiv(wx, SX);
+        int cz = Math.floorDiv(wz, SZ);
+        Chunk c = store.getOrNull(cx, cz);
+        if (c == null || !c.isReady()) return;
+
+        ChunkEmitters e = c.emitters;
+        if (e == null) {
+            emittersOf(c); // built from the current blocks, change included
+            return;
+        }
+        e.onBlockChanged(c.idx(wx - cx * SX, wy, wz - cz * SZ), oldId, newId, caches);
+    }
+
+    /** Index built by the LIGHT stage; a chunk that arrived without one is scanned once. */
+    private ChunkEmitters emittersOf(Chunk c) {
+        ChunkEmitters e = c.emitters;
+        if (e == null) {
+            e = ChunkEmitters.scan(c.blocks, caches);
+            c.emitters = e;
+        }
+        return e;
+    }
+
     public void seedNeighborAdd(int wx, int wy, int wz) {
         seedOne(wx + 1, wy, wz);
         seedOne(wx - 1, wy, wz);
@@ -50,12 +83,12 @@ public final class LightSeeder {
     private void seedOne(int wx, int wy, int wz) {
         if (wy < 0 || wy >= SY) return;
 
-        int l = world.getBlockLight(wx, wy, wz) & 0xFF;
+        int l = access.levelAtWorld(wx, wy, wz);
         if (l > 0) {
             access.enqueueAddWorld(wx, wy, wz);
         }
 
-        int src = caches.emissionToLevel(world.getBlock(wx, wy, wz));
+        int src = caches.emission(world.getBlock(wx, wy, wz));
         if (src > 0) {
             access.enqueueAddWorld(wx, wy, wz);
         }
@@ -71,6 +104,7 @@ public final class LightSeeder {
     /**
      * Scan a MAX_LIGHT-thick border strip in neighbor chunk to seed add queue.
      * dirX/dirZ indicates neighbor direction relative to c.
+     * Only sections the neighbor has ever lit are scanned (a dark neighbor costs nothing).
      */
     private void seedNeighborBorder(Chunk c, int ncx, int ncz, int dirX, int dirZ) {
         Chunk n = store.getOrNull(ncx, ncz);
@@ -85,12 +119,20 @@ public final class LightSeeder {
         else if (dirZ == +1) { z0 = 0; z1 = width; }
         else if (dirZ == -1) { z0 = SZ - width; z1 = SZ; }
 
-        for (int y = 0; y < SY; y++) {
-            for (int z = z0; z < z1; z++) {
-                for (int x = x0; x < x1; x++) {
-                    int l = n.getLightLocal(x, y, z) & 0xFF;
-                    if (l <= 0) continue;
-                    access.enqueueAddLocal(n, x, y, z);
+        int lit = n.litSections;
+        while (lit != 0) {
+            int s = Integer.numberOfTrailingZeros(lit);
+            lit &= lit - 1;
+
+            int y0 = (s << ChunkEmitters.SECTION_SHIFT) / (SX * SZ);
+            int y1 = ((s + 1) << ChunkEmitters.SECTION_SHIFT) / (SX * SZ);
+            for (int y = y0; y < y1; y++) {
+                for (int z = z0; z < z1; z++) {
+                    for (int x = x0; x < x1; x++) {
+                        int l = n.getBlockLightLocal(x, y, z);
+                        if (l <= 0) continue;
+                        access.enqueueAddLocal(n, x, y, z);
+                    }
                 }
             }
         }
@@ -0,0 +1,150 @@
+package com.atom.life.world.light;
+
+import com.atom.life.world.Chunk;
+import com.atom.life.world.ChunkStore;
+
+/**
+ * Sky light seeding from per-column heights.
+ * - vertical fill: every cell above a column's highest opaque block gets full sky light directly
+ * - horizontal BFS is seeded only where a lit column meets a shadowed neighbor (overhang / cave edges),
+ *   instead of queueing every open cell
+ * - block edits only touch sky light when they change whether the cell lets light through
+ */
+public final class SkyLightSeeder {
+
+    private static final int SX = Chunk.SX;
+    private static final int SY = Chunk.SY;
+    private static final int SZ = Chunk.SZ;
+    private static final int LAYER = SX * SZ;
+
+    private final ChunkStore store;
+    private final LightQueues queues;
+    private final LightAccess access;
+    private final LightCaches caches;
+    private final int max;
+
+    // fill scratch: lowest fully lit y per column (SY = no sky at the top cell)
+    private final int[] top = new int[SX * SZ];
+
+    public SkyLightSeeder(ChunkStore store, LightQueues queues, LightAccess access, LightCaches caches) {
+        this.store = store;
+        this.queues = queues;
+        this.access = access;
+        this.caches = caches;
+        this.max = queues.maxLevel();
+    }
+
+    /**
+     * Vertical fill of a chunk whose light was just cleared (full sky light down to each column's
+     * highest opaque block), then the overhang edges inside the chunk are queued.
+     */
+    public void fillColumns(Chunk c) {
+        byte[] blocks = c.blocks;
+
+        for (int col = 0; col < LAYER; col++) {
+            int y = SY - 1;
+            for (int i = y * LAYER + col; y >= 0 && !caches.isOpaque(blocks[i]); y--, i -= LAYER) {
+                queues.setLevel(c, i, max);
+            }
+            top[col] = y + 1;
+        }
+        c.skyFilled = true;
+
+        int slot = queues.slotOf(c);
+        for (int z = 0; z < SZ; z++) {
+            for (int x = 0; x < SX; x++) {
+                int col = z * SX + x;
+                int shadow = 0;
+                if (x > 0) shadow = Math.max(shadow, top[col - 1]);
+                if (x + 1 < SX) shadow = Math.max(shadow, top[col + 1]);
+                if (z > 0) shadow = Math.max(shadow, top[col - SX]);
+                if (z + 1 < SZ) shadow = Math.max(shadow, top[col + SX]);
+
+                // lit cells of this column next to an open cell of a neighbor column still in shadow
+                for (int y = top[col]; y < shadow; y++) {
+                    int i = y * LAYER + col;
+                    if ((x > 0 && shadowedOpen(blocks, col - 1, i - 1, y))
+                        || (x + 1 < SX && shadowedOpen(blocks, col + 1, i + 1, y))
+                        || (z > 0 && shadowedOpen(blocks, col - SX, i - SX, y))
+                        || (z + 1 < SZ && shadowedOpen(blocks, col + SX, i + SX, y))) {
+                        queues.pushAdd(slot, i, max);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Queues the sky light edges across the 4 borders, against the neighbor's actual sky light.
+     * Neighbors not filled yet are skipped: they seed this border when they arrive.
+     * Call once every chunk of the batch is filled.
+     */
+    public void seedBorders(Chunk c) {
+        int slot = queues.slotOf(c);
+        seedBorder(c, slot, queues.neighbor(slot, LightQueues.PX), SX - 1, 0, 1, 0);
+        seedBorder(c, slot, queues.neighbor(slot, LightQueues.NX), 0, SX - 1, 1, 0);
+        seedBorder(c, slot, queues.neighbor(slot, LightQueues.PZ), (SZ - 1) * SX, 0, 0, 1);
+        seedBorder(c, slot, queues.neighbor(slot, LightQueues.NZ), 0, (SZ - 1) * SX, 0, 1);
+    }
+
+    private boolean shadowedOpen(byte[] blocks, int col, int i, int y) {
+        return y < top[col] && !caches.isOpaque(blocks[i]);
+    }
+
+    /**
+     * Face pairs across one border: the brighter side is queued when it can raise the other.
+     * base/nBase: index of the face's first cell in c / in the neighbor; stepX/stepZ walk along the face.
+     */
+    private void seedBorder(Chunk c, int slot, int nSlot, int base, int nBase, int stepZ, int stepX) {
+        if (nSlot < 0) return;
+        Chunk n = queues.chunk(nSlot);
+        if (!n.skyFilled) return;
+
+        int step = stepZ * SX + stepX;
+        for (int y = 0; y < SY; y++) {
+            int row = y * LAYER;
+            for (int k = 0; k < SX; k++) {
+                int i = row + base + k * step;
+                int ni = row + nBase + k * step;
+
+                int l = queues.level(c, i);
+                int nl = queues.level(n, ni);
+                if (l > nl + 1) queues.pushAdd(slot, i, l);
+                else if (nl > l + 1) queues.pushAdd(nSlot, ni, nl);
+            }
+        }
+    }
+
+    /** Sky side of a block change (light worker, inside an open pass). */
+    public void onBlockChanged(int wx, int wy, int wz, byte oldId, byte newId) {
+        boolean wasOpen = !caches.isOpaque(oldId);
+        boolean nowOpen = !caches.isOpaque(newId);
+        if (wasOpen == nowOpen) return;
+
+        if (!nowOpen) {
+            int old = access.levelAtWorld(wx, wy, wz);
+            if (old > 0) {
+                access.setLightAtWorld(wx, wy, wz, 0);
+                access.enqueueRemoveWorld(wx, wy, wz, old);
+            }
+            return;
+        }
+
+        // opened: the brightest neighbor flows back in (full sky from above keeps going down)
+        if (wy == SY - 1) {
+            access.setLightAtWorld(wx, wy, wz, max);
+            access.enqueueAddWorld(wx, wy, wz);
+        }
+        reseed(wx + 1, wy, wz);
+        reseed(wx - 1, wy, wz);
+        reseed(wx, wy + 1, wz);
+        reseed(wx, wy - 1, wz);
+        reseed(wx, wy, wz + 1);
+        reseed(wx, wy, wz - 1);
+    }
+
+    private void reseed(int wx, int wy, int wz) {
+        if (wy < 0 || wy >= SY) return;
+        if (access.levelAtWorld(wx, wy, wz) > 0) access.enqueueAddWorld(wx, wy, wz);
+    }
+}
@@ -5,44 +5,135 @@ import com.atom.life.world.ChunkKey;
 import com.atom.life.world.ChunkStore;
 import com.atom.life.world.MeshSystem;
 import com.atom.life.world.util.LongHashSet;
+import com.atom.life.world.util.LongIntHashMap;
 import com.badlogic.gdx.utils.LongArray;
 
+/**
+ * Chunks written during a light pass, flushed to MeshSystem once the pass settles.
+ * - touched: light was written (remesh, or a light texture upload in light texture mode);
+ *   sides: x/z edge columns written, so the neighbor across that edge has a stale light texture border
+ * - edited: a block changed (always a remesh: geometry)
+ */
 public final class TouchedChunksTracker {
 
     private final ChunkStore store;
     private final MeshSystem meshSystem;
+    private final boolean lightTextures;
 
     private final LongArray touchedChunks = new LongArray(false, 64);
     private final LongHashSet touchedSeen = new LongHashSet(256);
 
+    /** per touched chunk: SIDE_* bits of the edges written */
+    private final LongIntHashMap sides = new LongIntHashMap(256);
+
+    public static final int SIDE_PX = 1, SIDE_NX = 2, SIDE_PZ = 4, SIDE_NZ = 8, ALL_SIDES = 15;
+
+    private final LongArray editedChunks = new LongArray(false, 16);
+    private final LongHashSet editedSeen = new LongHashSet(64);
+
     public TouchedChunksTracker(ChunkStore store, MeshSystem meshSystem) {
         this.store = store;
         this.meshSystem = meshSystem;
+        this.lightTextures = meshSystem.usesLightTextures();
     }
 
     public void beginPass() {
         // stamp reset
         touchedSeen.reset();
         touchedChunks.clear();
+        sides.reset();
+        editedSeen.reset();
+        editedChunks.clear();
     }
 
+    /** Light of the whole chunk was written (border included). */
     public void markTouched(Chunk c) {
         if (c == null) return;
         long key = ChunkKey.pack(c.cx, c.cz);
         if (touchedSeen.add(key)) {
             touchedChunks.add(key);
         }
+        sides.put(key, ALL_SIDES);
+    }
+
+    /** Light of one cell (chunk index) was written. */
+    public void markTouched(Chunk c, int index) {
+        if (c == null) return;
+        long key = ChunkKey.pack(c.cx, c.cz);
+        if (touchedSeen.add(key)) {
+            touchedChunks.add(key);
+        }
+        int s = sidesOf(index);
+        if (s != 0) markSides(c, s);
+    }
+
+    /** Edge columns written (SIDE_* bits; the chunk is already marked touched). */
+    public void markSides(Chunk c, int sideBits) {
+        long key = ChunkKey.pack(c.cx, c.cz);
+        sides.put(key, sides.get(key, 0) | sideBits);
+    }
+
+    /** SIDE_* bits of the chunk edges a cell (chunk index) lies on; 0 for inner cells. */
+    public static int sidesOf(int index) {
+        int x = index % Chunk.SX;
+        int z = (index / Chunk.SX) % Chunk.SZ;
+        int s = 0;
+        if (x == Chunk.SX - 1) s |= SIDE_PX;
+        else if (x == 0) s |= SIDE_NX;
+        if (z == Chunk.SZ - 1) s |= SIDE_PZ;
+        else if (z == 0) s |= SIDE_NZ;
+        return s;
+    }
+
+    public void markEdited(Chunk c) {
+        if (c == null) return;
+        long key = ChunkKey.pack(c.cx, c.cz);
+        if (editedSeen.add(key)) {
+            editedChunks.add(key);
+        }
     }
 
-    public void flushTouchedRemesh() {
+    /**
+     * One flush per settled pass.
+     * editQueuedNs: oldest edit of the pass (Long.MAX_VALUE = none), tracked until edited chunks are on screen.
+     */
+    public void flushTouchedRemesh(long editQueuedNs) {
+        for (int i = 0; i < editedChunks.size; i++) {
+            Chunk c = store.getByKey(editedChunks.get(i));
+            if (c == null || !c.isReady()) continue;
+
+            if (editQueuedNs != Long.MAX_VALUE) meshSystem.markEditPending(c, editQueuedNs);
+            remesh(c);
+        }
+
         for (int i = 0; i < touchedChunks.size; i++) {
             long key = touchedChunks.get(i);
             Chunk c = store.getByKey(key);
-            if (c != null && c.isReady()) {
-                meshSystem.requestRemeshForce(c);
+            if (c == null || !c.isReady()) continue;
+
+            if (lightTextures) {
+                meshSystem.requestLightUpload(c);
+                // neighbors' texture borders hold c's edge cells
+                int s = sides.get(key, 0);
+                if ((s & SIDE_PX) != 0) meshSystem.requestLightUpload(store.getOrNull(c.cx + 1, c.cz));
+                if ((s & SIDE_NX) != 0) meshSystem.requestLightUpload(store.getOrNull(c.cx - 1, c.cz));
+                if ((s & SIDE_PZ) != 0) meshSystem.requestLightUpload(store.getOrNull(c.cx, c.cz + 1));
+                if ((s & SIDE_NZ) != 0) meshSystem.requestLightUpload(store.getOrNull(c.cx, c.cz - 1));
+            } else if (!editedSeen.contains(key)) {
+                remesh(c);
             }
         }
         touchedChunks.clear();
         touchedSeen.reset();
+        sides.reset();
+        editedChunks.clear();
+        editedSeen.reset();
+    }
+
+    private void remesh(Chunk c) {
+        // propagation writes Chunk.light directly: invalidate meshes built before this pass once here
+        c.dirtyMesh = true;
+        c.meshRevision++;
+        meshSystem.requestRemeshForce(c);
     }
 }
@@ -27,6 +27,15 @@ public final class LongHashSet {
         }
     }
 
+    public boolean contains(long k) {
+        int idx = mix((int) (k ^ (k >>> 32))) & mask;
+        while (true) {
+            if (stamps[idx] != stamp) return false;
+            if (keys[idx] == k) return true;
+            idx = (idx + 1) & mask;
+        }
+    }
+
     public boolean add(long k) {
         if (size >= threshold) resize();
 
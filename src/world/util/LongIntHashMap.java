@@ -0,0 +1,104 @@
+package com.atom.life.world.util;
+
+/**
+ * long -> int open-addressing map with O(1) stamp reset (same scheme as LongIntHashSet).
+ */
+public final class LongIntHashMap {
+
+    private long[] keys;
+    private int[] vals;
+    private int[] stamps;
+    private int stamp = 1;
+    private int size;
+    private int mask;
+    private int threshold;
+
+    public LongIntHashMap(int initialCapacity) {
+        int cap = 1;
+        while (cap < initialCapacity) cap <<= 1;
+        keys = new long[cap];
+        vals = new int[cap];
+        stamps = new int[cap];
+        mask = cap - 1;
+        threshold = (int) (cap * 0.65f);
+    }
+
+    public void reset() {
+        stamp++;
+        size = 0;
+        if (stamp == 0) {
+            for (int i = 0; i < stamps.length; i++) stamps[i] = 0;
+            stamp = 1;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Value of k, or missing if absent. */
+    public int get(long k, int missing) {
+        int idx = mix(k) & mask;
+
+        while (true) {
+            if (stamps[idx] != stamp) return missing;
+            if (keys[idx] == k) return vals[idx];
+            idx = (idx + 1) & mask;
+        }
+    }
+
+    public void put(long k, int v) {
+        if (size >= threshold) resize();
+
+        int idx = mix(k) & mask;
+
+        while (true) {
+            if (stamps[idx] != stamp) {
+                stamps[idx] = stamp;
+                keys[idx] = k;
+                vals[idx] = v;
+                size++;
+                return;
+            }
+            if (keys[idx] == k) {
+                vals[idx] = v;
+                return;
+            }
+            idx = (idx + 1) & mask;
+        }
+    }
+
+    private void resize() {
+        long[] oldK = keys;
+        int[] oldV = vals;
+        int[] oldS = stamps;
+        int oldStamp = stamp;
+
+        int newCap = oldK.length << 1;
+        keys = new long[newCap];
+        vals = new int[newCap];
+        stamps = new int[newCap];
+        mask = newCap - 1;
+        threshold = (int) (newCap * 0.65f);
+
+        stamp++;
+        size = 0;
+        if (stamp == 0) stamp = 1;
+
+        for (int i = 0; i < oldK.length; i++) {
+            if (oldS[i] == oldStamp) {
+                put(oldK[i], oldV[i]);
+            }
+        }
+    }
+
+    private static int mix(long k) {
+        int x = (int) (k ^ (k >>> 32)) * 0x9E3779B9;
+        x ^= (x >>> 16);
+        x *= 0x7feb352d;
+        x ^= (x >>> 15);
+        x *= 0x846ca68b;
+        x ^= (x >>> 16);
+        return x;
+    }
+}